@@ -1,11 +1,11 @@
 package com.ncu.trackplatform.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
@@ -21,14 +21,23 @@ public class DatabaseConfig {
     @Value("${spring.datasource.password}")
     private String h2Password;
 
-    @Bean
+    // 连接池大小，导入时每个写入线程占用一个连接
+    @Value("${ingest.db-pool-size:10}")
+    private int poolSize;
+
+    /**
+     * 使用连接池，避免每次SQL调用都新建一个数据库连接
+     */
+    @Bean(destroyMethod = "close")
     @Primary
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("track-platform-pool");
         dataSource.setDriverClassName("org.h2.Driver");
-        dataSource.setUrl(h2Url);
+        dataSource.setJdbcUrl(h2Url);
         dataSource.setUsername(h2Username);
         dataSource.setPassword(h2Password);
+        dataSource.setMaximumPoolSize(Math.max(1, poolSize));
         return dataSource;
     }
 
@@ -0,0 +1,38 @@
+package com.ncu.trackplatform.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class IngestConfig {
+
+    // 并行解析线程数，0表示使用全部CPU核心
+    @Value("${ingest.parallelism:0}")
+    private int parallelism;
+
+    // 目录并发导入时同时处理的文件数
+    @Value("${ingest.file-workers:4}")
+    private int fileWorkers;
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool ingestPool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService importFilePool() {
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, fileWorkers), task -> {
+            Thread thread = new Thread(task, "import-file-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
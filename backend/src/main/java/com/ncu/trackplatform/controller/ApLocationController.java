@@ -0,0 +1,65 @@
+package com.ncu.trackplatform.controller;
+
+import com.ncu.trackplatform.service.ApAliasRegistry;
+import com.ncu.trackplatform.service.ApLocationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/ap-locations")
+@CrossOrigin(origins = "*")
+public class ApLocationController {
+
+    @Autowired
+    private ApLocationService apLocationService;
+
+    @Autowired
+    private ApAliasRegistry apAliasRegistry;
+
+    /**
+     * 获取AP坐标索引状态
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", "获取AP坐标索引状态成功");
+        response.put("data", apLocationService.getStatus());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 重新加载AP坐标，加载完成后原子替换索引，不影响正在进行的导入
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("code", 200);
+            response.put("message", "AP坐标已重新加载");
+            response.put("data", apLocationService.reload());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("code", 500);
+            response.put("message", "重新加载AP坐标失败: " + e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    /**
+     * 获取AP别名表统计信息
+     */
+    @GetMapping("/aliases")
+    public ResponseEntity<Map<String, Object>> getAliases() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", "获取AP别名表状态成功");
+        response.put("data", apAliasRegistry.getStatus());
+        return ResponseEntity.ok(response);
+    }
+}
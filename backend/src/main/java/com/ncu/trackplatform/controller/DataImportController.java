@@ -1,11 +1,16 @@
 package com.ncu.trackplatform.controller;
 
+import com.ncu.trackplatform.dto.FileImportProgress;
 import com.ncu.trackplatform.service.DataService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -21,9 +26,12 @@ public class DataImportController {
     private String dataDirectory;
 
     @PostMapping("/import")
-    public ResponseEntity<Map<String, Object>> importData() {
+    public ResponseEntity<Map<String, Object>> importData(
+            @RequestParam(value = "parallel", defaultValue = "false") boolean parallel,
+            @RequestParam(value = "concurrent", defaultValue = "false") boolean concurrent,
+            @RequestParam(value = "full", defaultValue = "false") boolean full) {
         try {
-            Map<String, Object> result = dataService.importDataFromDirectory(dataDirectory);
+            Map<String, Object> result = dataService.importDataFromDirectory(dataDirectory, parallel, concurrent, full);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
@@ -31,10 +39,34 @@ public class DataImportController {
         }
     }
 
+    /**
+     * 获取最近一次目录导入中各文件的进度
+     */
+    @GetMapping("/import/progress")
+    public ResponseEntity<List<FileImportProgress>> getImportProgress() {
+        return ResponseEntity.ok(dataService.getImportProgress());
+    }
+
+    /**
+     * 获取导入台账：每个文件已导入到的偏移、记录数及状态
+     */
+    @GetMapping("/import/ledger")
+    public ResponseEntity<List<Map<String, Object>>> getImportLedger() {
+        try {
+            return ResponseEntity.ok(dataService.getImportLedger());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/mac-addresses")
-    public ResponseEntity<List<String>> getAvailableMacAddresses() {
+    public ResponseEntity<List<String>> getAvailableMacAddresses(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         try {
-            List<String> macAddresses = dataService.getAvailableMacAddresses();
+            List<String> macAddresses = limit == null
+                    ? dataService.getAvailableMacAddresses()
+                    : dataService.getAvailableMacAddresses(after, Math.max(0, limit));
             return ResponseEntity.ok(macAddresses);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -51,6 +83,42 @@ public class DataImportController {
         }
     }
 
+    /**
+     * 按游标分页获取终端轨迹
+     * 第一页不传cursor，之后每次传入上一页返回的nextCursor
+     */
+    @GetMapping("/trajectory/{macAddress}/page")
+    public ResponseEntity<Map<String, Object>> getTrajectoryPage(
+            @PathVariable String macAddress,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        try {
+            return ResponseEntity.ok(dataService.getTrajectoryPage(macAddress, from, to, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("success", false, "message", "获取轨迹失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 以流的方式返回终端完整轨迹（JSON数组），服务端不缓存整个结果
+     */
+    @GetMapping("/trajectory/{macAddress}/stream")
+    public ResponseEntity<StreamingResponseBody> streamTrajectory(
+            @PathVariable String macAddress,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = outputStream -> dataService.streamTrajectory(macAddress, from, to, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getDatabaseStatus() {
         try {
@@ -0,0 +1,42 @@
+package com.ncu.trackplatform.controller;
+
+import com.ncu.trackplatform.service.IngestDiagnosticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+    @Autowired
+    private IngestDiagnosticsService diagnosticsService;
+
+    /**
+     * 获取数据导入诊断计数
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getDiagnostics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", "获取诊断信息成功");
+        response.put("data", diagnosticsService.getSnapshot());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 清零诊断计数
+     */
+    @PostMapping("/reset")
+    public ResponseEntity<Map<String, Object>> resetDiagnostics() {
+        diagnosticsService.reset();
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", "诊断计数已清零");
+        response.put("data", null);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ncu.trackplatform.controller;
+
+import com.ncu.trackplatform.service.LogTailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/ingest/tail")
+@CrossOrigin(origins = "*")
+public class TailIngestController {
+
+    @Autowired
+    private LogTailService logTailService;
+
+    /**
+     * 获取持续采集状态
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", "获取采集状态成功");
+        response.put("data", logTailService.getStatus());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 开始跟踪日志目录
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> start() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            boolean started = logTailService.start();
+            response.put("code", 200);
+            response.put("message", started ? "持续采集已启动" : "持续采集已在运行");
+            response.put("data", logTailService.getStatus());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("code", 500);
+            response.put("message", "启动持续采集失败: " + e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    /**
+     * 停止跟踪日志目录
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Object>> stop() {
+        logTailService.stop();
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", "持续采集已停止");
+        response.put("data", logTailService.getStatus());
+        return ResponseEntity.ok(response);
+    }
+}
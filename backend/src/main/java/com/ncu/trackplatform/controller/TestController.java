@@ -2,21 +2,70 @@ package com.ncu.trackplatform.controller;
 
 import com.ncu.trackplatform.repository.TrackPointRepository;
 import com.ncu.trackplatform.service.DataProcessingService;
+import com.ncu.trackplatform.service.DataService;
 import com.ncu.trackplatform.service.WiFiLogParsingService;
 import com.ncu.trackplatform.entity.TrackPoint;
+import com.ncu.trackplatform.parser.CsvSchema;
+import com.ncu.trackplatform.parser.LogTimestampParser;
+import com.ncu.trackplatform.parser.MacAddress;
+import com.ncu.trackplatform.parser.WiFiLogColumn;
+import com.ncu.trackplatform.parser.WiFiLogFieldScanner;
+import com.ncu.trackplatform.simplify.SimplificationMode;
+import com.ncu.trackplatform.simplify.TrackColumns;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/test")
 public class TestController {
     
+    // 原正则提取方式，作为字段扫描器性能对比的基准
+    private static final Pattern LEGACY_MAC_PATTERN = Pattern.compile("MAC[=:]([a-fA-F0-9:-]{17}|[a-fA-F0-9.]{14})");
+    private static final Pattern LEGACY_MAC_PATTERN2 = Pattern.compile("Client\\s+([a-fA-F0-9-]{12,17})");
+    private static final Pattern LEGACY_MAC_PATTERN3 = Pattern.compile("sta_mac\":\\s*\"([a-fA-F0-9.]{14})\"");
+    private static final Pattern LEGACY_AP_LOCATION_PATTERN = Pattern.compile("终端在AP\\s+([^\\s]+)\\s+");
+    private static final Pattern LEGACY_AP_LOCATION_PATTERN2 = Pattern.compile("终端在AP\\s+([^\\s(]+)");
+    private static final Pattern LEGACY_AP_ROAM_TO_PATTERN = Pattern.compile("漫游到AP\\s+([^\\s(]+)");
+    private static final Pattern LEGACY_ADDRESS_FORMAT_PATTERN = Pattern.compile("无线/([^/]+)/([^/\\s)]+)");
+    
+    // 基准测试使用的样例数据：{轨迹详细信息, 日志原文}
+    private static final String[][] BENCHMARK_ROWS = {
+        {"终端在AP 前湖北-艺术楼-b-2f-02 获取IP地址成功",
+         "【syslog】<182>Sep 17 09:54:36.353 2025 NCDX-AC-H3C %%10STAMGR/6/STAMGR_CLIENT_SNOOPING: Detected client IP change: Client MAC: aaac-acdd-d1fb, IP: 10.202.55.239, -NA-, -NA-, -NA-, Username: -NA-, AP name: qhxq-bq-ysl-b-2f-02, Radio ID: 2, Channel number: 11, SSID: NCUWLAN, BSSID: 3891-d588-3052."},
+        {"终端在AP 前湖北-材料环境楼-C349B-1 关联成功",
+         "【syslog】<182>Sep 17 2025 10:12:41.760.1+08:00 NCU_HW_AC1 %%01WSTA/6/WLAN_LOG_USER(l)[13031587]:[WLAN_STA_INFO_AP_ASSOCIATE]ACMAC:6c-34-91-f3-7a-f9;ACNAME:NCU_HW_AC1;APMAC:e4-77-27-d5-0b-a0;APNAME:CLHJL-C349B-1;APIP:10.133.0.251;RADIO:1;BAND:5G;SSID:NCUWLAN;ACCESS TYPE:Open;USER:b20c6f3fdf87;MAC:b2-0c-6f-3f-df-87;ASSOCDURATION:19721us;TIME:1758075161;ZONE:UTC+0800;DAYLIGHT:false;ERRCODE:0;RESULT:Success;"},
+        {"漫游到AP 无线/青山湖北/物理楼",
+         "{\"sta_mac\": \"aaac.acdd.d1fb\", \"ap_name\": \"QSHB-WLL-1F-01\"}"}
+    };
+    
+    // 轨迹查询性能测试最多生成的行数
+    private static final int MAX_BENCHMARK_ROWS = 10_000_000;
+    
+    // 轨迹查询性能测试每条 INSERT/DELETE 语句处理的行数，避免单个事务的回滚日志过大
+    private static final int BENCHMARK_CHUNK_ROWS = 500_000;
+    
+    // 轨迹查询性能测试写入 wifi_logs 的记录以此作为 source_file，测试结束后按此删除
+    private static final String BENCHMARK_SOURCE = "__trajectory_benchmark__";
+    
+    // 轨迹查询性能测试的终端MAC键从此值开始（本地管理地址 02:00:00:00:00:00），与 wifi_logs 的 mac_key 列同类型
+    private static final long BENCHMARK_MAC_BASE = 0x0200_0000_0000L;
+    
     // @Autowired
     // private TrackPointRepository trackPointRepository;
     
@@ -26,6 +75,12 @@ public class TestController {
     @Autowired
     private WiFiLogParsingService wifiLogParsingService;
     
+    @Autowired
+    private DataService dataService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     @GetMapping("/count")
     public String getCount() {
         return "数据统计功能暂时不可用";
@@ -86,17 +141,15 @@ public class TestController {
             
             // 定义CSV头部
             String[] headers = {"时间", "终端行为", "轨迹详细信息", "账号ID"};
+            CsvSchema<WiFiLogColumn> schema = CsvSchema.bind(WiFiLogColumn.class, headers);
+            LogTimestampParser timestamps = new LogTimestampParser();
             
             for (int i = 0; i < testLogs.length; i++) {
                 try {
                     // 将CSV行分割为数组
                     String[] lineArray = testLogs[i].split(",");
                     
-                    // 使用反射调用私有方法parseWiFiLogLine
-                    java.lang.reflect.Method method = wifiLogParsingService.getClass()
-                        .getDeclaredMethod("parseWiFiLogLine", String[].class, String[].class);
-                    method.setAccessible(true);
-                    TrackPoint trackPoint = (TrackPoint) method.invoke(wifiLogParsingService, lineArray, headers);
+                    TrackPoint trackPoint = wifiLogParsingService.parseWiFiLogLine(lineArray, schema, timestamps);
                     
                     Map<String, Object> pointInfo = new HashMap<>();
                     if (trackPoint != null) {
@@ -130,4 +183,267 @@ public class TestController {
         
         return result;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 字段提取性能对比：原正则方式 vs 单次扫描的字段扫描器
+     */
+    @GetMapping("/field-extraction-benchmark")
+    public Map<String, Object> benchmarkFieldExtraction(@RequestParam(defaultValue = "200000") int iterations) {
+        Map<String, Object> result = new HashMap<>();
+        WiFiLogFieldScanner scanner = new WiFiLogFieldScanner();
+        
+        // 预热，让JIT完成编译
+        int warmup = Math.min(iterations, 50000);
+        long sink = runRegexExtraction(warmup) + runScannerExtraction(scanner, warmup);
+        
+        long regexStart = System.nanoTime();
+        sink += runRegexExtraction(iterations);
+        long regexNanos = System.nanoTime() - regexStart;
+        
+        long scannerStart = System.nanoTime();
+        sink += runScannerExtraction(scanner, iterations);
+        long scannerNanos = System.nanoTime() - scannerStart;
+        
+        long rows = (long) iterations * BENCHMARK_ROWS.length;
+        Map<String, Object> data = new HashMap<>();
+        data.put("rows", rows);
+        data.put("regexNsPerRow", (double) regexNanos / rows);
+        data.put("scannerNsPerRow", (double) scannerNanos / rows);
+        data.put("speedup", scannerNanos > 0 ? (double) regexNanos / scannerNanos : 0);
+        data.put("checksum", sink);
+        
+        result.put("code", 200);
+        result.put("message", "字段提取性能测试完成");
+        result.put("data", data);
+        return result;
+    }
+    
+    private long runRegexExtraction(int iterations) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String[] row : BENCHMARK_ROWS) {
+                String ap = legacyFind(row[0], LEGACY_AP_LOCATION_PATTERN, LEGACY_AP_LOCATION_PATTERN2, LEGACY_AP_ROAM_TO_PATTERN);
+                if (ap != null) {
+                    Matcher matcher = LEGACY_ADDRESS_FORMAT_PATTERN.matcher(ap);
+                    if (matcher.find()) {
+                        ap = matcher.group(1) + "-" + matcher.group(2);
+                    }
+                    sink += ap.length();
+                }
+                String mac = legacyFind(row[1], LEGACY_MAC_PATTERN, LEGACY_MAC_PATTERN2, LEGACY_MAC_PATTERN3);
+                if (mac != null) {
+                    sink += mac.length();
+                }
+            }
+        }
+        return sink;
+    }
+    
+    private long runScannerExtraction(WiFiLogFieldScanner scanner, int iterations) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String[] row : BENCHMARK_ROWS) {
+                String ap = scanner.scanDetails(row[0]).apLocation();
+                if (ap != null) {
+                    sink += ap.length();
+                }
+                if (scanner.scanLog(row[1]).hasMac()) {
+                    sink += scanner.macEnd() - scanner.macStart();
+                }
+            }
+        }
+        return sink;
+    }
+    
+    private String legacyFind(String text, Pattern... patterns) {
+        for (Pattern pattern : patterns) {
+            Matcher matcher = pattern.matcher(text);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 轨迹查询性能测试
+     * 在真实的 wifi_logs 表中追加 rows 行测试记录（约 rows/macs 行属于同一终端），表结构和索引由 initializeTables 创建，与导入时相同；
+     * 按终端查询走 getTrajectoryPage，与轨迹接口使用同一条SQL和 (mac_key, event_time) 索引，
+     * 按AP查时间段使用 (ap_name, event_time) 索引，另用 USE INDEX () 强制全表扫描作为对照，并返回各查询的执行计划。
+     * 测试记录以 BENCHMARK_SOURCE 作为 source_file，开始前和结束后都按此分批删除；测试期间这些记录对轨迹查询可见。
+     * 数据库是应用自身的内存数据库，行数有硬上限，且只接受 POST，避免误访问占满服务器堆内存
+     */
+    @PostMapping("/trajectory-benchmark")
+    public Map<String, Object> benchmarkTrajectoryLookup(@RequestParam(defaultValue = "1000000") int rows,
+                                                         @RequestParam(defaultValue = "100000") int macs,
+                                                         @RequestParam(defaultValue = "1000") int lookups,
+                                                         @RequestParam(defaultValue = "3") int scanLookups) {
+        Map<String, Object> result = new HashMap<>();
+        Map<String, Object> data = new HashMap<>();
+        if (rows < 1 || rows > MAX_BENCHMARK_ROWS) {
+            result.put("code", 400);
+            result.put("message", "rows 必须在 1 到 " + MAX_BENCHMARK_ROWS + " 之间");
+            result.put("data", null);
+            return result;
+        }
+        int macCount = Math.max(1, Math.min(macs, rows));
+        int apCount = 2000;
+        LocalDateTime base = LocalDateTime.of(2025, 9, 1, 0, 0);
+        Random random = new Random(42);
+        
+        try {
+            dataService.initializeTables();
+            deleteBenchmarkRows();
+            
+            // 写入时同时维护 wifi_logs 上的全部索引，loadMs 包含索引维护的开销
+            long loadStart = System.nanoTime();
+            for (long first = 1; first <= rows; first += BENCHMARK_CHUNK_ROWS) {
+                long last = Math.min(rows, first + BENCHMARK_CHUNK_ROWS - 1);
+                jdbcTemplate.update(String.format(
+                    "INSERT INTO wifi_logs (timestamp, event_time, terminal_behavior, trajectory_details, " +
+                    "mac_key, ap_name, source_file, source_offset) " +
+                    "SELECT CAST(t AS VARCHAR), t, '上线 (关联成功)', CONCAT('终端在AP ', ap, ' 关联成功'), " +
+                    "mac, ap, ?, X FROM (" +
+                        "SELECT X, %d + MOD(X, %d) AS mac, CONCAT('AP-', MOD(X * 7, %d)) AS ap, " +
+                        "DATEADD('SECOND', X, TIMESTAMP '2025-09-01 00:00:00') AS t FROM SYSTEM_RANGE(%d, %d)" +
+                    ")",
+                    BENCHMARK_MAC_BASE, macCount, apCount, first, last), BENCHMARK_SOURCE);
+            }
+            data.put("rows", rows);
+            data.put("tableRows", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wifi_logs", Long.class));
+            data.put("loadMs", (System.nanoTime() - loadStart) / 1_000_000);
+            
+            String scanSql = "SELECT id, ap_name, event_time FROM wifi_logs USE INDEX () " +
+                             "WHERE mac_key = ? AND event_time IS NOT NULL ORDER BY event_time, id";
+            String apSql = "SELECT mac_key, event_time FROM wifi_logs " +
+                           "WHERE ap_name = ? AND event_time BETWEEN ? AND ? ORDER BY event_time";
+            data.put("macPlan", explain("SELECT id FROM wifi_logs WHERE mac_key = ? AND event_time IS NOT NULL " +
+                                        "ORDER BY event_time, id", BENCHMARK_MAC_BASE));
+            data.put("apPlan", explain(apSql, "AP-0", base, base.plusHours(6)));
+            data.put("scanPlan", explain(scanSql, BENCHMARK_MAC_BASE));
+            
+            // 强制全表扫描：不使用任何索引时每次查询的耗时
+            long scanStart = System.nanoTime();
+            long scanRows = 0;
+            for (int i = 0; i < scanLookups; i++) {
+                scanRows += jdbcTemplate.queryForList(scanSql, BENCHMARK_MAC_BASE + random.nextInt(macCount)).size();
+            }
+            long scanNanos = System.nanoTime() - scanStart;
+            data.put("scanLookups", scanLookups);
+            data.put("scanMsPerLookup", scanLookups > 0 ? scanNanos / 1e6 / scanLookups : 0);
+            
+            long macStart = System.nanoTime();
+            long macRows = 0;
+            for (int i = 0; i < lookups; i++) {
+                String mac = MacAddress.format(BENCHMARK_MAC_BASE + random.nextInt(macCount));
+                List<?> items = (List<?>) dataService.getTrajectoryPage(mac, null, null, null, Integer.MAX_VALUE).get("items");
+                macRows += items.size();
+            }
+            long macNanos = System.nanoTime() - macStart;
+            
+            long apStart = System.nanoTime();
+            long apRows = 0;
+            for (int i = 0; i < lookups; i++) {
+                LocalDateTime from = base.plusSeconds(random.nextInt(Math.max(1, rows)));
+                apRows += jdbcTemplate.queryForList(apSql, "AP-" + random.nextInt(apCount), from, from.plusHours(6)).size();
+            }
+            long apNanos = System.nanoTime() - apStart;
+            
+            data.put("lookups", lookups);
+            data.put("indexedMacMsPerLookup", lookups > 0 ? macNanos / 1e6 / lookups : 0);
+            data.put("indexedApRangeMsPerLookup", lookups > 0 ? apNanos / 1e6 / lookups : 0);
+            data.put("avgRowsPerMacLookup", lookups > 0 ? (double) macRows / lookups : 0);
+            data.put("avgRowsPerApLookup", lookups > 0 ? (double) apRows / lookups : 0);
+            data.put("scanRows", scanRows);
+            
+            result.put("code", 200);
+            result.put("message", "轨迹查询性能测试完成");
+            result.put("data", data);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "轨迹查询性能测试失败: " + e.getMessage());
+            result.put("data", data);
+        } finally {
+            deleteBenchmarkRows();
+        }
+        return result;
+    }
+    
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+    }
+    
+    private void deleteBenchmarkRows() {
+        // 分批删除，每批一个事务
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM wifi_logs WHERE source_file = ? FETCH FIRST " +
+                                          BENCHMARK_CHUNK_ROWS + " ROWS ONLY", BENCHMARK_SOURCE);
+        } while (deleted > 0);
+    }
+    
+    /**
+     * 轨迹抽稀性能对比
+     * 生成一条 points 个点的随机游走轨迹（校园范围内，10~60秒一个点），
+     * 分别用各抽稀方式的默认容差处理，对比保留点数和每个点的平均耗时；maxPoints 大于0时同时限制点数。
+     * 列式转换的耗时单独统计，各方式的耗时只包含在列式轨迹上的抽稀
+     */
+    @GetMapping("/simplification-benchmark")
+    public Map<String, Object> benchmarkSimplification(@RequestParam(defaultValue = "100000") int points,
+                                                       @RequestParam(defaultValue = "0") int maxPoints,
+                                                       @RequestParam(defaultValue = "5") int repeats) {
+        Map<String, Object> result = new HashMap<>();
+        List<TrackPoint> track = generateRandomWalk(Math.max(3, points), new Random(42));
+        int rounds = Math.max(1, repeats);
+        
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("points", track.size());
+        data.put("maxPoints", maxPoints);
+        
+        TrackColumns columns = TrackColumns.of(track);
+        long conversionStart = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            columns = TrackColumns.of(track);
+        }
+        data.put("conversionNsPerPoint", (double) (System.nanoTime() - conversionStart) / rounds / track.size());
+        
+        for (SimplificationMode mode : SimplificationMode.values()) {
+            // 预热，让JIT完成编译
+            int[] kept = mode.getSimplifier().simplify(columns, mode.getDefaultTolerance(), maxPoints);
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                kept = mode.getSimplifier().simplify(columns, mode.getDefaultTolerance(), maxPoints);
+            }
+            long nanos = (System.nanoTime() - start) / rounds;
+            
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("tolerance", mode.getDefaultTolerance());
+            item.put("keptPoints", kept.length);
+            item.put("reductionPercent", (double) (track.size() - kept.length) / track.size() * 100);
+            item.put("nsPerPoint", (double) nanos / track.size());
+            item.put("totalMs", nanos / 1e6);
+            data.put(mode.getCode(), item);
+        }
+        
+        result.put("code", 200);
+        result.put("message", "轨迹抽稀性能测试完成");
+        result.put("data", data);
+        return result;
+    }
+    
+    private List<TrackPoint> generateRandomWalk(int count, Random random) {
+        List<TrackPoint> track = new ArrayList<>(count);
+        double latitude = 28.6647;
+        double longitude = 115.8107;
+        LocalDateTime time = LocalDateTime.of(2025, 9, 17, 8, 0);
+        for (int i = 0; i < count; i++) {
+            // 大部分时间停留在同一位置附近，偶尔移动到相邻建筑
+            double step = random.nextInt(10) == 0 ? 0.001 : 0.00003;
+            latitude += (random.nextDouble() - 0.5) * step;
+            longitude += (random.nextDouble() - 0.5) * step;
+            time = time.plusSeconds(10 + random.nextInt(50));
+            track.add(new TrackPoint("benchmark", latitude, longitude, time));
+        }
+        return track;
+    }
+}
@@ -2,6 +2,7 @@ package com.ncu.trackplatform.controller;
 
 import com.ncu.trackplatform.entity.TrackPoint;
 import com.ncu.trackplatform.repository.TrackPointRepository;
+import com.ncu.trackplatform.service.IncrementalTrackOptimizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +20,9 @@ public class TestDataController {
     @Autowired
     private TrackPointRepository trackPointRepository;
     
+    @Autowired
+    private IncrementalTrackOptimizer incrementalTrackOptimizer;
+    
     @PostMapping("/init")
     public ResponseEntity<Map<String, Object>> initTestData() {
         try {
@@ -57,6 +61,8 @@ public class TestDataController {
             
             // 保存所有测试数据
             trackPointRepository.saveAll(testPoints);
+            // 测试数据不经过实时导入，补算在线抽稀结果
+            incrementalTrackOptimizer.backfill();
             
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
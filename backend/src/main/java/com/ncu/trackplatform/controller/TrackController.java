@@ -5,6 +5,7 @@ import com.ncu.trackplatform.dto.TrackPointDto;
 import com.ncu.trackplatform.service.TrackService;
 import com.ncu.trackplatform.service.WiFiLogParsingService;
 import com.ncu.trackplatform.service.BehaviorBasedOptimizationService;
+import com.ncu.trackplatform.simplify.SimplificationMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -50,11 +51,27 @@ public class TrackController {
     
     /**
      * 根据轨迹ID获取轨迹点
+     * @param mode 抽稀方式：threshold（默认）、dp（Douglas-Peucker）、vw（Visvalingam-Whyatt）
+     * @param tolerance 容差，threshold/dp 为米，vw 为平方米；不传时使用默认值
+     * @param maxPoints 最多返回的点数（dp/vw 有效），0表示不限制
      */
     @GetMapping("/{trackId}/points")
-    public ResponseEntity<Map<String, Object>> getTrackPoints(@PathVariable String trackId) {
+    public ResponseEntity<Map<String, Object>> getTrackPoints(@PathVariable String trackId,
+                                                              @RequestParam(value = "mode", required = false) String mode,
+                                                              @RequestParam(value = "tolerance", required = false) Double tolerance,
+                                                              @RequestParam(value = "maxPoints", defaultValue = "0") int maxPoints) {
+        SimplificationMode simplificationMode;
         try {
-            List<TrackPointDto> points = trackService.getTrackPoints(trackId);
+            simplificationMode = SimplificationMode.fromParam(mode);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("code", 400);
+            response.put("message", e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            List<TrackPointDto> points = trackService.getTrackPoints(trackId, simplificationMode, tolerance, maxPoints);
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
             response.put("message", "获取轨迹点成功");
@@ -70,12 +87,27 @@ public class TrackController {
     }
     
     /**
-     * 获取所有轨迹点
+     * 获取所有轨迹点，每个账号的轨迹分别抽稀
+     * @param mode 抽稀方式：threshold（默认）、dp（Douglas-Peucker）、vw（Visvalingam-Whyatt）
+     * @param tolerance 容差，threshold/dp 为米，vw 为平方米；不传时使用默认值
+     * @param maxPoints 每个账号最多返回的点数（dp/vw 有效），0表示不限制
      */
     @GetMapping("/all")
-    public ResponseEntity<Map<String, Object>> getAllTrackPoints() {
+    public ResponseEntity<Map<String, Object>> getAllTrackPoints(@RequestParam(value = "mode", required = false) String mode,
+                                                                 @RequestParam(value = "tolerance", required = false) Double tolerance,
+                                                                 @RequestParam(value = "maxPoints", defaultValue = "0") int maxPoints) {
+        SimplificationMode simplificationMode;
+        try {
+            simplificationMode = SimplificationMode.fromParam(mode);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("code", 400);
+            response.put("message", e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.badRequest().body(response);
+        }
         try {
-            List<TrackPointDto> points = trackService.getAllTrackPoints();
+            List<TrackPointDto> points = trackService.getAllTrackPoints(simplificationMode, tolerance, maxPoints);
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
             response.put("message", "获取所有轨迹点成功");
@@ -123,7 +155,8 @@ public class TrackController {
      * 上传WiFi日志数据（基于终端行为优化）
      */
     @PostMapping("/upload-wifi")
-    public ResponseEntity<Map<String, Object>> uploadWiFiLogData(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> uploadWiFiLogData(@RequestParam("file") MultipartFile file,
+                                                                 @RequestParam(value = "parallel", defaultValue = "false") boolean parallel) {
         try {
             if (file.isEmpty()) {
                 Map<String, Object> response = new HashMap<>();
@@ -133,7 +166,7 @@ public class TrackController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            String result = behaviorBasedOptimizationService.processWiFiLogFile(file);
+            String result = behaviorBasedOptimizationService.processWiFiLogFile(file, parallel);
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
             response.put("message", result);
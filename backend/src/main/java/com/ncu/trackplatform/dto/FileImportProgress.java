@@ -0,0 +1,89 @@
+package com.ncu.trackplatform.dto;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个文件的导入进度，导入线程更新、查询接口读取，字段均可并发访问
+ */
+public class FileImportProgress {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private final String fileName;
+    private final long fileSize;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile String status = PENDING;
+    private volatile String message;
+    private volatile long startedAt;
+    private volatile long elapsedMs;
+
+    public FileImportProgress(String fileName, long fileSize) {
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+    }
+
+    public void start() {
+        startedAt = System.nanoTime();
+        status = RUNNING;
+    }
+
+    public void finish(String status, String message) {
+        elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+        this.message = message;
+        this.status = status;
+    }
+
+    /**
+     * 累加已读取字节数及记录计数，各导入线程按批次调用
+     */
+    public void add(long bytes, long processedRows, long errorRows) {
+        bytesRead.addAndGet(bytes);
+        processed.addAndGet(processedRows);
+        errors.addAndGet(errorRows);
+    }
+
+    // Getters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getElapsedMs() {
+        return RUNNING.equals(status) ? (System.nanoTime() - startedAt) / 1_000_000 : elapsedMs;
+    }
+
+    public double getPercent() {
+        if (DONE.equals(status)) {
+            return 100.0;
+        }
+        return fileSize > 0 ? Math.min(100.0, bytesRead.get() * 100.0 / fileSize) : 0.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ncu.trackplatform.entity;
+
+/**
+ * 终端事件类型
+ */
+public enum TrackEventType {
+
+    ASSOCIATED("关联成功"),
+    IP_ACQUIRED("获取IP地址成功"),
+    ROAMED("漫游"),
+    ONLINE("上线"),
+    OFFLINE("下线"),
+    AUTH_FAILED("认证或关联失败");
+
+    private final String description;
+
+    TrackEventType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 上线类事件：终端出现在某个AP上，会生成轨迹点
+     */
+    public boolean isOnline() {
+        return this == ASSOCIATED || this == IP_ACQUIRED || this == ROAMED || this == ONLINE;
+    }
+
+    /**
+     * 关联成功或获取IP地址成功：终端确实连接在该AP上，可作为位置变化的依据
+     */
+    public boolean isConnection() {
+        return this == ASSOCIATED || this == IP_ACQUIRED;
+    }
+}
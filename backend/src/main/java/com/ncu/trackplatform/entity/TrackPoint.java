@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "TRACK_POINTS")
+@Table(name = "TRACK_POINTS", indexes = {
+    @Index(name = "IDX_TRACK_POINTS_ACCOUNT_KEPT_TIME", columnList = "ACCOUNT_ID, KEPT, TIMESTAMP")
+})
 public class TrackPoint {
     
     @Id
@@ -32,6 +34,27 @@ public class TrackPoint {
     @Column(name = "TRACK_ID")
     private String trackId;
     
+    // 48位MAC键，账号不是MAC（IP或账号名回退）时为空
+    @Column(name = "MAC_KEY")
+    private Long macKey;
+    
+    // 解析时识别出的上线事件类型
+    @Enumerated(EnumType.STRING)
+    @Column(name = "EVENT_TYPE", length = 20)
+    private TrackEventType eventType;
+    
+    // 规范AP编号，与 AP_NAME 一一对应，便于按整数比较位置
+    @Column(name = "AP_ID")
+    private Integer apId;
+    
+    // 规范AP位置，如"前湖北-艺术楼-b-2f-02"
+    @Column(name = "AP_NAME")
+    private String apName;
+    
+    // 导入时在线抽稀的结果：true 为保留点，false 为滤掉的点，null 表示未经在线抽稀（如测试数据）
+    @Column(name = "KEPT")
+    private Boolean kept;
+    
     // 默认构造函数
     public TrackPoint() {}
     
@@ -107,4 +130,44 @@ public class TrackPoint {
     public void setTrackId(String trackId) {
         this.trackId = trackId;
     }
-}
\ No newline at end of file
+
+    public Long getMacKey() {
+        return macKey;
+    }
+    
+    public void setMacKey(Long macKey) {
+        this.macKey = macKey;
+    }
+    
+    public TrackEventType getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(TrackEventType eventType) {
+        this.eventType = eventType;
+    }
+    
+    public Integer getApId() {
+        return apId;
+    }
+    
+    public void setApId(Integer apId) {
+        this.apId = apId;
+    }
+    
+    public String getApName() {
+        return apName;
+    }
+    
+    public void setApName(String apName) {
+        this.apName = apName;
+    }
+    
+    public Boolean getKept() {
+        return kept;
+    }
+    
+    public void setKept(Boolean kept) {
+        this.kept = kept;
+    }
+}
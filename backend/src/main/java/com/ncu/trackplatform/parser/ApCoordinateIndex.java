@@ -0,0 +1,157 @@
+package com.ncu.trackplatform.parser;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * AP坐标索引（不可变）
+ * AP名称形如 "校区-建筑-房间-编号"，按字符构建前缀树，每个节点的子节点按字符排序存放在数组中。
+ * 查找时沿名称逐字符下行，在每个 '-' 分段边界和名称末尾记下已登记的坐标，
+ * 返回最长的匹配：AP本身，其次所在建筑，最后校区。查找过程不分配对象。
+ * 重新加载时构建新的索引整体替换，读取方无需加锁。
+ */
+public final class ApCoordinateIndex {
+
+    private static final char SEPARATOR = '-';
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /**
+     * 索引中登记的一个位置
+     */
+    public static final class Entry {
+        private final String name;
+        private final double[] coordinates;
+
+        private Entry(String name, double longitude, double latitude) {
+            this.name = name;
+            this.coordinates = new double[]{longitude, latitude};
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return {经度, 纬度}，调用方不得修改
+         */
+        public double[] getCoordinates() {
+            return coordinates;
+        }
+    }
+
+    private static final class Node {
+        private final char[] labels;
+        private final Node[] children;
+        private final Entry entry;
+
+        private Node(char[] labels, Node[] children, Entry entry) {
+            this.labels = labels;
+            this.children = children;
+            this.entry = entry;
+        }
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+    }
+
+    private static final ApCoordinateIndex EMPTY = new ApCoordinateIndex(new Node(NO_LABELS, NO_CHILDREN, null), 0);
+
+    private final Node root;
+    private final int size;
+
+    private ApCoordinateIndex(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static ApCoordinateIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 查找AP坐标，依次回退到建筑、校区
+     * @return 最长匹配的位置，都未登记时返回null；getName() 比查询名称短说明发生了回退
+     */
+    public Entry lookup(CharSequence apLocation) {
+        if (apLocation == null) {
+            return null;
+        }
+        Entry best = null;
+        Node node = root;
+        int length = apLocation.length();
+        for (int i = 0; i < length; i++) {
+            char c = apLocation.charAt(i);
+            if (c == SEPARATOR && node.entry != null) {
+                best = node.entry;
+            }
+            node = node.child(c);
+            if (node == null) {
+                return best;
+            }
+        }
+        return node.entry != null ? node.entry : best;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 索引构建器，同名位置后登记的覆盖先登记的
+     */
+    public static final class Builder {
+        private final Map<String, Entry> entries = new TreeMap<>();
+
+        private Builder() {
+        }
+
+        public Builder put(String name, double longitude, double latitude) {
+            String key = name.trim();
+            if (!key.isEmpty()) {
+                entries.put(key, new Entry(key, longitude, latitude));
+            }
+            return this;
+        }
+
+        public ApCoordinateIndex build() {
+            MutableNode root = new MutableNode();
+            for (Entry entry : entries.values()) {
+                MutableNode node = root;
+                String name = entry.getName();
+                for (int i = 0; i < name.length(); i++) {
+                    node = node.children.computeIfAbsent(name.charAt(i), c -> new MutableNode());
+                }
+                node.entry = entry;
+            }
+            return new ApCoordinateIndex(root.freeze(), entries.size());
+        }
+    }
+
+    private static final class MutableNode {
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private Entry entry;
+
+        private Node freeze() {
+            if (children.isEmpty()) {
+                return new Node(NO_LABELS, NO_CHILDREN, entry);
+            }
+            char[] labels = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                frozen[i] = child.getValue().freeze();
+                i++;
+            }
+            return new Node(labels, frozen, entry);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.ncu.trackplatform.parser;
+
+import com.ncu.trackplatform.entity.TrackEventType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 终端行为分类器
+ * 把所有行为短语编译成一个 Aho-Corasick 自动机，对"终端行为"文本扫描一遍即可得到事件类型。
+ * 一段文本命中多个短语时按类型优先级取最高者：失败 > 下线 > 漫游 > 获取IP > 关联 > 上线，
+ * 例如"上线失败"归为认证失败，"去关联成功"归为下线。
+ * 自动机不可变，可在多个线程间共享；扫描过程不分配对象。
+ */
+public final class BehaviorClassifier {
+
+    // 下标越小优先级越高
+    private static final TrackEventType[] PRIORITY = {
+        TrackEventType.AUTH_FAILED,
+        TrackEventType.OFFLINE,
+        TrackEventType.ROAMED,
+        TrackEventType.IP_ACQUIRED,
+        TrackEventType.ASSOCIATED,
+        TrackEventType.ONLINE
+    };
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final BehaviorClassifier DEFAULTS = builder()
+        .phrase(TrackEventType.AUTH_FAILED, "认证失败", "鉴权失败", "关联失败", "获取IP地址失败", "上线失败")
+        .phrase(TrackEventType.OFFLINE, "下线", "离线", "去关联", "断开")
+        .phrase(TrackEventType.ROAMED, "漫游")
+        .phrase(TrackEventType.IP_ACQUIRED, "获取IP地址成功")
+        .phrase(TrackEventType.ASSOCIATED, "关联成功")
+        .phrase(TrackEventType.ONLINE, "上线")
+        .build();
+
+    // 状态 s 的转移：labels[s] 按字符排序，targets[s] 为对应的下一状态
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    // 到达状态 s 时（含失败链上的后缀）命中的最高优先级，NO_MATCH 表示没有
+    private final int[] output;
+
+    private BehaviorClassifier(char[][] labels, int[][] targets, int[] fail, int[] output) {
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.output = output;
+    }
+
+    public static BehaviorClassifier defaults() {
+        return DEFAULTS;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 事件类型，没有命中任何短语时返回null
+     */
+    public TrackEventType classify(CharSequence behavior) {
+        if (behavior == null) {
+            return null;
+        }
+        int best = NO_MATCH;
+        int state = 0;
+        for (int i = 0; i < behavior.length(); i++) {
+            state = next(state, behavior.charAt(i));
+            if (output[state] < best) {
+                best = output[state];
+                if (best == 0) {
+                    break;
+                }
+            }
+        }
+        return best == NO_MATCH ? null : PRIORITY[best];
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int i = Arrays.binarySearch(labels[state], c);
+            if (i >= 0) {
+                return targets[state][i];
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private static int priorityOf(TrackEventType type) {
+        for (int i = 0; i < PRIORITY.length; i++) {
+            if (PRIORITY[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("不支持的事件类型: " + type);
+    }
+
+    /**
+     * 自动机构建器
+     */
+    public static final class Builder {
+        private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        private final List<Integer> outputs = new ArrayList<>();
+
+        private Builder() {
+            addState();
+        }
+
+        public Builder phrase(TrackEventType type, String... phrases) {
+            int priority = priorityOf(type);
+            for (String phrase : phrases) {
+                int state = 0;
+                for (int i = 0; i < phrase.length(); i++) {
+                    Integer next = children.get(state).get(phrase.charAt(i));
+                    if (next == null) {
+                        next = addState();
+                        children.get(state).put(phrase.charAt(i), next);
+                    }
+                    state = next;
+                }
+                outputs.set(state, Math.min(outputs.get(state), priority));
+            }
+            return this;
+        }
+
+        public BehaviorClassifier build() {
+            int size = children.size();
+            char[][] labels = new char[size][];
+            int[][] targets = new int[size][];
+            int[] fail = new int[size];
+            int[] output = new int[size];
+            for (int s = 0; s < size; s++) {
+                TreeMap<Character, Integer> next = children.get(s);
+                labels[s] = new char[next.size()];
+                targets[s] = new int[next.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> edge : next.entrySet()) {
+                    labels[s][i] = edge.getKey();
+                    targets[s][i] = edge.getValue();
+                    i++;
+                }
+                output[s] = outputs.get(s);
+            }
+
+            // 按层次遍历计算失败指针，并把失败链上的命中合并到当前状态
+            BehaviorClassifier partial = new BehaviorClassifier(labels, targets, fail, output);
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                for (int i = 0; i < labels[s].length; i++) {
+                    int child = targets[s][i];
+                    int f = s == 0 ? 0 : partial.next(fail[s], labels[s][i]);
+                    fail[child] = f;
+                    output[child] = Math.min(output[child], output[f]);
+                    queue.add(child);
+                }
+            }
+            return partial;
+        }
+
+        private int addState() {
+            children.add(new TreeMap<>());
+            outputs.add(NO_MATCH);
+            return children.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ncu.trackplatform.parser;
+
+/**
+ * CSV列定义，由枚举实现，用于绑定表头
+ */
+public interface CsvColumn {
+
+    /**
+     * @return 该列可接受的表头名称，第一个为标准名称，其余为别名
+     */
+    String[] headerNames();
+
+    /**
+     * @return 缺少该列时是否拒绝整个文件
+     */
+    boolean required();
+}
@@ -0,0 +1,227 @@
+package com.ncu.trackplatform.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按记录读取CSV的读取器
+ * 在字节层面识别记录边界（引号内的逗号和换行不会截断记录），并记录每条记录结束处的字节偏移，
+ * 因此可以从任意记录边界开始读取，也可以只读取文件的某一段。
+ * 字段按RFC 4180规则拆分：双引号包裹的字段中 "" 表示一个引号；
+ * 与原来使用的 opencsv 一致，引号内的 \r\n 和单独的 \r 都按换行 \n 返回。
+ * 跟踪正在写入的文件时可要求记录必须以换行结束，末尾未写完的半条记录留到下次再读。
+ */
+public final class CsvRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final Charset charset;
+    private final long startOffset;
+    private final long endOffset;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLimit;
+
+    private byte[] record = new byte[1024];
+    private int recordLength;
+
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+
+    private long offset;
+    private long recordsRead;
+    private boolean requireTerminator;
+
+    public CsvRecordReader(InputStream in, Charset charset) {
+        this(in, charset, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param in          已定位到 startOffset 处的输入流
+     * @param startOffset 读取起点在文件中的字节偏移，必须位于记录边界
+     * @param endOffset   读取终点（不含），读到该偏移后不再返回记录
+     */
+    public CsvRecordReader(InputStream in, Charset charset, long startOffset, long endOffset) {
+        this.in = in;
+        this.charset = charset;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.offset = startOffset;
+    }
+
+    /**
+     * 打开文件中 [startOffset, endOffset) 范围内的记录
+     */
+    public static CsvRecordReader open(Path file, Charset charset, long startOffset, long endOffset) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            channel.position(startOffset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new CsvRecordReader(Channels.newInputStream(channel), charset, startOffset, endOffset);
+    }
+
+    public static CsvRecordReader open(Path file, Charset charset) throws IOException {
+        return open(file, charset, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * 读取下一条记录
+     * @return 字段数组，读到末尾时返回null
+     */
+    public String[] readNext() throws IOException {
+        String line = readRecord(true);
+        return line == null ? null : parseFields(line);
+    }
+
+    /**
+     * 读取下一行原始文本，不识别引号也不拆分字段，用于非CSV格式的日志文件
+     * @return 去掉行尾换行符的文本，读到末尾时返回null
+     */
+    public String readLine() throws IOException {
+        return readRecord(false);
+    }
+
+    /**
+     * 要求每条记录以换行结束：读到末尾仍未遇到换行时不返回这半条记录，偏移停在它之前。
+     * 之后应从 getOffset() 处重新打开读取器继续读取
+     */
+    public void setRequireTerminator(boolean requireTerminator) {
+        this.requireTerminator = requireTerminator;
+    }
+
+    private String readRecord(boolean quoteAware) throws IOException {
+        if (offset >= endOffset) {
+            return null;
+        }
+
+        recordLength = 0;
+        long consumed = 0;
+        boolean inQuotes = false;
+        boolean terminated = false;
+        while (true) {
+            if (bufferPos == bufferLimit && !fill()) {
+                break;
+            }
+            byte b = buffer[bufferPos++];
+            consumed++;
+            if (b == '"' && quoteAware) {
+                inQuotes = !inQuotes;
+            } else if (b == '\n' && !inQuotes) {
+                terminated = true;
+                break;
+            }
+            append(b);
+        }
+
+        if (consumed == 0 || (requireTerminator && !terminated)) {
+            return null;
+        }
+        boolean firstRecordOfFile = offset == 0;
+        offset += consumed;
+        recordsRead++;
+
+        int from = 0;
+        int to = recordLength;
+        if (to > 0 && record[to - 1] == '\r') {
+            to--;
+        }
+        if (firstRecordOfFile && hasUtf8Bom()) {
+            from = 3;
+        }
+        return new String(record, from, Math.max(0, to - from), charset);
+    }
+
+    /**
+     * @return 最后一条已返回记录之后的字节偏移，可作为下次读取的起点
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, BUFFER_SIZE);
+        if (n <= 0) {
+            return false;
+        }
+        bufferPos = 0;
+        bufferLimit = n;
+        return true;
+    }
+
+    private void append(byte b) {
+        if (recordLength == record.length) {
+            byte[] grown = new byte[record.length * 2];
+            System.arraycopy(record, 0, grown, 0, recordLength);
+            record = grown;
+        }
+        record[recordLength++] = b;
+    }
+
+    private boolean hasUtf8Bom() {
+        return StandardCharsets.UTF_8.equals(charset) && recordLength >= 3
+            && record[0] == (byte) 0xEF && record[1] == (byte) 0xBB && record[2] == (byte) 0xBF;
+    }
+
+    private String[] parseFields(String line) {
+        fields.clear();
+        field.setLength(0);
+        boolean inQuotes = false;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < length && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else if (c == '\r') {
+                    field.append('\n');
+                    if (i + 1 < length && line.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
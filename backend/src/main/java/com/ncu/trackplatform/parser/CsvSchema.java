@@ -0,0 +1,117 @@
+package com.ncu.trackplatform.parser;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按文件编译的列投影
+ * 每个文件只在读到表头时解析一次各列的位置，之后每行按下标直接取值，不再逐格比较表头、不创建Map。
+ * 表头支持别名映射；缺少必需列的文件在绑定时即被拒绝。
+ */
+public final class CsvSchema<E extends Enum<E> & CsvColumn> {
+
+    private final Class<E> columnType;
+    private final int[] positions;
+    private final int width;
+
+    private CsvSchema(Class<E> columnType, int[] positions, int width) {
+        this.columnType = columnType;
+        this.positions = positions;
+        this.width = width;
+    }
+
+    /**
+     * 把表头绑定到列定义
+     * @throws IllegalArgumentException 缺少必需列时抛出
+     */
+    public static <E extends Enum<E> & CsvColumn> CsvSchema<E> bind(Class<E> columnType, String[] headers) {
+        E[] columns = columnType.getEnumConstants();
+        int[] positions = new int[columns.length];
+        Map<E, Integer> found = new EnumMap<>(columnType);
+
+        for (int i = 0; i < headers.length; i++) {
+            String header = normalizeHeader(headers[i]);
+            for (E column : columns) {
+                if (!found.containsKey(column) && matches(column, header)) {
+                    found.put(column, i);
+                    break;
+                }
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (E column : columns) {
+            Integer position = found.get(column);
+            positions[column.ordinal()] = position == null ? -1 : position;
+            if (position == null && column.required()) {
+                missing.add(column.headerNames()[0]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("无法识别的文件格式，缺少必需列: " + String.join(", ", missing));
+        }
+        return new CsvSchema<>(columnType, positions, headers.length);
+    }
+
+    /**
+     * 判断表头能否绑定到列定义（即不缺少必需列）
+     */
+    public static <E extends Enum<E> & CsvColumn> boolean accepts(Class<E> columnType, String[] headers) {
+        try {
+            bind(columnType, headers);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return 指定列的原始值，文件中没有该列或该行字段不足时返回null
+     */
+    public String get(String[] row, E column) {
+        int position = positions[column.ordinal()];
+        return position >= 0 && position < row.length ? row[position] : null;
+    }
+
+    public String getOrDefault(String[] row, E column, String defaultValue) {
+        String value = get(row, column);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean has(E column) {
+        return positions[column.ordinal()] >= 0;
+    }
+
+    /**
+     * @return 表头的列数
+     */
+    public int width() {
+        return width;
+    }
+
+    public Class<E> getColumnType() {
+        return columnType;
+    }
+
+    private static boolean matches(CsvColumn column, String header) {
+        for (String name : column.headerNames()) {
+            if (name.equals(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalizeHeader(String header) {
+        if (header == null) {
+            return "";
+        }
+        String trimmed = header.trim();
+        if (!trimmed.isEmpty() && trimmed.charAt(0) == '\uFEFF') {
+            trimmed = trimmed.substring(1).trim();
+        }
+        return trimmed;
+    }
+}
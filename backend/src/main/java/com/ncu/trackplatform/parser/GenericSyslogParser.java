@@ -0,0 +1,145 @@
+package com.ncu.trackplatform.parser;
+
+import static com.ncu.trackplatform.parser.ScanSupport.*;
+
+/**
+ * 通用解析器：不认识的消息格式按关键字逐个匹配，只填写尚未解析出的字段
+ * MAC的优先级与原有规则一致：MAC=/MAC: 优先，其次 Client xxx，最后 JSON 中的 sta_mac
+ */
+final class GenericSyslogParser implements SyslogParser {
+
+    private static final String KEY_MAC = "MAC";
+    private static final String KEY_CLIENT = "Client";
+    private static final String KEY_STA_MAC = "sta_mac\"";
+    private static final String KEY_AP_NAME = "AP name:";
+    private static final String KEY_APNAME = "APNAME:";
+    private static final String KEY_APMAC = "APMAC:";
+    private static final String KEY_APIP = "APIP:";
+    private static final String KEY_BAND = "BAND:";
+    private static final String KEY_RADIO = "RADIO:";
+    private static final String KEY_RADIO_ID = "Radio ID:";
+    private static final String KEY_TIME = "TIME:";
+
+    @Override
+    public void parse(CharSequence s, int bodyStart, SyslogEvent event) {
+        int length = s.length();
+        int i = 0;
+        while (i < length) {
+            char c = s.charAt(i);
+            int next = i + 1;
+            switch (c) {
+                case 'M':
+                    if (event.staMacPriority > 1 && isKeyAt(s, i, KEY_MAC)) {
+                        next = scanKeyedMac(s, i + KEY_MAC.length(), event);
+                    }
+                    break;
+                case 'C':
+                    if (event.staMacPriority > 2 && isKeyAt(s, i, KEY_CLIENT)) {
+                        next = scanClientMac(s, i + KEY_CLIENT.length(), event);
+                    }
+                    break;
+                case 's':
+                    if (event.staMacPriority > 3 && isKeyAt(s, i, KEY_STA_MAC)) {
+                        next = scanJsonMac(s, i + KEY_STA_MAC.length(), event);
+                    }
+                    break;
+                case 'A':
+                    if (!event.hasApName() && isKeyAt(s, i, KEY_APNAME)) {
+                        next = scanApName(s, i + KEY_APNAME.length(), event);
+                    } else if (!event.hasApName() && isKeyAt(s, i, KEY_AP_NAME)) {
+                        next = scanApName(s, i + KEY_AP_NAME.length(), event);
+                    } else if (isKeyAt(s, i, KEY_APMAC) && event.apMacKey() == MacAddress.NONE) {
+                        int start = skipSpaces(s, i + KEY_APMAC.length());
+                        next = valueEnd(s, start);
+                        event.apMacKey(MacAddress.parse(s, start, next));
+                    } else if (isKeyAt(s, i, KEY_APIP) && event.apIp() == null) {
+                        int start = skipSpaces(s, i + KEY_APIP.length());
+                        next = valueEnd(s, start);
+                        event.apIp(start, next);
+                    }
+                    break;
+                case 'B':
+                    if (isKeyAt(s, i, KEY_BAND) && event.band() == null) {
+                        int start = skipSpaces(s, i + KEY_BAND.length());
+                        next = valueEnd(s, start);
+                        event.band(start, next);
+                    }
+                    break;
+                case 'R':
+                    if (event.radio() < 0) {
+                        if (isKeyAt(s, i, KEY_RADIO)) {
+                            next = scanRadio(s, i + KEY_RADIO.length(), event);
+                        } else if (isKeyAt(s, i, KEY_RADIO_ID)) {
+                            next = scanRadio(s, i + KEY_RADIO_ID.length(), event);
+                        }
+                    }
+                    break;
+                case 'T':
+                    if (event.time() < 0 && isKeyAt(s, i, KEY_TIME)) {
+                        int start = skipSpaces(s, i + KEY_TIME.length());
+                        next = digitsEnd(s, start, length);
+                        event.time(epochSeconds(s, start, next));
+                    }
+                    break;
+                default:
+                    break;
+            }
+            i = Math.max(next, i + 1);
+        }
+    }
+
+    /**
+     * MAC=xxx 或 MAC:xxx，冒号后允许空格（H3C格式为"Client MAC: xxxx-xxxx-xxxx"）
+     */
+    private static int scanKeyedMac(CharSequence s, int pos, SyslogEvent event) {
+        if (pos >= s.length() || (s.charAt(pos) != '=' && s.charAt(pos) != ':')) {
+            return pos;
+        }
+        return scanMacToken(s, skipSpaces(s, pos + 1), 1, event);
+    }
+
+    private static int scanClientMac(CharSequence s, int pos, SyslogEvent event) {
+        int start = skipWhitespace(s, pos);
+        if (start == pos) {
+            return pos;
+        }
+        return scanMacToken(s, start, 2, event);
+    }
+
+    private static int scanJsonMac(CharSequence s, int pos, SyslogEvent event) {
+        if (pos >= s.length() || s.charAt(pos) != ':') {
+            return pos;
+        }
+        int start = skipWhitespace(s, pos + 1);
+        if (start >= s.length() || s.charAt(start) != '"') {
+            return start;
+        }
+        return scanMacToken(s, start + 1, 3, event);
+    }
+
+    private static int scanMacToken(CharSequence s, int start, int priority, SyslogEvent event) {
+        int end = macTokenEnd(s, start);
+        if (end < 0) {
+            return start + 1;
+        }
+        if (priority < event.staMacPriority) {
+            event.staMac(start, end);
+            event.staMacPriority = priority;
+        }
+        return end;
+    }
+
+    private static int scanApName(CharSequence s, int pos, SyslogEvent event) {
+        int start = skipSpaces(s, pos);
+        int end = valueEnd(s, start);
+        event.apName(start, end);
+        return end;
+    }
+
+    private static int scanRadio(CharSequence s, int pos, SyslogEvent event) {
+        int start = skipSpaces(s, pos);
+        int end = digitsEnd(s, start, Math.min(s.length(), start + 9));
+        event.radio(leadingNumber(s, start, end));
+        return end;
+    }
+}
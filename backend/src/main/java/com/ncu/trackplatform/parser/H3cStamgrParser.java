@@ -0,0 +1,79 @@
+package com.ncu.trackplatform.parser;
+
+import static com.ncu.trackplatform.parser.ScanSupport.*;
+
+/**
+ * H3C %%10STAMGR 日志：消息类型在第二个 '/' 之后，正文为逗号分隔的 "Key: value"
+ * 例：/6/STAMGR_CLIENT_SNOOPING: Detected client IP change: Client MAC: aaac-acdd-d1fb, IP: 10.202.55.239,
+ *     -NA-, Username: -NA-, AP name: qhxq-bq-ysl-b-2f-02, Radio ID: 2, Channel number: 11, SSID: NCUWLAN, BSSID: ....
+ */
+final class H3cStamgrParser implements SyslogParser {
+
+    @Override
+    public void parse(CharSequence s, int bodyStart, SyslogEvent event) {
+        int length = s.length();
+        int slash = indexOf(s, '/', bodyStart + 1, length);
+        if (slash < 0) {
+            return;
+        }
+        int colon = indexOf(s, ':', slash + 1, length);
+        if (colon < 0) {
+            return;
+        }
+        event.messageType(slash + 1, colon);
+
+        int i = colon + 1;
+        while (i < length) {
+            int end = indexOf(s, ',', i, length);
+            boolean last = end < 0;
+            if (last) {
+                end = length;
+            }
+            // 一段中可能有多个 ": "（"Detected client IP change: Client MAC: xxx"），最后一个分隔键和值
+            int separator = -1;
+            int keyStart = i;
+            for (int k = i; k + 1 < end; k++) {
+                if (s.charAt(k) == ':' && s.charAt(k + 1) == ' ') {
+                    if (separator >= 0) {
+                        keyStart = separator + 2;
+                    }
+                    separator = k;
+                }
+            }
+            if (separator >= 0) {
+                int valueStart = skipSpaces(s, separator + 1);
+                int valueEnd = trimEnd(s, valueStart, end);
+                if (last && valueEnd > valueStart && s.charAt(valueEnd - 1) == '.') {
+                    valueEnd--;
+                }
+                field(s, skipWhitespace(s, keyStart), separator, valueStart, valueEnd, event);
+            }
+            i = end + 1;
+        }
+    }
+
+    private static void field(CharSequence s, int keyStart, int keyEnd, int valueStart, int valueEnd, SyslogEvent event) {
+        // -NA- 表示该字段没有值
+        if (regionEquals(s, valueStart, valueEnd, "-NA-")) {
+            return;
+        }
+        if (regionEquals(s, keyStart, keyEnd, "Client MAC")) {
+            int end = macTokenEnd(s, valueStart);
+            if (end > 0) {
+                event.staMac(valueStart, end);
+            }
+        } else if (regionEquals(s, keyStart, keyEnd, "IP")) {
+            event.staIp(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "AP name")) {
+            event.apName(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "AP MAC")) {
+            event.apMacKey(MacAddress.parse(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "Radio ID")) {
+            event.radio(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "Channel number")) {
+            event.channel(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "SSID")) {
+            event.ssid(valueStart, valueEnd);
+        }
+    }
+}
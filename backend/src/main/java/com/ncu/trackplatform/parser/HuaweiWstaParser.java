@@ -0,0 +1,88 @@
+package com.ncu.trackplatform.parser;
+
+import static com.ncu.trackplatform.parser.ScanSupport.*;
+
+/**
+ * 华为 %%01WSTA 日志：消息类型在方括号中，其后为分号分隔的 KEY:VALUE
+ * 例：...WLAN_LOG_USER(l)[13031587]:[WLAN_STA_INFO_AP_ASSOCIATE]ACMAC:..;APMAC:..;APNAME:..;RADIO:1;BAND:5G;...
+ */
+final class HuaweiWstaParser implements SyslogParser {
+
+    @Override
+    public void parse(CharSequence s, int bodyStart, SyslogEvent event) {
+        int length = s.length();
+        int pairs = bodyStart;
+        for (int i = bodyStart; i + 1 < length; i++) {
+            if (s.charAt(i) == ':' && s.charAt(i + 1) == '[') {
+                int close = indexOf(s, ']', i + 2, length);
+                if (close > 0) {
+                    event.messageType(i + 2, close);
+                    pairs = close + 1;
+                }
+                break;
+            }
+        }
+
+        int i = pairs;
+        while (i < length) {
+            int end = indexOf(s, ';', i, length);
+            if (end < 0) {
+                end = length;
+            }
+            int colon = indexOf(s, ':', i, end);
+            if (colon > i) {
+                field(s, i, colon, colon + 1, trimEnd(s, colon + 1, end), event);
+            }
+            i = end + 1;
+        }
+    }
+
+    private static void field(CharSequence s, int keyStart, int keyEnd, int valueStart, int valueEnd, SyslogEvent event) {
+        if (regionEquals(s, keyStart, keyEnd, "MAC")) {
+            int end = macTokenEnd(s, valueStart);
+            if (end > 0) {
+                event.staMac(valueStart, end);
+            }
+        } else if (regionEquals(s, keyStart, keyEnd, "APMAC")) {
+            event.apMacKey(MacAddress.parse(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "APNAME")) {
+            event.apName(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "APIP")) {
+            event.apIp(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "RADIO")) {
+            event.radio(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "BAND")) {
+            event.band(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "CHANNEL")) {
+            event.channel(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "SSID")) {
+            event.ssid(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "IP") || regionEquals(s, keyStart, keyEnd, "USERIP")) {
+            event.staIp(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "ASSOCDURATION")) {
+            event.assocDurationMicros(durationMicros(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "ERRCODE")) {
+            event.resultCode(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "TIME")) {
+            event.time(epochSeconds(s, skipSpaces(s, valueStart), valueEnd));
+        }
+    }
+
+    /**
+     * 19721us / 20ms / 1s，没有单位时按微秒处理
+     */
+    private static long durationMicros(CharSequence s, int start, int end) {
+        int digitsEnd = digitsEnd(s, start, end);
+        long value = leadingNumber(s, start, digitsEnd);
+        if (value < 0) {
+            return -1;
+        }
+        if (regionEquals(s, digitsEnd, end, "ms")) {
+            return value * 1000L;
+        }
+        if (regionEquals(s, digitsEnd, end, "s")) {
+            return value * 1_000_000L;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ncu.trackplatform.parser;
+
+import static com.ncu.trackplatform.parser.ScanSupport.*;
+
+/**
+ * JSON 格式的终端事件：把对象按扁平的 "key": value 序列扫描，嵌套对象和数组中的键同样处理
+ * 字符串值取引号内的原文（不处理转义），只识别终端事件用到的键
+ */
+final class JsonStaParser implements SyslogParser {
+
+    @Override
+    public void parse(CharSequence s, int bodyStart, SyslogEvent event) {
+        int length = s.length();
+        int i = bodyStart;
+        while (i < length) {
+            if (s.charAt(i) != '"') {
+                i++;
+                continue;
+            }
+            int keyStart = i + 1;
+            int keyEnd = stringEnd(s, keyStart);
+            if (keyEnd < 0) {
+                return;
+            }
+            int colon = skipWhitespace(s, keyEnd + 1);
+            if (colon >= length || s.charAt(colon) != ':') {
+                // 字符串值而不是键
+                i = keyEnd + 1;
+                continue;
+            }
+            int valueStart = skipWhitespace(s, colon + 1);
+            int valueEnd;
+            int next;
+            if (valueStart < length && s.charAt(valueStart) == '"') {
+                valueStart++;
+                valueEnd = stringEnd(s, valueStart);
+                if (valueEnd < 0) {
+                    return;
+                }
+                next = valueEnd + 1;
+            } else if (valueStart < length && (s.charAt(valueStart) == '{' || s.charAt(valueStart) == '[')) {
+                // 嵌套对象或数组从其内部继续扫描
+                i = valueStart + 1;
+                continue;
+            } else {
+                valueEnd = valueStart;
+                while (valueEnd < length && ",}]".indexOf(s.charAt(valueEnd)) < 0 && !isWhitespace(s.charAt(valueEnd))) {
+                    valueEnd++;
+                }
+                next = valueEnd;
+            }
+            field(s, keyStart, keyEnd, valueStart, valueEnd, event);
+            i = Math.max(next, keyEnd + 1);
+        }
+    }
+
+    private static void field(CharSequence s, int keyStart, int keyEnd, int valueStart, int valueEnd, SyslogEvent event) {
+        if (regionEquals(s, keyStart, keyEnd, "sta_mac")) {
+            int end = macTokenEnd(s, valueStart);
+            if (end > 0) {
+                event.staMac(valueStart, end);
+            }
+        } else if (regionEquals(s, keyStart, keyEnd, "sta_ip")) {
+            event.staIp(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "ap_mac")) {
+            event.apMacKey(MacAddress.parse(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "ap_name")) {
+            event.apName(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "ap_ip")) {
+            event.apIp(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "radio_id") || regionEquals(s, keyStart, keyEnd, "radio")) {
+            event.radio(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "band")) {
+            event.band(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "channel")) {
+            event.channel(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "ssid")) {
+            event.ssid(valueStart, valueEnd);
+        } else if (regionEquals(s, keyStart, keyEnd, "assoc_duration")) {
+            event.assocDurationMicros(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "result_code") || regionEquals(s, keyStart, keyEnd, "err_code")) {
+            event.resultCode(leadingNumber(s, valueStart, valueEnd));
+        } else if (regionEquals(s, keyStart, keyEnd, "time") || regionEquals(s, keyStart, keyEnd, "timestamp")) {
+            // 只接受数值时间戳，日期文本留给 LogTimestampParser 按时间列解码
+            long time = epochSeconds(s, valueStart, valueEnd);
+            if (time >= 0) {
+                event.time(time);
+            }
+        }
+    }
+
+    /**
+     * @return 从 start 开始的字符串的结束引号位置，未闭合时返回-1
+     */
+    private static int stringEnd(CharSequence s, int start) {
+        for (int i = start; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,418 @@
+package com.ncu.trackplatform.parser;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 日志时间文本解析
+ * 导出文件中的时间形如 "Wed Sep 17 09:54:36 CST 2025"，按字符串排序既慢又不符合时间顺序，
+ * 导入时统一解析为东八区的 epoch 毫秒。
+ * 每种格式都有逐字符的专用解码器，格式不匹配时返回 INVALID 而不是抛异常；
+ * 每个文件持有一个实例，第一条记录确定格式后后续记录直接使用该格式的解码器，
+ * 只有解码失败时才重新识别（文件中途换格式）。实例可在同一文件的多个解析线程间共享。
+ */
+public final class LogTimestampParser {
+
+    /**
+     * 解码失败时的返回值
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * 日志时间的默认时区（CST，中国标准时间）
+     */
+    public static final ZoneOffset ZONE = ZoneOffset.ofHours(8);
+
+    private static final int ZONE_SECONDS = 8 * 3600;
+
+    /**
+     * 支持的时间格式
+     */
+    public enum Format {
+        /**
+         * Wed Sep 17 09:54:36 CST 2025
+         */
+        UNIX_DATE {
+            @Override
+            long decode(CharSequence s, int start, int end) {
+                int i = skipWord(s, start, end);
+                if (i == start || (i = skipSpaces(s, i, end)) == -1) {
+                    return INVALID;
+                }
+                int month = month(s, i, end);
+                if (month < 0 || (i = skipSpaces(s, i + 3, end)) == -1) {
+                    return INVALID;
+                }
+                int dayEnd = digitsEnd(s, i, end, 2);
+                int day = number(s, i, dayEnd);
+                if (dayEnd == i || (i = skipSpaces(s, dayEnd, end)) == -1) {
+                    return INVALID;
+                }
+                int seconds = timeOfDay(s, i, end);
+                if (seconds < 0 || (i = skipSpaces(s, i + 8, end)) == -1) {
+                    return INVALID;
+                }
+                int zoneStart = i;
+                i = skipWord(s, i, end);
+                int offset = zoneOffset(s, zoneStart, i);
+                if (i == zoneStart || (i = skipSpaces(s, i, end)) == -1 || end - i != 4) {
+                    return INVALID;
+                }
+                return toEpochMillis(number(s, i, end), month, day, seconds, 0, offset);
+            }
+        },
+        /**
+         * 2025-09-17 09:54:36，日期与时间之间也可以是 T，可带毫秒
+         */
+        ISO_LOCAL {
+            @Override
+            long decode(CharSequence s, int start, int end) {
+                if (end - start < 19 || s.charAt(start + 4) != '-' || s.charAt(start + 7) != '-'
+                        || (s.charAt(start + 10) != ' ' && s.charAt(start + 10) != 'T')
+                        || digitsEnd(s, start, end, 4) != start + 4
+                        || digitsEnd(s, start + 5, end, 2) != start + 7
+                        || digitsEnd(s, start + 8, end, 2) != start + 10) {
+                    return INVALID;
+                }
+                int seconds = timeOfDay(s, start + 11, end);
+                if (seconds < 0) {
+                    return INVALID;
+                }
+                int millis = fraction(s, start + 19, end);
+                if (millis < 0) {
+                    return INVALID;
+                }
+                return toEpochMillis(number(s, start, start + 4), number(s, start + 5, start + 7),
+                    number(s, start + 8, start + 10), seconds, millis, ZONE_SECONDS);
+            }
+        },
+        /**
+         * Sep 17 09:54:36 2025（syslog 头部带年份的写法）
+         */
+        SYSLOG_YEAR {
+            @Override
+            long decode(CharSequence s, int start, int end) {
+                int month = month(s, start, end);
+                int i;
+                if (month < 0 || (i = skipSpaces(s, start + 3, end)) == -1) {
+                    return INVALID;
+                }
+                int dayEnd = digitsEnd(s, i, end, 2);
+                int day = number(s, i, dayEnd);
+                if (dayEnd == i || (i = skipSpaces(s, dayEnd, end)) == -1) {
+                    return INVALID;
+                }
+                int seconds = timeOfDay(s, i, end);
+                if (seconds < 0 || (i = skipSpaces(s, i + 8, end)) == -1 || end - i != 4) {
+                    return INVALID;
+                }
+                return toEpochMillis(number(s, i, end), month, day, seconds, 0, ZONE_SECONDS);
+            }
+        };
+
+        /**
+         * @return epoch 毫秒，格式不匹配或日期不合法时返回 INVALID
+         */
+        abstract long decode(CharSequence s, int start, int end);
+    }
+
+    private static final Format[] FORMATS = Format.values();
+
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+    private volatile Format format;
+
+    /**
+     * 解码时间文本
+     * @return 东八区 epoch 毫秒，文本为空或格式都不匹配时返回 INVALID
+     */
+    public long decode(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return INVALID;
+        }
+
+        Format bound = format;
+        if (bound != null) {
+            long millis = bound.decode(text, start, end);
+            if (millis != INVALID) {
+                return millis;
+            }
+        }
+        for (Format candidate : FORMATS) {
+            if (candidate == bound) {
+                continue;
+            }
+            long millis = candidate.decode(text, start, end);
+            if (millis != INVALID) {
+                format = candidate;
+                return millis;
+            }
+        }
+        return INVALID;
+    }
+
+    /**
+     * @return 已识别出的格式，尚未解码成功过时为null
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * 一次性解析，不需要按文件绑定格式的场景使用
+     * @return 解析出的本地时间，文本为空或格式都不匹配时返回null
+     */
+    public static LocalDateTime parse(String text) {
+        long millis = new LogTimestampParser().decode(text);
+        return millis != INVALID ? toLocalDateTime(millis) : null;
+    }
+
+    /**
+     * 解码 syslog 头部的时间，跳过行首的 <PRI> 及其之前的前缀（如 【syslog】）
+     * 支持 H3C 的 "Sep 17 09:54:36.353 2025" 和华为的 "Sep 17 2025 10:12:41.760.1+08:00"，
+     * 秒之后的小数只取毫秒，不带时区时按东八区处理；头部没有年份时无法确定日期，视为无法解析
+     * @return epoch 毫秒，头部没有可识别的时间时返回 INVALID
+     */
+    public static long decodeSyslogHeader(CharSequence line) {
+        if (line == null) {
+            return INVALID;
+        }
+        int end = line.length();
+        int i = headerStart(line, end);
+        int month = month(line, i, end);
+        if (month < 0 || (i = skipSpaces(line, i + 3, end)) == -1) {
+            return INVALID;
+        }
+        int dayEnd = digitsEnd(line, i, end, 2);
+        int day = number(line, i, dayEnd);
+        if (dayEnd == i || (i = skipSpaces(line, dayEnd, end)) == -1) {
+            return INVALID;
+        }
+
+        int year = -1;
+        int yearEnd = digitsEnd(line, i, end, 4);
+        if (yearEnd - i == 4 && yearEnd < end && line.charAt(yearEnd) == ' ') {
+            // 华为：年份在时间之前
+            year = number(line, i, yearEnd);
+            if ((i = skipSpaces(line, yearEnd, end)) == -1) {
+                return INVALID;
+            }
+        }
+        int seconds = timeOfDay(line, i, end);
+        if (seconds < 0) {
+            return INVALID;
+        }
+        i += 8;
+        int millisEnd = fractionEnd(line, i, end);
+        int millis = fraction(line, i, millisEnd);
+        // 华为在毫秒之后还有一段 .1
+        i = fractionEnd(line, millisEnd, end);
+
+        int offset = ZONE_SECONDS;
+        if (year < 0) {
+            // H3C：年份在时间之后
+            if ((i = skipSpaces(line, i, end)) == -1 || digitsEnd(line, i, end, 4) != i + 4) {
+                return INVALID;
+            }
+            year = number(line, i, i + 4);
+            i += 4;
+        } else if (i < end && (line.charAt(i) == '+' || line.charAt(i) == '-')) {
+            if (end - i < 6 || line.charAt(i + 3) != ':'
+                    || digitsEnd(line, i + 1, end, 2) != i + 3 || digitsEnd(line, i + 4, end, 2) != i + 6) {
+                return INVALID;
+            }
+            offset = number(line, i + 1, i + 3) * 3600 + number(line, i + 4, i + 6) * 60;
+            if (line.charAt(i) == '-') {
+                offset = -offset;
+            }
+            i += 6;
+        }
+        if (i < end && line.charAt(i) != ' ') {
+            return INVALID;
+        }
+        return toEpochMillis(year, month, day, seconds, millis, offset);
+    }
+
+    /**
+     * 跳过 <PRI> 及其之前的前缀，行首64个字符内没有 <PRI> 时从第一个非空格字符开始
+     */
+    private static int headerStart(CharSequence s, int end) {
+        int limit = Math.min(end, 64);
+        for (int i = 0; i < limit; i++) {
+            if (s.charAt(i) == '<') {
+                int j = digitsEnd(s, i + 1, end, 3);
+                if (j > i + 1 && j < end && s.charAt(j) == '>') {
+                    return j + 1;
+                }
+            }
+        }
+        int i = 0;
+        while (i < end && s.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return 从 i 开始的 .数字 之后的位置，i 处不是小数时返回 i
+     */
+    private static int fractionEnd(CharSequence s, int i, int end) {
+        if (i + 1 >= end || s.charAt(i) != '.') {
+            return i;
+        }
+        int j = digitsEnd(s, i + 1, end, end - i - 1);
+        return j > i + 1 ? j : i;
+    }
+
+    /**
+     * @return epoch 毫秒对应的东八区本地时间
+     */
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+            (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZONE);
+    }
+
+    /**
+     * 由年月日和当天秒数计算 epoch 毫秒，日期不合法时返回 INVALID
+     */
+    private static long toEpochMillis(int year, int month, int day, int secondOfDay, int millis, int offsetSeconds) {
+        if (year < 1970 || year > 9999 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return INVALID;
+        }
+        // 公历日期到1970-01-01的天数（Howard Hinnant 的 days_from_civil）
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        long epochDay = era * 146097L + doe - 719468;
+        return (epochDay * 86400L + secondOfDay - offsetSeconds) * 1000L + millis;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * HH:mm:ss
+     * @return 当天秒数，格式不正确时返回-1
+     */
+    private static int timeOfDay(CharSequence s, int i, int end) {
+        if (end - i < 8 || s.charAt(i + 2) != ':' || s.charAt(i + 5) != ':'
+                || digitsEnd(s, i, end, 2) != i + 2
+                || digitsEnd(s, i + 3, end, 2) != i + 5
+                || digitsEnd(s, i + 6, end, 2) != i + 8) {
+            return -1;
+        }
+        int hour = number(s, i, i + 2);
+        int minute = number(s, i + 3, i + 5);
+        int second = number(s, i + 6, i + 8);
+        if (hour > 23 || minute > 59 || second > 59) {
+            return -1;
+        }
+        return hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * 秒之后可选的 .SSS（多于三位的部分忽略）
+     * @return 毫秒数，格式不正确时返回-1
+     */
+    private static int fraction(CharSequence s, int i, int end) {
+        if (i == end) {
+            return 0;
+        }
+        if (s.charAt(i) != '.' || i + 1 == end || digitsEnd(s, i + 1, end, end - i - 1) != end) {
+            return -1;
+        }
+        int millis = 0;
+        for (int k = 1; k <= 3; k++) {
+            millis = millis * 10 + (i + k < end ? s.charAt(i + k) - '0' : 0);
+        }
+        return millis;
+    }
+
+    /**
+     * 三个字母的英文月份缩写
+     * @return 1-12，不是月份时返回-1
+     */
+    private static int month(CharSequence s, int i, int end) {
+        if (end - i < 3) {
+            return -1;
+        }
+        for (int m = 0; m < 12; m++) {
+            int k = m * 3;
+            if (s.charAt(i) == MONTHS.charAt(k) && s.charAt(i + 1) == MONTHS.charAt(k + 1)
+                    && s.charAt(i + 2) == MONTHS.charAt(k + 2)) {
+                return m + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 时区缩写：UTC/GMT 为零时区，其余（CST等）按东八区处理
+     */
+    private static int zoneOffset(CharSequence s, int start, int end) {
+        if (end - start == 3 && ((s.charAt(start) == 'U' && s.charAt(start + 1) == 'T' && s.charAt(start + 2) == 'C')
+                || (s.charAt(start) == 'G' && s.charAt(start + 1) == 'M' && s.charAt(start + 2) == 'T'))) {
+            return 0;
+        }
+        return ZONE_SECONDS;
+    }
+
+    private static int skipWord(CharSequence s, int i, int end) {
+        while (i < end && ((s.charAt(i) >= 'A' && s.charAt(i) <= 'Z') || (s.charAt(i) >= 'a' && s.charAt(i) <= 'z'))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 跳过至少一个空格
+     * @return 下一个非空格位置，没有空格或已到末尾时返回-1
+     */
+    private static int skipSpaces(CharSequence s, int i, int end) {
+        int j = i;
+        while (j < end && s.charAt(j) == ' ') {
+            j++;
+        }
+        return j > i && j < end ? j : -1;
+    }
+
+    private static int digitsEnd(CharSequence s, int i, int end, int maxDigits) {
+        int j = i;
+        while (j < end && j - i < maxDigits && s.charAt(j) >= '0' && s.charAt(j) <= '9') {
+            j++;
+        }
+        return j;
+    }
+
+    private static int number(CharSequence s, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ncu.trackplatform.parser;
+
+/**
+ * MAC地址规范化
+ * 同一终端在不同厂商的日志中写法不同：H3C 为 aaac-acdd-d1fb，华为为 b2-0c-6f-3f-df-87，
+ * JSON日志中为 aaac.acdd.d1fb。这里把它们统一解析为一个48位的 long 键，
+ * 并以小写冒号分隔的形式（aa:ac:ac:dd:d1:fb）作为规范文本。
+ */
+public final class MacAddress {
+
+    /**
+     * 无法解析时的返回值，合法的MAC键都是非负数
+     */
+    public static final long NONE = -1L;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private MacAddress() {
+    }
+
+    public static long parse(CharSequence text) {
+        return text == null ? NONE : parse(text, 0, text.length());
+    }
+
+    /**
+     * 解析 [start, end) 范围内的MAC地址，分隔符 - : . 可有可无，必须恰好是12位十六进制数字
+     * @return 48位MAC键，格式不正确时返回 NONE
+     */
+    public static long parse(CharSequence text, int start, int end) {
+        long key = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            int value = Character.digit(c, 16);
+            if (value >= 0) {
+                if (++digits > 12) {
+                    return NONE;
+                }
+                key = (key << 4) | value;
+            } else if (c != '-' && c != ':' && c != '.') {
+                return NONE;
+            }
+        }
+        return digits == 12 ? key : NONE;
+    }
+
+    /**
+     * @return 规范文本，如 aa:ac:ac:dd:d1:fb
+     */
+    public static String format(long key) {
+        char[] chars = new char[17];
+        for (int octet = 0; octet < 6; octet++) {
+            int value = (int) (key >>> (40 - octet * 8)) & 0xFF;
+            int pos = octet * 3;
+            chars[pos] = HEX[value >>> 4];
+            chars[pos + 1] = HEX[value & 0xF];
+            if (octet < 5) {
+                chars[pos + 2] = ':';
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 把任意写法的MAC转换为规范文本，无法解析时原样返回
+     */
+    public static String normalize(String text) {
+        long key = parse(text == null ? null : text.trim());
+        return key == NONE ? text : format(key);
+    }
+}
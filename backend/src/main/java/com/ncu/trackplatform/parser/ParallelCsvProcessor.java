@@ -0,0 +1,160 @@
+package com.ncu.trackplatform.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * CSV文件分块并行处理
+ * 先顺序扫描一遍字节，在引号外的换行处把文件切成若干块（引号内的逗号和换行不会被切断），
+ * 各块在线程池中并行解析，结果严格按文件顺序交给调用方。
+ * 同时在途的块数有上限，内存占用与文件大小无关。
+ */
+public final class ParallelCsvProcessor {
+
+    private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * 处理一个数据块的回调，reader只会返回该块内的记录
+     */
+    @FunctionalInterface
+    public interface ChunkHandler<R> {
+        R handle(CsvRecordReader reader) throws IOException;
+    }
+
+    private ParallelCsvProcessor() {
+    }
+
+    /**
+     * 读取表头
+     * @return 表头字段以及表头之后第一条数据记录的字节偏移，文件为空时返回null
+     */
+    public static Header readHeader(Path file, Charset charset) throws IOException {
+        try (CsvRecordReader reader = CsvRecordReader.open(file, charset)) {
+            String[] headers = reader.readNext();
+            return headers == null ? null : new Header(headers, reader.getOffset());
+        }
+    }
+
+    /**
+     * 从 dataStart 开始按记录边界切分文件，每块约 chunkSize 字节
+     * @return 每块的 [起始偏移, 结束偏移)
+     */
+    public static List<long[]> split(Path file, long dataStart, long chunkSize) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkStart = dataStart;
+            long position = dataStart;
+            boolean inQuotes = false;
+
+            channel.position(dataStart);
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            int n;
+            while ((n = channel.read(buffer)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    byte b = bytes[i];
+                    position++;
+                    if (b == '"') {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n' && !inQuotes && position - chunkStart >= chunkSize) {
+                        chunks.add(new long[]{chunkStart, position});
+                        chunkStart = position;
+                    }
+                }
+                buffer.clear();
+            }
+            if (chunkStart < size) {
+                chunks.add(new long[]{chunkStart, size});
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * 并行处理文件中 dataStart 之后的所有记录
+     * @param maxInFlight 同时在途（解析中或等待按序交付）的最大块数
+     * @param resultConsumer 按文件顺序接收每一块的处理结果，在调用线程中执行
+     */
+    public static <R> void process(Path file, Charset charset, long dataStart, long chunkSize,
+                                   Executor executor, int maxInFlight,
+                                   ChunkHandler<R> handler, Consumer<R> resultConsumer) throws IOException {
+        List<long[]> chunks = split(file, dataStart, chunkSize);
+        Deque<CompletableFuture<R>> inFlight = new ArrayDeque<>();
+        int limit = Math.max(1, maxInFlight);
+
+        try {
+            for (long[] chunk : chunks) {
+                while (inFlight.size() >= limit) {
+                    resultConsumer.accept(await(inFlight.poll()));
+                }
+                inFlight.add(CompletableFuture.supplyAsync(() -> processChunk(file, charset, chunk, handler), executor));
+            }
+            while (!inFlight.isEmpty()) {
+                resultConsumer.accept(await(inFlight.poll()));
+            }
+        } finally {
+            for (CompletableFuture<R> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static <R> R processChunk(Path file, Charset charset, long[] chunk, ChunkHandler<R> handler) {
+        try (CsvRecordReader reader = CsvRecordReader.open(file, charset, chunk[0], chunk[1])) {
+            return handler.handle(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <R> R await(CompletableFuture<R> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * CSV表头及数据起始偏移
+     */
+    public static final class Header {
+
+        private final String[] columns;
+        private final long dataStart;
+
+        public Header(String[] columns, long dataStart) {
+            this.columns = columns;
+            this.dataStart = dataStart;
+        }
+
+        public String[] getColumns() {
+            return columns;
+        }
+
+        public long getDataStart() {
+            return dataStart;
+        }
+    }
+}
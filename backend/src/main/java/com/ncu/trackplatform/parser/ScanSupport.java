@@ -0,0 +1,166 @@
+package com.ncu.trackplatform.parser;
+
+/**
+ * 日志扫描共用的字符判断和定位方法，全部基于下标操作，不创建对象
+ */
+final class ScanSupport {
+
+    // 合理的日志时间范围：2000-01-01 至 2100-01-01（UTC）
+    private static final long MIN_EPOCH_SECONDS = 946_684_800L;
+    private static final long MAX_EPOCH_SECONDS = 4_102_444_800L;
+
+    private ScanSupport() {
+    }
+
+    /**
+     * 关键字前一个字符不能是字母，避免把 ACMAC、APMAC 当成终端 MAC
+     */
+    static boolean isKeyAt(CharSequence s, int pos, String key) {
+        if (pos > 0 && isLetter(s.charAt(pos - 1))) {
+            return false;
+        }
+        return regionMatches(s, pos, key);
+    }
+
+    static boolean regionMatches(CharSequence s, int pos, String key) {
+        int keyLength = key.length();
+        if (pos < 0 || pos + keyLength > s.length()) {
+            return false;
+        }
+        for (int k = 0; k < keyLength; k++) {
+            if (s.charAt(pos + k) != key.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * [start, end) 是否恰好等于 key
+     */
+    static boolean regionEquals(CharSequence s, int start, int end, String key) {
+        return end - start == key.length() && regionMatches(s, start, key);
+    }
+
+    static int indexOf(CharSequence s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 值在 ; , 或空白处结束
+     */
+    static int valueEnd(CharSequence s, int start) {
+        int end = start;
+        while (end < s.length()) {
+            char c = s.charAt(end);
+            if (c == ';' || c == ',' || isWhitespace(c)) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    static int skipSpaces(CharSequence s, int pos) {
+        while (pos < s.length() && s.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    static int skipWhitespace(CharSequence s, int pos) {
+        while (pos < s.length() && isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    static int trimEnd(CharSequence s, int start, int end) {
+        while (end > start && isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 由十六进制数字和分隔符(: - .)组成、恰好包含12个十六进制数字的MAC
+     * @return MAC结束位置，不是MAC时返回-1
+     */
+    static int macTokenEnd(CharSequence s, int start) {
+        int length = s.length();
+        int end = start;
+        int hexDigits = 0;
+        while (end < length && end - start < 17) {
+            char c = s.charAt(end);
+            if (isHexDigit(c)) {
+                hexDigits++;
+            } else if (c != ':' && c != '-' && c != '.') {
+                break;
+            }
+            end++;
+        }
+        return hexDigits == 12 ? end : -1;
+    }
+
+    /**
+     * 读取从 start 开始的十进制数字（最多18位）
+     * @return 数值，没有数字时返回-1
+     */
+    static long leadingNumber(CharSequence s, int start, int end) {
+        long value = 0;
+        int i = start;
+        while (i < end && isDigit(s.charAt(i)) && i - start < 18) {
+            value = value * 10 + (s.charAt(i) - '0');
+            i++;
+        }
+        return i > start ? value : -1;
+    }
+
+    /**
+     * 整个字段为Unix时间戳（秒或毫秒）时换算为秒
+     * 只接受全部是数字且在 2000-01-01 至 2100-01-01 之间的值，
+     * 像 "2025-03-01T08:00:00" 这样的日期文本不会被截成开头的数字
+     * @return 秒数，不是合理的时间戳时返回-1
+     */
+    static long epochSeconds(CharSequence s, int start, int end) {
+        if (end <= start || digitsEnd(s, start, end) != end) {
+            return -1;
+        }
+        long value = leadingNumber(s, start, end);
+        // 毫秒时间戳换算为秒
+        long seconds = value > 100_000_000_000L ? value / 1000 : value;
+        return seconds >= MIN_EPOCH_SECONDS && seconds < MAX_EPOCH_SECONDS ? seconds : -1;
+    }
+
+    static int digitsEnd(CharSequence s, int start, int end) {
+        int i = start;
+        while (i < end && isDigit(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 与正则 \s 一致的空白字符
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
@@ -0,0 +1,263 @@
+package com.ncu.trackplatform.parser;
+
+/**
+ * 一行AC日志解析出的终端事件
+ * 只记录各字段在原文中的起止位置和数值，需要字符串时再按需截取；
+ * 实例随扫描器复用，每次解析前清空，不是线程安全的。
+ */
+public final class SyslogEvent {
+
+    /**
+     * 事件来源，即分派到的解析器
+     */
+    public enum Source {
+        H3C_STAMGR, HUAWEI_WSTA, JSON, GENERIC
+    }
+
+    private CharSequence line;
+    private Source source;
+    private int typeStart;
+    private int typeEnd;
+    private int staMacStart;
+    private int staMacEnd;
+    // 通用解析器按关键字优先级选择终端MAC，数值越小越优先
+    int staMacPriority;
+    private int staIpStart;
+    private int staIpEnd;
+    private long apMacKey;
+    private int apNameStart;
+    private int apNameEnd;
+    private int apIpStart;
+    private int apIpEnd;
+    private int ssidStart;
+    private int ssidEnd;
+    private int bandStart;
+    private int bandEnd;
+    private int radio;
+    private int channel;
+    private long assocDurationMicros;
+    private int resultCode;
+    private long time;
+
+    public SyslogEvent() {
+        reset(null, null);
+    }
+
+    void reset(CharSequence line, Source source) {
+        this.line = line;
+        this.source = source;
+        typeStart = -1;
+        typeEnd = -1;
+        staMacStart = -1;
+        staMacEnd = -1;
+        staMacPriority = Integer.MAX_VALUE;
+        staIpStart = -1;
+        staIpEnd = -1;
+        apMacKey = MacAddress.NONE;
+        apNameStart = -1;
+        apNameEnd = -1;
+        apIpStart = -1;
+        apIpEnd = -1;
+        ssidStart = -1;
+        ssidEnd = -1;
+        bandStart = -1;
+        bandEnd = -1;
+        radio = -1;
+        channel = -1;
+        assocDurationMicros = -1;
+        resultCode = -1;
+        time = -1;
+    }
+
+    void source(Source source) {
+        this.source = source;
+    }
+
+    void messageType(int start, int end) {
+        if (end > start) {
+            typeStart = start;
+            typeEnd = end;
+        }
+    }
+
+    void staMac(int start, int end) {
+        staMacStart = start;
+        staMacEnd = end;
+    }
+
+    void staIp(int start, int end) {
+        if (end > start) {
+            staIpStart = start;
+            staIpEnd = end;
+        }
+    }
+
+    void apMacKey(long apMacKey) {
+        this.apMacKey = apMacKey;
+    }
+
+    void apName(int start, int end) {
+        if (end > start) {
+            apNameStart = start;
+            apNameEnd = end;
+        }
+    }
+
+    void apIp(int start, int end) {
+        if (end > start) {
+            apIpStart = start;
+            apIpEnd = end;
+        }
+    }
+
+    void ssid(int start, int end) {
+        if (end > start) {
+            ssidStart = start;
+            ssidEnd = end;
+        }
+    }
+
+    void band(int start, int end) {
+        if (end > start) {
+            bandStart = start;
+            bandEnd = end;
+        }
+    }
+
+    void radio(long radio) {
+        if (radio >= 0 && radio <= Integer.MAX_VALUE) {
+            this.radio = (int) radio;
+        }
+    }
+
+    void channel(long channel) {
+        if (channel >= 0 && channel <= Integer.MAX_VALUE) {
+            this.channel = (int) channel;
+        }
+    }
+
+    void assocDurationMicros(long assocDurationMicros) {
+        this.assocDurationMicros = assocDurationMicros;
+    }
+
+    void resultCode(long resultCode) {
+        if (resultCode >= 0 && resultCode <= Integer.MAX_VALUE) {
+            this.resultCode = (int) resultCode;
+        }
+    }
+
+    void time(long time) {
+        this.time = time;
+    }
+
+    public CharSequence line() {
+        return line;
+    }
+
+    /**
+     * @return 事件来源，尚未解析任何日志时为null
+     */
+    public Source source() {
+        return source;
+    }
+
+    /**
+     * @return 消息类型，如 WLAN_STA_INFO_AP_ASSOCIATE、STAMGR_CLIENT_SNOOPING
+     */
+    public String messageType() {
+        return substring(typeStart, typeEnd);
+    }
+
+    public boolean hasStaMac() {
+        return staMacStart >= 0;
+    }
+
+    public String staMac() {
+        return substring(staMacStart, staMacEnd);
+    }
+
+    public int staMacStart() {
+        return staMacStart;
+    }
+
+    public int staMacEnd() {
+        return staMacEnd;
+    }
+
+    /**
+     * @return 终端的48位MAC键，未找到时返回 MacAddress.NONE
+     */
+    public long staMacKey() {
+        return staMacStart >= 0 ? MacAddress.parse(line, staMacStart, staMacEnd) : MacAddress.NONE;
+    }
+
+    public String staIp() {
+        return substring(staIpStart, staIpEnd);
+    }
+
+    /**
+     * @return AP的48位MAC键，未出现时返回 MacAddress.NONE
+     */
+    public long apMacKey() {
+        return apMacKey;
+    }
+
+    public boolean hasApName() {
+        return apNameStart >= 0;
+    }
+
+    public String apName() {
+        return substring(apNameStart, apNameEnd);
+    }
+
+    public String apIp() {
+        return substring(apIpStart, apIpEnd);
+    }
+
+    public String ssid() {
+        return substring(ssidStart, ssidEnd);
+    }
+
+    public String band() {
+        return substring(bandStart, bandEnd);
+    }
+
+    /**
+     * @return 射频编号，未出现时为-1
+     */
+    public int radio() {
+        return radio;
+    }
+
+    /**
+     * @return 信道，未出现时为-1
+     */
+    public int channel() {
+        return channel;
+    }
+
+    /**
+     * @return 关联耗时（微秒），未出现时为-1
+     */
+    public long assocDurationMicros() {
+        return assocDurationMicros;
+    }
+
+    /**
+     * @return 结果码（华为 ERRCODE），未出现时为-1
+     */
+    public int resultCode() {
+        return resultCode;
+    }
+
+    /**
+     * @return 日志中的Unix时间戳（秒），未出现时为-1
+     */
+    public long time() {
+        return time;
+    }
+
+    private String substring(int start, int end) {
+        return start >= 0 ? line.subSequence(start, end).toString() : null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ncu.trackplatform.parser;
+
+/**
+ * 单一厂商/消息格式的日志解析器，由 SyslogParserRegistry 按消息标签分派
+ * 实现只把字段位置和数值写入事件，不截取字符串；实例无状态，可在多个线程间共享。
+ */
+interface SyslogParser {
+
+    /**
+     * @param bodyStart 消息标签之后的位置（JSON 为 '{' 的位置）
+     */
+    void parse(CharSequence line, int bodyStart, SyslogEvent event);
+}
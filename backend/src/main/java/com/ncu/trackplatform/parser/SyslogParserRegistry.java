@@ -0,0 +1,87 @@
+package com.ncu.trackplatform.parser;
+
+import static com.ncu.trackplatform.parser.ScanSupport.*;
+
+/**
+ * 日志解析器登记表
+ * 按消息标签把一行日志分派给对应厂商的解析器：%%xxWSTA 为华为，%%xxSTAMGR 为H3C，
+ * 没有 %% 标签而带 '{' 的为JSON。每行只做一次定向解析；专用解析器没有取到终端MAC时
+ * （同一模块下未适配的消息类型），再由通用解析器补齐缺失的字段。
+ * 登记表不可变，可在多个线程间共享；新增厂商格式时实现 SyslogParser 并在 DEFAULTS 中登记。
+ */
+public final class SyslogParserRegistry {
+
+    private static final SyslogParserRegistry DEFAULTS = new SyslogParserRegistry(
+        new String[]{"WSTA", "STAMGR"},
+        new SyslogEvent.Source[]{SyslogEvent.Source.HUAWEI_WSTA, SyslogEvent.Source.H3C_STAMGR},
+        new SyslogParser[]{new HuaweiWstaParser(), new H3cStamgrParser()},
+        new JsonStaParser(),
+        new GenericSyslogParser());
+
+    private final String[] modules;
+    private final SyslogEvent.Source[] sources;
+    private final SyslogParser[] parsers;
+    private final SyslogParser jsonParser;
+    private final SyslogParser fallback;
+
+    private SyslogParserRegistry(String[] modules, SyslogEvent.Source[] sources, SyslogParser[] parsers,
+                                 SyslogParser jsonParser, SyslogParser fallback) {
+        this.modules = modules;
+        this.sources = sources;
+        this.parsers = parsers;
+        this.jsonParser = jsonParser;
+        this.fallback = fallback;
+    }
+
+    public static SyslogParserRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * 解析一行日志，结果写入 event（先清空）
+     */
+    public SyslogEvent parse(CharSequence line, SyslogEvent event) {
+        event.reset(line, null);
+        if (line == null) {
+            return event;
+        }
+
+        int length = line.length();
+        int tag = -1;
+        int brace = -1;
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == '%' && i + 1 < length && line.charAt(i + 1) == '%') {
+                tag = i + 2;
+                break;
+            }
+            if (c == '{' && brace < 0) {
+                brace = i;
+            }
+        }
+
+        if (tag >= 0) {
+            // %%01WSTA/6/...：跳过版本号数字后按模块名分派
+            int module = digitsEnd(line, tag, length);
+            for (int k = 0; k < modules.length; k++) {
+                int moduleEnd = module + modules[k].length();
+                if (regionMatches(line, module, modules[k]) && moduleEnd < length && line.charAt(moduleEnd) == '/') {
+                    event.source(sources[k]);
+                    parsers[k].parse(line, moduleEnd, event);
+                    break;
+                }
+            }
+        } else if (brace >= 0) {
+            event.source(SyslogEvent.Source.JSON);
+            jsonParser.parse(line, brace, event);
+        }
+
+        if (!event.hasStaMac()) {
+            if (event.source() == null) {
+                event.source(SyslogEvent.Source.GENERIC);
+            }
+            fallback.parse(line, 0, event);
+        }
+        return event;
+    }
+}
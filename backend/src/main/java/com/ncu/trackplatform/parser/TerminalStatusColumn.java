@@ -0,0 +1,39 @@
+package com.ncu.trackplatform.parser;
+
+/**
+ * 终端状态列表（list_*.csv）的列定义
+ */
+public enum TerminalStatusColumn implements CsvColumn {
+    STATUS(false, "状态"),
+    TERMINAL_MAC(true, "终端MAC地址"),
+    TERMINAL_IP(false, "终端IP地址"),
+    SSID(false, "关联SSID"),
+    FREQUENCY_BAND(false, "关联频段"),
+    CHANNEL(false, "关联信道"),
+    MICRO_AP_NAME(false, "关联微AP名称"),
+    AP_NAME(false, "关联AP名称"),
+    AC_NAME(false, "AC名称"),
+    LOCATION(false, "位置"),
+    AC_IP(false, "AC的IP地址"),
+    AP_IP(false, "关联AP的IP地址"),
+    ACCOUNT(false, "账号"),
+    ONLINE_DURATION(false, "终端在线时长(s)");
+
+    private final boolean required;
+    private final String[] headerNames;
+
+    TerminalStatusColumn(boolean required, String... headerNames) {
+        this.required = required;
+        this.headerNames = headerNames;
+    }
+
+    @Override
+    public String[] headerNames() {
+        return headerNames;
+    }
+
+    @Override
+    public boolean required() {
+        return required;
+    }
+}
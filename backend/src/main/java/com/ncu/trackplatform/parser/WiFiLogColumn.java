@@ -0,0 +1,35 @@
+package com.ncu.trackplatform.parser;
+
+/**
+ * WiFi轨迹日志（track_*.csv）的列定义
+ */
+public enum WiFiLogColumn implements CsvColumn {
+    TIME(false, "时间"),
+    BEHAVIOR(true, "终端行为", "行为"),
+    DETAILS(true, "轨迹详细信息", "详细信息"),
+    TERMINAL_IP(false, "终端IP地址"),
+    SSID(false, "关联SSID"),
+    FREQUENCY_BAND(false, "关联频段"),
+    CHANNEL(false, "关联信道"),
+    SIGNAL_STRENGTH(false, "信号强度"),
+    LOG_CONTENT(false, "日志原文"),
+    ACCOUNT(false, "账号ID", "账号");
+
+    private final boolean required;
+    private final String[] headerNames;
+
+    WiFiLogColumn(boolean required, String... headerNames) {
+        this.required = required;
+        this.headerNames = headerNames;
+    }
+
+    @Override
+    public String[] headerNames() {
+        return headerNames;
+    }
+
+    @Override
+    public boolean required() {
+        return required;
+    }
+}
@@ -0,0 +1,274 @@
+package com.ncu.trackplatform.parser;
+
+import static com.ncu.trackplatform.parser.ScanSupport.*;
+
+/**
+ * WiFi日志字段扫描器
+ * 日志原文交给 SyslogParserRegistry 按厂商消息标签定向解析，轨迹详细信息做一次字符遍历提取AP位置和校区/建筑。
+ * 扫描过程只记录字段的起止位置和数值，不创建任何对象，需要字符串时再按需截取。
+ * 实例可重复使用但不是线程安全的，每个解析线程应持有自己的实例。
+ */
+public final class WiFiLogFieldScanner {
+
+    private static final String KEY_AP_AT = "终端在AP";
+    private static final String KEY_AP_ROAM = "漫游到AP";
+    private static final String KEY_WIRELESS = "无线/";
+
+    // 日志原文解析结果
+    private final SyslogParserRegistry parsers;
+    private final SyslogEvent event = new SyslogEvent();
+
+    // 轨迹详细信息字段
+    private CharSequence details;
+    private int apStart;
+    private int apEnd;
+    private int campusStart;
+    private int campusEnd;
+    private int buildingStart;
+    private int buildingEnd;
+
+    public WiFiLogFieldScanner() {
+        this(SyslogParserRegistry.defaults());
+    }
+
+    public WiFiLogFieldScanner(SyslogParserRegistry parsers) {
+        this.parsers = parsers;
+        resetDetails(null);
+    }
+
+    /**
+     * 解析日志原文，按消息标签分派给对应厂商的解析器，提取终端MAC、AP名称、AP MAC、AP IP、BAND、RADIO和TIME等
+     */
+    public WiFiLogFieldScanner scanLog(CharSequence logContent) {
+        parsers.parse(logContent, event);
+        return this;
+    }
+
+    /**
+     * @return 最近一次 scanLog 解析出的事件，随下一次 scanLog 覆盖
+     */
+    public SyslogEvent event() {
+        return event;
+    }
+
+    /**
+     * 扫描轨迹详细信息，提取AP位置以及"无线/校区/建筑"格式中的校区和建筑
+     * 匹配顺序与原有规则一致：先"终端在AP xxx"，再"漫游到AP xxx"
+     */
+    public WiFiLogFieldScanner scanDetails(CharSequence trajectoryDetails) {
+        resetDetails(trajectoryDetails);
+        if (trajectoryDetails == null) {
+            return this;
+        }
+
+        int roamStart = -1;
+        int roamEnd = -1;
+        int length = trajectoryDetails.length();
+        for (int i = 0; i < length && apStart < 0; i++) {
+            char c = trajectoryDetails.charAt(i);
+            if (c == '终' && regionMatches(trajectoryDetails, i, KEY_AP_AT)) {
+                scanApAt(trajectoryDetails, i + KEY_AP_AT.length());
+            } else if (c == '漫' && roamStart < 0 && regionMatches(trajectoryDetails, i, KEY_AP_ROAM)) {
+                int start = i + KEY_AP_ROAM.length();
+                int tokenStart = skipWhitespace(trajectoryDetails, start);
+                if (tokenStart > start) {
+                    int tokenEnd = tokenStart;
+                    while (tokenEnd < length && !isWhitespace(trajectoryDetails.charAt(tokenEnd))
+                            && trajectoryDetails.charAt(tokenEnd) != '(') {
+                        tokenEnd++;
+                    }
+                    if (tokenEnd > tokenStart) {
+                        roamStart = tokenStart;
+                        roamEnd = tokenEnd;
+                    }
+                }
+            }
+        }
+
+        if (apStart < 0 && roamStart >= 0) {
+            apStart = roamStart;
+            apEnd = roamEnd;
+        }
+        if (apStart >= 0) {
+            scanAddressFormat(trajectoryDetails, apStart, apEnd);
+        }
+        return this;
+    }
+
+    public boolean hasMac() {
+        return event.hasStaMac();
+    }
+
+    public String mac() {
+        return event.staMac();
+    }
+
+    /**
+     * @return 48位MAC键，未找到MAC时返回 MacAddress.NONE
+     */
+    public long macKey() {
+        return event.staMacKey();
+    }
+
+    public int macStart() {
+        return event.staMacStart();
+    }
+
+    public int macEnd() {
+        return event.staMacEnd();
+    }
+
+    public String apName() {
+        return event.apName();
+    }
+
+    public boolean hasApName() {
+        return event.hasApName();
+    }
+
+    /**
+     * @return AP的48位MAC键（华为 APMAC 字段），未出现时返回 MacAddress.NONE
+     */
+    public long apMacKey() {
+        return event.apMacKey();
+    }
+
+    public String apIp() {
+        return event.apIp();
+    }
+
+    public String band() {
+        return event.band();
+    }
+
+    /**
+     * @return 射频编号，未出现时为-1
+     */
+    public int radio() {
+        return event.radio();
+    }
+
+    /**
+     * @return 日志中TIME字段的Unix时间戳（秒），未出现时为-1
+     */
+    public long time() {
+        return event.time();
+    }
+
+    public boolean hasApLocation() {
+        return apStart >= 0;
+    }
+
+    public boolean hasAddressFormat() {
+        return campusStart >= 0;
+    }
+
+    public int apStart() {
+        return apStart;
+    }
+
+    public int apEnd() {
+        return apEnd;
+    }
+
+    public String campus() {
+        return campusStart >= 0 ? details.subSequence(campusStart, campusEnd).toString() : null;
+    }
+
+    public String building() {
+        return campusStart >= 0 ? details.subSequence(buildingStart, buildingEnd).toString() : null;
+    }
+
+    /**
+     * 标准化的AP位置：地址为"无线/校区/建筑"格式时返回"校区-建筑"，否则返回AP名称原文
+     */
+    public String apLocation() {
+        if (apStart < 0) {
+            return null;
+        }
+        if (campusStart >= 0) {
+            return new StringBuilder(campusEnd - campusStart + buildingEnd - buildingStart + 1)
+                .append(details, campusStart, campusEnd)
+                .append('-')
+                .append(details, buildingStart, buildingEnd)
+                .toString();
+        }
+        return details.subSequence(apStart, apEnd).toString();
+    }
+
+    private void resetDetails(CharSequence trajectoryDetails) {
+        details = trajectoryDetails;
+        apStart = -1;
+        apEnd = -1;
+        campusStart = -1;
+        campusEnd = -1;
+        buildingStart = -1;
+        buildingEnd = -1;
+    }
+
+    /**
+     * "终端在AP xxx "：优先取到空白为止的整段名称（后面必须还有空白），
+     * 否则取到空白或"("为止的名称
+     */
+    private void scanApAt(CharSequence s, int pos) {
+        int length = s.length();
+        int tokenStart = skipWhitespace(s, pos);
+        if (tokenStart == pos) {
+            return;
+        }
+
+        int end = tokenStart;
+        while (end < length && !isWhitespace(s.charAt(end))) {
+            end++;
+        }
+        if (end > tokenStart && end < length) {
+            apStart = tokenStart;
+            apEnd = end;
+            return;
+        }
+
+        end = tokenStart;
+        while (end < length && !isWhitespace(s.charAt(end)) && s.charAt(end) != '(') {
+            end++;
+        }
+        if (end > tokenStart) {
+            apStart = tokenStart;
+            apEnd = end;
+        }
+    }
+
+    /**
+     * 在AP名称中查找"无线/校区/建筑"
+     */
+    private void scanAddressFormat(CharSequence s, int from, int to) {
+        for (int i = from; i + KEY_WIRELESS.length() <= to; i++) {
+            if (s.charAt(i) != '无' || !regionMatches(s, i, KEY_WIRELESS)) {
+                continue;
+            }
+            int cStart = i + KEY_WIRELESS.length();
+            int cEnd = cStart;
+            while (cEnd < to && s.charAt(cEnd) != '/') {
+                cEnd++;
+            }
+            if (cEnd == cStart || cEnd >= to) {
+                continue;
+            }
+            int bStart = cEnd + 1;
+            int bEnd = bStart;
+            while (bEnd < to) {
+                char c = s.charAt(bEnd);
+                if (c == '/' || c == ')' || isWhitespace(c)) {
+                    break;
+                }
+                bEnd++;
+            }
+            if (bEnd > bStart) {
+                campusStart = cStart;
+                campusEnd = cEnd;
+                buildingStart = bStart;
+                buildingEnd = bEnd;
+                return;
+            }
+        }
+    }
+}
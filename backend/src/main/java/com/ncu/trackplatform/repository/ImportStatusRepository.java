@@ -0,0 +1,196 @@
+package com.ncu.trackplatform.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 文件导入台账（import_status表）
+ * 每个文件一行，记录已提交到的字节偏移、文件头校验和及导入状态，
+ * 用于跳过已导入的文件、从中断处续导以及只追加新增数据。
+ */
+@Repository
+public class ImportStatusRepository {
+
+    public static final String PROCESSING = "processing";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    // 用文件开头这么多字节的校验和识别同一个文件，文件被替换时开头内容会变化
+    public static final int CHECKSUM_BYTES = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void createTable() {
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS import_status (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                "file_name VARCHAR(255)," +
+                "file_path VARCHAR(1024) NOT NULL UNIQUE," +
+                "file_size BIGINT," +
+                "checksum BIGINT," +
+                "checksum_bytes INTEGER," +
+                "last_offset BIGINT DEFAULT 0," +
+                "records_imported BIGINT DEFAULT 0," +
+                "records_failed BIGINT DEFAULT 0," +
+                "import_start_time TIMESTAMP," +
+                "import_end_time TIMESTAMP," +
+                "status VARCHAR(20)," +
+                "error_message VARCHAR(1000) DEFAULT ''," +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")"
+        );
+    }
+
+    /**
+     * 按文件路径查找台账记录
+     * @return 文件从未导入过时返回null
+     */
+    public ImportStatus find(String filePath) {
+        List<ImportStatus> rows = jdbcTemplate.query(
+            "SELECT file_path, file_size, checksum, checksum_bytes, last_offset, status " +
+            "FROM import_status WHERE file_path = ?",
+            (rs, rowNum) -> new ImportStatus(
+                rs.getString("file_path"),
+                rs.getLong("file_size"),
+                rs.getLong("checksum"),
+                rs.getInt("checksum_bytes"),
+                rs.getLong("last_offset"),
+                rs.getString("status")),
+            filePath);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public List<Map<String, Object>> findAll() {
+        return jdbcTemplate.queryForList(
+            "SELECT file_name, file_path, file_size, last_offset, records_imported, records_failed, " +
+            "import_start_time, import_end_time, status, error_message FROM import_status ORDER BY file_name");
+    }
+
+    /**
+     * 开始（或继续）导入一个文件
+     * @param fromScratch 为true时清零已导入计数
+     */
+    public void begin(String fileName, String filePath, long fileSize, long checksum, int checksumBytes,
+                      long offset, boolean fromScratch) {
+        if (fromScratch) {
+            jdbcTemplate.update("DELETE FROM import_status WHERE file_path = ?", filePath);
+        }
+        int updated = jdbcTemplate.update(
+            "UPDATE import_status SET file_size = ?, checksum = ?, checksum_bytes = ?, last_offset = ?, " +
+            "import_start_time = CURRENT_TIMESTAMP, import_end_time = NULL, status = ?, error_message = '' " +
+            "WHERE file_path = ?",
+            fileSize, checksum, checksumBytes, offset, PROCESSING, filePath);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                "INSERT INTO import_status (file_name, file_path, file_size, checksum, checksum_bytes, " +
+                "last_offset, import_start_time, status) VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, ?)",
+                fileName, filePath, fileSize, checksum, checksumBytes, offset, PROCESSING);
+        }
+    }
+
+    /**
+     * 推进已提交偏移并累加计数，与对应批次在同一事务中调用时两者同时生效或同时回滚
+     */
+    public void advance(String filePath, long offset, long importedRows, long failedRows) {
+        jdbcTemplate.update(
+            "UPDATE import_status SET last_offset = ?, records_imported = records_imported + ?, " +
+            "records_failed = records_failed + ? WHERE file_path = ?",
+            offset, importedRows, failedRows, filePath);
+    }
+
+    /**
+     * 标记文件导入完成，文件大小记为实际读到的位置，之后追加的内容在下次导入时续导
+     */
+    public void complete(String filePath, long offset, long failedRows) {
+        jdbcTemplate.update(
+            "UPDATE import_status SET file_size = ?, last_offset = ?, records_failed = records_failed + ?, " +
+            "import_end_time = CURRENT_TIMESTAMP, status = ? WHERE file_path = ?",
+            offset, offset, failedRows, COMPLETED, filePath);
+    }
+
+    public void fail(String filePath, String message) {
+        String error = message == null ? "" : message.substring(0, Math.min(message.length(), 1000));
+        jdbcTemplate.update(
+            "UPDATE import_status SET import_end_time = CURRENT_TIMESTAMP, status = ?, error_message = ? " +
+            "WHERE file_path = ?",
+            FAILED, error, filePath);
+    }
+
+    /**
+     * 文件开头 length 字节的CRC32校验和
+     */
+    public static long checksum(Path file, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // 读满为止
+            }
+        }
+        buffer.flip();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    /**
+     * 台账中一个文件的导入状态
+     */
+    public static final class ImportStatus {
+
+        private final String filePath;
+        private final long fileSize;
+        private final long checksum;
+        private final int checksumBytes;
+        private final long lastOffset;
+        private final String status;
+
+        public ImportStatus(String filePath, long fileSize, long checksum, int checksumBytes,
+                            long lastOffset, String status) {
+            this.filePath = filePath;
+            this.fileSize = fileSize;
+            this.checksum = checksum;
+            this.checksumBytes = checksumBytes;
+            this.lastOffset = lastOffset;
+            this.status = status;
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        public long getFileSize() {
+            return fileSize;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+
+        public int getChecksumBytes() {
+            return checksumBytes;
+        }
+
+        public long getLastOffset() {
+            return lastOffset;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isCompleted() {
+            return COMPLETED.equals(status);
+        }
+    }
+}
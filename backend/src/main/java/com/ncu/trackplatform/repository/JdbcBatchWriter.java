@@ -0,0 +1,157 @@
+package com.ncu.trackplatform.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * JDBC批量写入器
+ * 攒够 batchSize 行后通过一次 batchUpdate 写入，调用方负责在结束时调用 flush 写出剩余的行。
+ * 非线程安全，每个导入线程使用自己的实例；在事务中使用时所有批次共用同一个连接。
+ * 可选地与其他写入器共享一个行配额：缓冲中的每一行占用一个许可，写出后归还，
+ * 从而限制所有并发导入在内存中积压的总行数。
+ * 设置了事务模板时每个批次单独提交，批次监听器与该批次在同一事务中执行，提交监听器在该批次提交之后执行。
+ */
+public class JdbcBatchWriter implements AutoCloseable {
+
+    /**
+     * 批次写入后的回调，可在同一事务中记录导入进度
+     */
+    @FunctionalInterface
+    public interface BatchListener {
+        void afterBatch(int rows);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sql;
+    private final int batchSize;
+    private final List<Object[]> pending;
+    private final Semaphore rowsInFlight;
+    private TransactionTemplate transactionTemplate;
+    private BatchListener batchListener;
+    private BatchListener commitListener;
+    private long rowsWritten;
+    private int batchesWritten;
+
+    public JdbcBatchWriter(JdbcTemplate jdbcTemplate, String sql, int batchSize) {
+        this(jdbcTemplate, sql, batchSize, null);
+    }
+
+    /**
+     * @param rowsInFlight 多个写入器共享的行配额，为null时不限制
+     */
+    public JdbcBatchWriter(JdbcTemplate jdbcTemplate, String sql, int batchSize, Semaphore rowsInFlight) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sql = sql;
+        this.batchSize = Math.max(1, batchSize);
+        this.pending = new ArrayList<>(this.batchSize);
+        this.rowsInFlight = rowsInFlight;
+    }
+
+    /**
+     * 添加一行参数，达到批大小时立即写入
+     */
+    public void add(Object... args) {
+        acquireRow();
+        pending.add(args);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 写出所有未写入的行
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            if (transactionTemplate != null) {
+                transactionTemplate.executeWithoutResult(status -> writeBatch());
+            } else {
+                writeBatch();
+            }
+            rowsWritten += pending.size();
+            batchesWritten++;
+            if (commitListener != null) {
+                commitListener.afterBatch(pending.size());
+            }
+        } finally {
+            releaseRows();
+        }
+    }
+
+    private void writeBatch() {
+        jdbcTemplate.batchUpdate(sql, pending);
+        if (batchListener != null) {
+            batchListener.afterBatch(pending.size());
+        }
+    }
+
+    /**
+     * 每个批次在独立事务中提交
+     */
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void setBatchListener(BatchListener batchListener) {
+        this.batchListener = batchListener;
+    }
+
+    /**
+     * 批次提交成功后的回调，用于发布只有在数据落库后才应可见的状态；
+     * 未设置事务模板时批次随调用方的事务提交，此时回调只表示批次已写出
+     */
+    public void setCommitListener(BatchListener commitListener) {
+        this.commitListener = commitListener;
+    }
+
+    /**
+     * 丢弃未写出的行并归还其占用的配额，出错回滚时调用；正常结束前应先调用 flush
+     */
+    @Override
+    public void close() {
+        releaseRows();
+    }
+
+    /**
+     * 配额不足时先写出自己缓冲的行再等待，
+     * 保证等待中的写入器不占用配额，多个写入器之间不会互相死锁
+     */
+    private void acquireRow() {
+        if (rowsInFlight == null || rowsInFlight.tryAcquire()) {
+            return;
+        }
+        flush();
+        try {
+            rowsInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待写入配额时被中断", e);
+        }
+    }
+
+    private void releaseRows() {
+        if (rowsInFlight != null && !pending.isEmpty()) {
+            rowsInFlight.release(pending.size());
+        }
+        pending.clear();
+    }
+
+    public int getPendingRows() {
+        return pending.size();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public int getBatchesWritten() {
+        return batchesWritten;
+    }
+}
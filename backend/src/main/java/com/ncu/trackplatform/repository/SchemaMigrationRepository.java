@@ -0,0 +1,36 @@
+package com.ncu.trackplatform.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 数据迁移记录（schema_migrations表）
+ * 升级旧表时的一次性补数据（如为已有记录补 mac_key、event_time）完成后在这里登记，
+ * 之后的导入不再重复扫描；迁移中途失败时不登记，下次导入重新执行，迁移本身必须可重复执行。
+ */
+@Repository
+public class SchemaMigrationRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void createTable() {
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                "name VARCHAR(255) PRIMARY KEY," +
+                "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")"
+        );
+    }
+
+    public boolean isApplied(String name) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM schema_migrations WHERE name = ?", Integer.class, name);
+        return count != null && count > 0;
+    }
+
+    public void markApplied(String name) {
+        jdbcTemplate.update("MERGE INTO schema_migrations (name) KEY (name) VALUES (?)", name);
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,6 +17,45 @@ public interface TrackPointRepository extends JpaRepository<TrackPoint, Long> {
      */
     List<TrackPoint> findByAccountIdOrderByTimestampAsc(String accountId);
     
+    /**
+     * 查找账号在线抽稀保留的轨迹点
+     */
+    List<TrackPoint> findByAccountIdAndKeptTrueOrderByTimestampAsc(String accountId);
+    
+    /**
+     * 查找账号最新的轨迹点（在线抽稀时待定的轨迹尾）
+     */
+    TrackPoint findFirstByAccountIdOrderByTimestampDescIdDesc(String accountId);
+    
+    /**
+     * 统计账号中未经在线抽稀的轨迹点数量
+     */
+    long countByAccountIdAndKeptIsNull(String accountId);
+    
+    /**
+     * 有未经在线抽稀的轨迹点的账号
+     */
+    @Query("SELECT DISTINCT tp.accountId FROM TrackPoint tp WHERE tp.kept IS NULL")
+    List<String> findAccountIdsWithUnprocessedPoints();
+    
+    /**
+     * 查找指定账号的所有轨迹点
+     */
+    List<TrackPoint> findByAccountIdIn(Collection<String> accountIds);
+    
+    /**
+     * 所有在线抽稀保留的轨迹点，按账号和时间排序
+     */
+    @Query("SELECT tp FROM TrackPoint tp WHERE tp.kept = true ORDER BY tp.accountId, tp.timestamp, tp.id")
+    List<TrackPoint> findKeptOrderByAccountIdAndTimestamp();
+    
+    /**
+     * 各账号最新且未被保留的轨迹点，即在线抽稀时待定的轨迹尾
+     */
+    @Query("SELECT tp FROM TrackPoint tp WHERE tp.kept = false AND tp.timestamp = " +
+           "(SELECT MAX(t2.timestamp) FROM TrackPoint t2 WHERE t2.accountId = tp.accountId)")
+    List<TrackPoint> findPendingTails();
+    
     /**
      * 根据轨迹ID查找轨迹点
      */
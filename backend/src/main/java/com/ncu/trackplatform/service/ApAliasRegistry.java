@@ -0,0 +1,235 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.parser.MacAddress;
+import com.ncu.trackplatform.parser.WiFiLogFieldScanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AP别名登记表
+ * 同一台AP在日志原文中以控制器AP名称（qhxq-bq-ysl-b-2f-02、CLHJL-C349B-1）、AP MAC和AP IP出现，
+ * 在轨迹详细信息中则是"前湖北-艺术楼-b-2f-02"这样的中文位置。解析时用详细信息得到的位置学习别名，
+ * 之后同一AP的记录只需按别名查一次表即可定位，不再解析和拼接详细信息；详细信息缺失的记录也能定位。
+ * 三类别名各用一个并发表保存，总条数有上限，超出时按最近使用时间淘汰最久未用的约四分之一，被淘汰的AP下次出现时会重新学习。
+ * 使用时间以学习次数计：命中时只写入当前计数，查询路径不加锁、不做原子更新，两次学习之间被使用的条目视为同样新。
+ * 每个规范AP位置另外分配一个进程内稳定的整数编号，轨迹点按编号比较位置；编号表不参与淘汰，也不随 clear 重置。
+ */
+@Service
+public class ApAliasRegistry {
+
+    // 别名总条数上限
+    @Value("${ingest.ap-alias.max-entries:100000}")
+    private int maxEntries;
+
+    private final Map<String, Alias> byName = new ConcurrentHashMap<>();
+    private final Map<Long, Alias> byMac = new ConcurrentHashMap<>();
+    private final Map<String, Alias> byIp = new ConcurrentHashMap<>();
+    private final Map<String, Integer> apIds = new ConcurrentHashMap<>();
+    private final List<String> apNames = new CopyOnWriteArrayList<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // 学习次数，作为别名最近使用时间的时钟
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * 按日志原文中的AP名称、AP MAC、AP IP依次查找规范AP位置
+     * @param scanner 已扫描过日志原文的扫描器
+     * @return 规范AP位置，没有登记过时返回null
+     */
+    public String resolve(WiFiLogFieldScanner scanner) {
+        Alias alias = null;
+        if (scanner.hasApName()) {
+            alias = byName.get(scanner.apName());
+        }
+        if (alias == null && scanner.apMacKey() != MacAddress.NONE) {
+            alias = byMac.get(scanner.apMacKey());
+        }
+        if (alias == null && scanner.apIp() != null) {
+            alias = byIp.get(scanner.apIp());
+        }
+        if (alias == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        alias.touch(clock.get());
+        return alias.apLocation;
+    }
+
+    /**
+     * 把日志原文中出现的AP名称、AP MAC、AP IP登记为规范AP位置的别名
+     * AP IP可能被重新分配，以最新的记录为准
+     */
+    public void learn(WiFiLogFieldScanner scanner, String apId) {
+        if (apId == null) {
+            return;
+        }
+        long now = clock.incrementAndGet();
+        boolean added = false;
+        if (scanner.hasApName()) {
+            added |= byName.put(scanner.apName(), new Alias(apId, now)) == null;
+        }
+        if (scanner.apMacKey() != MacAddress.NONE) {
+            added |= byMac.put(scanner.apMacKey(), new Alias(apId, now)) == null;
+        }
+        if (scanner.apIp() != null) {
+            added |= byIp.put(scanner.apIp(), new Alias(apId, now)) == null;
+        }
+        if (added && size() > maxEntries) {
+            evict();
+        }
+    }
+
+    /**
+     * 规范AP位置对应的整数编号，首次出现时分配
+     */
+    public int apId(String apLocation) {
+        Integer id = apIds.get(apLocation);
+        if (id != null) {
+            return id;
+        }
+        synchronized (apNames) {
+            return apIds.computeIfAbsent(apLocation, location -> {
+                apNames.add(location);
+                return apNames.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * @return 编号对应的规范AP位置，编号未分配时返回null
+     */
+    public String apName(int apId) {
+        return apId >= 0 && apId < apNames.size() ? apNames.get(apId) : null;
+    }
+
+    /**
+     * 清空所有别名
+     * AP编号不清空：编号已随轨迹点写入 TRACK_POINTS.AP_ID，补算 KEPT 时按编号比较位置，
+     * 重新分配会让已写入的编号指向别的AP，所以同一位置在进程内始终得到同一个编号
+     */
+    public void clear() {
+        byName.clear();
+        byMac.clear();
+        byIp.clear();
+    }
+
+    public int size() {
+        return byName.size() + byMac.size() + byIp.size();
+    }
+
+    /**
+     * 获取别名表统计信息
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("apNames", byName.size());
+        status.put("apMacs", byMac.size());
+        status.put("apIps", byIp.size());
+        status.put("canonicalAps", apNames.size());
+        status.put("maxEntries", maxEntries);
+        status.put("hits", hits.get());
+        status.put("misses", misses.get());
+        status.put("evictions", evictions.get());
+        return status;
+    }
+
+    /**
+     * 淘汰最久未使用的条目，直到总数降到上限的四分之三；已有线程在淘汰时直接返回，不阻塞解析线程
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int total = size();
+            if (total <= maxEntries) {
+                return;
+            }
+            // 三张表统一按使用时间排序，找出第 excess 旧的时间作为淘汰线
+            long[] times = new long[total];
+            int n = 0;
+            n = collect(byName, times, n);
+            n = collect(byMac, times, n);
+            n = collect(byIp, times, n);
+            int excess = Math.min(n, total - maxEntries * 3 / 4);
+            if (excess <= 0) {
+                return;
+            }
+            Arrays.sort(times, 0, n);
+            long cutoff = times[excess - 1];
+            // 早于淘汰线的全部删除，等于淘汰线的只删除凑够 excess 所需的数量
+            int older = 0;
+            while (times[older] < cutoff) {
+                older++;
+            }
+            int[] ties = {excess - older};
+            evictions.addAndGet(trim(byName, cutoff, ties) + trim(byMac, cutoff, ties) + trim(byIp, cutoff, ties));
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static int collect(Map<?, Alias> map, long[] times, int n) {
+        for (Alias alias : map.values()) {
+            if (n == times.length) {
+                break;
+            }
+            times[n++] = alias.lastUsed;
+        }
+        return n;
+    }
+
+    /**
+     * 删除最近使用时间早于 cutoff 的条目，以及至多 ties[0] 个时间等于 cutoff 的条目
+     */
+    private static int trim(Map<?, Alias> map, long cutoff, int[] ties) {
+        int removed = 0;
+        Iterator<Alias> aliases = map.values().iterator();
+        while (aliases.hasNext()) {
+            long lastUsed = aliases.next().lastUsed;
+            if (lastUsed < cutoff || (lastUsed == cutoff && ties[0] > 0)) {
+                if (lastUsed == cutoff) {
+                    ties[0]--;
+                }
+                aliases.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 别名指向的规范AP位置和最近使用时间
+     */
+    private static final class Alias {
+        private final String apLocation;
+        private volatile long lastUsed;
+
+        Alias(String apLocation, long lastUsed) {
+            this.apLocation = apLocation;
+            this.lastUsed = lastUsed;
+        }
+
+        /**
+         * 时间没变时不写，热点AP在多个解析线程间不反复写同一缓存行
+         */
+        void touch(long now) {
+            if (lastUsed != now) {
+                lastUsed = now;
+            }
+        }
+    }
+}
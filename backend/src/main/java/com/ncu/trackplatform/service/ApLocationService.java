@@ -0,0 +1,142 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.parser.ApCoordinateIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AP坐标服务
+ * 坐标依次从内置的 ap-coordinates.csv、外部坐标文件和 ap_locations 表加载，后加载的覆盖先加载的，
+ * 构建成不可变的前缀树索引。重新加载时先在后台构建新索引，再原子替换引用，
+ * 解析线程始终读到完整的索引，导入无需暂停。
+ */
+@Service
+public class ApLocationService {
+
+    private static final String BUILTIN_RESOURCE = "ap-coordinates.csv";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 外部坐标文件，格式与内置文件相同（ap_name,longitude,latitude），为空时不加载
+    @Value("${ingest.ap-coordinates-file:}")
+    private String coordinatesFile;
+
+    private final AtomicReference<ApCoordinateIndex> index = new AtomicReference<>(ApCoordinateIndex.empty());
+    private volatile Map<String, Object> lastReload = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 查找AP坐标，未登记的AP回退到所在建筑、校区
+     * @return 最长匹配的位置，都未登记时返回null
+     */
+    public ApCoordinateIndex.Entry lookup(String apLocation) {
+        return index.get().lookup(apLocation);
+    }
+
+    /**
+     * 重新加载所有来源并替换索引
+     * @return 各来源加载的条数
+     */
+    public synchronized Map<String, Object> reload() {
+        ApCoordinateIndex.Builder builder = ApCoordinateIndex.builder();
+        Map<String, Object> result = new LinkedHashMap<>();
+        try (InputStream in = new ClassPathResource(BUILTIN_RESOURCE).getInputStream()) {
+            result.put("builtin", load(in, builder));
+        } catch (IOException e) {
+            throw new RuntimeException("内置AP坐标加载失败: " + e.getMessage());
+        }
+        if (coordinatesFile != null && !coordinatesFile.isEmpty()) {
+            Path file = Paths.get(coordinatesFile);
+            try (InputStream in = Files.newInputStream(file)) {
+                result.put("file", load(in, builder));
+            } catch (IOException e) {
+                throw new RuntimeException("AP坐标文件加载失败: " + file.toAbsolutePath() + ", 错误: " + e.getMessage());
+            }
+        }
+        result.put("table", loadTable(builder));
+
+        ApCoordinateIndex built = builder.build();
+        index.set(built);
+        result.put("size", built.size());
+        result.put("loadedAt", LocalDateTime.now());
+        lastReload = result;
+        return result;
+    }
+
+    /**
+     * 获取当前索引状态
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>(lastReload);
+        status.put("size", index.get().size());
+        status.put("coordinatesFile", coordinatesFile);
+        return status;
+    }
+
+    /**
+     * 读取 ap_name,longitude,latitude 格式的坐标，跳过表头、空行、#注释和格式不正确的行
+     */
+    private int load(InputStream in, ApCoordinateIndex.Builder builder) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 3) {
+                continue;
+            }
+            try {
+                builder.put(fields[0], Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim()));
+                count++;
+            } catch (NumberFormatException e) {
+                // 表头或坐标格式不正确的行
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 读取 ap_locations 表中带坐标的AP，表尚未创建时跳过
+     */
+    private int loadTable(ApCoordinateIndex.Builder builder) {
+        int[] count = {0};
+        try {
+            jdbcTemplate.query(
+                "SELECT ap_name, x_coordinate, y_coordinate FROM ap_locations " +
+                "WHERE ap_name IS NOT NULL AND x_coordinate IS NOT NULL AND y_coordinate IS NOT NULL",
+                rs -> {
+                    builder.put(rs.getString(1), rs.getDouble(2), rs.getDouble(3));
+                    count[0]++;
+                });
+        } catch (DataAccessException e) {
+            return 0;
+        }
+        return count[0];
+    }
+}
@@ -2,13 +2,20 @@ package com.ncu.trackplatform.service;
 
 import com.ncu.trackplatform.entity.TrackPoint;
 import com.ncu.trackplatform.repository.TrackPointRepository;
+import com.ncu.trackplatform.util.LongObjectHashMap;
+import com.ncu.trackplatform.util.PartitionedTasks;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,30 +24,61 @@ public class BehaviorBasedOptimizationService {
     @Autowired
     private WiFiLogParsingService wifiLogParsingService;
     
+    @Autowired
+    private ForkJoinPool ingestPool;
+    
+    // 轨迹点总数低于此值时串行优化，任务拆分的开销不值得
+    @Value("${optimization.parallel-threshold:20000}")
+    private int parallelThreshold;
+    
     // @Autowired
     // private TrackPointRepository trackPointRepository;
     
-    // AP位置提取的正则表达式
-    private static final Pattern AP_LOCATION_PATTERN = Pattern.compile("终端在AP\\s+([^\\s]+)\\s+");
-    private static final Pattern AP_LOCATION_PATTERN2 = Pattern.compile("AP\\s+([^\\s]+)\\s+获取IP地址成功");
-    private static final Pattern AP_ROAM_PATTERN = Pattern.compile("漫游到AP\\s+([^\\s]+)\\s+");
+    // 没有AP编号
+    private static final int NO_AP = -1;
+    
+    // 每批保存的优化后轨迹点数量
+    private static final int SAVE_BATCH_SIZE = 1000;
+    
+    // 并行优化时，一个任务内的轨迹点不超过此数量（或只剩一个账号）就不再拆分
+    private static final int LEAF_POINTS = 4096;
     
     /**
      * 基于终端行为优化轨迹点
-     * 只保留上线事件且位置发生变化的轨迹点
+     * 只保留上线事件且位置发生变化的轨迹点；轨迹点较多时按账号并行处理
      */
     public List<TrackPoint> optimizeByBehavior(List<TrackPoint> originalPoints) {
+        return optimizeByBehavior(originalPoints, true);
+    }
+    
+    /**
+     * 基于终端行为优化轨迹点
+     * @param parallel 是否按账号并行排序和优化；轨迹点总数低于阈值时仍串行处理。
+     *                 并行与串行的结果完全相同（包括账号之间的顺序）
+     */
+    public List<TrackPoint> optimizeByBehavior(List<TrackPoint> originalPoints, boolean parallel) {
         if (originalPoints == null || originalPoints.isEmpty()) {
             return new ArrayList<>();
         }
         
         // 按账号分组处理
-        Map<String, List<TrackPoint>> pointsByAccount = groupByAccount(originalPoints);
-        List<TrackPoint> optimizedPoints = new ArrayList<>();
+        List<List<TrackPoint>> pointsByAccount = groupByAccount(originalPoints);
+        List<List<TrackPoint>> optimizedByAccount;
+        if (parallel && originalPoints.size() >= parallelThreshold && pointsByAccount.size() > 1) {
+            optimizedByAccount = PartitionedTasks.map(ingestPool, pointsByAccount, this::optimizeAccountPoints, LEAF_POINTS);
+        } else {
+            optimizedByAccount = new ArrayList<>(pointsByAccount.size());
+            for (List<TrackPoint> accountPoints : pointsByAccount) {
+                optimizedByAccount.add(optimizeAccountPoints(accountPoints));
+            }
+        }
         
-        for (Map.Entry<String, List<TrackPoint>> entry : pointsByAccount.entrySet()) {
-            List<TrackPoint> accountPoints = entry.getValue();
-            List<TrackPoint> accountOptimized = optimizeAccountPoints(accountPoints);
+        int total = 0;
+        for (List<TrackPoint> accountOptimized : optimizedByAccount) {
+            total += accountOptimized.size();
+        }
+        List<TrackPoint> optimizedPoints = new ArrayList<>(total);
+        for (List<TrackPoint> accountOptimized : optimizedByAccount) {
             optimizedPoints.addAll(accountOptimized);
         }
         
@@ -48,21 +86,23 @@ public class BehaviorBasedOptimizationService {
     }
     
     /**
-     * 优化单个账号的轨迹点
+     * 优化单个账号的轨迹点（先按时间排序）
      */
     private List<TrackPoint> optimizeAccountPoints(List<TrackPoint> points) {
+        points.sort((p1, p2) -> p1.getTimestamp().compareTo(p2.getTimestamp()));
+        
         List<TrackPoint> optimized = new ArrayList<>();
-        String lastLocation = null;
+        int lastApId = NO_AP;
         
         for (TrackPoint point : points) {
             // 检查是否为上线事件
             if (isOnlineEvent(point)) {
-                String currentLocation = extractAPLocation(point);
+                int currentApId = apIdOf(point);
                 
                 // 如果位置发生变化，则保留此轨迹点
-                if (currentLocation != null && !currentLocation.equals(lastLocation)) {
+                if (currentApId != NO_AP && currentApId != lastApId) {
                     optimized.add(point);
-                    lastLocation = currentLocation;
+                    lastApId = currentApId;
                 }
             }
         }
@@ -71,93 +111,40 @@ public class BehaviorBasedOptimizationService {
     }
     
     /**
-     * 判断是否为上线事件
+     * 判断是否为上线事件（关联成功或获取IP地址成功）
      */
     private boolean isOnlineEvent(TrackPoint point) {
-        if (point.getTrackId() == null) {
-            System.out.println("BehaviorBasedOptimizationService: TrackId为null");
-            try {
-                java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-                fw.write("BehaviorBasedOptimizationService: TrackId为null\n");
-                fw.close();
-            } catch (Exception e) {}
-            return false;
-        }
-        
-        // 检查轨迹详细信息字段
-        String details = point.getTrackId(); // 这里暂时用trackId字段存储轨迹详细信息
-        if (details == null) {
-            System.out.println("BehaviorBasedOptimizationService: details为null");
-            try {
-                java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-                fw.write("BehaviorBasedOptimizationService: details为null\n");
-                fw.close();
-            } catch (Exception e) {}
-            return false;
-        }
-        
-        System.out.println("BehaviorBasedOptimizationService: 检查上线事件，details=" + details);
-        try {
-            java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-            fw.write("BehaviorBasedOptimizationService: 检查上线事件，details=" + details + "\n");
-            fw.close();
-        } catch (Exception e) {}
-        
-        // 判断是否包含上线相关的关键词
-        boolean result = details.contains("获取IP地址成功") || details.contains("关联成功");
-        
-        System.out.println("BehaviorBasedOptimizationService: 上线事件判断结果=" + result);
-        try {
-            java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-            fw.write("BehaviorBasedOptimizationService: 上线事件判断结果=" + result + "\n");
-            fw.close();
-        } catch (Exception e) {}
-        
-        return result;
+        return point.getEventType() != null && point.getEventType().isConnection();
     }
     
     /**
-     * 从轨迹点中提取AP位置信息
+     * 轨迹点的规范AP编号，解析时已确定
      */
-    private String extractAPLocation(TrackPoint point) {
-        if (point.getTrackId() == null) {
-            return null;
-        }
-        
-        String details = point.getTrackId();
-        
-        // 尝试多种模式提取AP位置
-        Matcher matcher = AP_LOCATION_PATTERN.matcher(details);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        
-        matcher = AP_LOCATION_PATTERN2.matcher(details);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        
-        return null;
+    private int apIdOf(TrackPoint point) {
+        return point.getApId() != null ? point.getApId() : NO_AP;
     }
     
     /**
      * 按账号分组轨迹点
+     * 有MAC的终端按48位MAC键分组，键为原始 long，不装箱、不哈希字符串；
+     * 没有MAC（以IP或账号名作为账号）的少量轨迹点仍按字符串分组
+     * @return 每个账号的轨迹点，保持原始顺序
      */
-    private Map<String, List<TrackPoint>> groupByAccount(List<TrackPoint> points) {
-        Map<String, List<TrackPoint>> grouped = new HashMap<>();
+    private List<List<TrackPoint>> groupByAccount(List<TrackPoint> points) {
+        LongObjectHashMap<List<TrackPoint>> byMac = new LongObjectHashMap<>();
+        Map<String, List<TrackPoint>> byAccountId = new HashMap<>();
         
         for (TrackPoint point : points) {
-            String accountId = point.getAccountId();
-            if (accountId != null) {
-                grouped.computeIfAbsent(accountId, k -> new ArrayList<>()).add(point);
+            Long macKey = point.getMacKey();
+            if (macKey != null) {
+                byMac.computeIfAbsent(macKey, k -> new ArrayList<>()).add(point);
+            } else if (point.getAccountId() != null) {
+                byAccountId.computeIfAbsent(point.getAccountId(), k -> new ArrayList<>()).add(point);
             }
         }
         
-        // 对每个账号的轨迹点按时间排序
-        for (List<TrackPoint> accountPoints : grouped.values()) {
-            accountPoints.sort((p1, p2) -> p1.getTimestamp().compareTo(p2.getTimestamp()));
-        }
-        
+        List<List<TrackPoint>> grouped = byMac.values();
+        grouped.addAll(byAccountId.values());
         return grouped;
     }
     
@@ -165,16 +152,18 @@ public class BehaviorBasedOptimizationService {
      * 获取优化统计信息
      */
     public String getOptimizationStats(List<TrackPoint> original, List<TrackPoint> optimized) {
-        int originalCount = original.size();
-        int optimizedCount = optimized.size();
-        double reductionRate = originalCount > 0 ? 
-            ((double)(originalCount - optimizedCount) / originalCount) * 100 : 0;
-        
         // 统计上线事件数量
         long onlineEvents = original.stream()
             .filter(this::isOnlineEvent)
             .count();
         
+        return formatOptimizationStats(original.size(), onlineEvents, optimized.size());
+    }
+    
+    private String formatOptimizationStats(long originalCount, long onlineEvents, long optimizedCount) {
+        double reductionRate = originalCount > 0 ? 
+            ((double)(originalCount - optimizedCount) / originalCount) * 100 : 0;
+        
         return String.format(
             "基于行为的轨迹优化统计:\n" +
             "- 原始轨迹点: %d 个\n" +
@@ -187,30 +176,174 @@ public class BehaviorBasedOptimizationService {
     
     /**
      * 处理WiFi日志文件
+     * 以流式方式边解析边优化，只为每个账号保留最后一次的AP位置，内存中只保存位置发生变化的上线事件，不保存原始轨迹点。
+     * 流式优化要求同一账号的日志按时间顺序出现（AC导出的日志本身即按时间排列）；
+     * 发现某个账号的时间倒退时放弃流式结果，重新读取文件，只收集可能保留的上线事件，按账号排序后优化，结果与 optimizeByBehavior 一致。
+     * 读完整个文件、确认流式结果有效之后才分批保存，改走排序路径时不会有已保存的流式结果。
      */
     public String processWiFiLogFile(MultipartFile file) {
+        return processWiFiLogFile(file, false);
+    }
+    
+    /**
+     * 处理WiFi日志文件
+     * @param parallel 是否分块并行解析；并行解析的结果仍按文件顺序进入优化器
+     */
+    public String processWiFiLogFile(MultipartFile file, boolean parallel) {
+        Path tempFile = null;
         try {
-            // 1. 解析WiFi日志文件
-            List<TrackPoint> rawPoints = wifiLogParsingService.parseWiFiLogCSV(file);
+            // 1. 边解析WiFi日志文件边基于终端行为优化轨迹点
+            StreamingBehaviorOptimizer optimizer = new StreamingBehaviorOptimizer();
+            if (parallel) {
+                tempFile = Files.createTempFile("wifi-log-", ".csv");
+                file.transferTo(tempFile);
+                wifiLogParsingService.parseWiFiLogFileParallel(tempFile, optimizer);
+            } else {
+                wifiLogParsingService.parseWiFiLogCSV(file, optimizer);
+            }
             
-            if (rawPoints.isEmpty()) {
+            if (optimizer.rawCount == 0) {
                 return "未能从WiFi日志中解析出有效的轨迹点";
             }
             
-            // 2. 基于终端行为优化轨迹点
-            List<TrackPoint> optimizedPoints = optimizeByBehavior(rawPoints);
-            
-            // 3. 保存优化后的轨迹点到数据库（暂时禁用）
-            // trackPointRepository.saveAll(optimizedPoints);
+            long rawCount;
+            long onlineEvents;
+            long optimizedCount;
+            if (optimizer.outOfOrder) {
+                // 2. 日志未按时间排列：重新读取文件，只收集可能保留的上线事件，按账号排序后优化
+                OnlineEventCollector collector = new OnlineEventCollector();
+                if (parallel) {
+                    wifiLogParsingService.parseWiFiLogFileParallel(tempFile, collector);
+                } else {
+                    wifiLogParsingService.parseWiFiLogCSV(file, collector);
+                }
+                List<TrackPoint> optimized = optimizeByBehavior(collector.points, parallel);
+                saveInBatches(optimized);
+                rawCount = collector.rawCount;
+                onlineEvents = collector.onlineEvents;
+                optimizedCount = optimized.size();
+            } else {
+                // 2. 整个文件按时间排列，流式结果有效，分批保存
+                saveInBatches(optimizer.optimized);
+                rawCount = optimizer.rawCount;
+                onlineEvents = optimizer.onlineEvents;
+                optimizedCount = optimizer.optimized.size();
+            }
             
-            // 4. 返回处理结果
-            String stats = getOptimizationStats(rawPoints, optimizedPoints);
+            // 3. 返回处理结果
+            String stats = formatOptimizationStats(rawCount, onlineEvents, optimizedCount);
             
             return String.format("成功处理WiFi日志文件，导入%d个优化后的轨迹点\n\n%s", 
-                optimizedPoints.size(), stats);
+                optimizedCount, stats);
                 
         } catch (Exception e) {
             throw new RuntimeException("处理WiFi日志文件失败: " + e.getMessage(), e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // 临时文件删除失败不影响处理结果
+                }
+            }
         }
     }
-}
\ No newline at end of file
+    
+    private void saveInBatches(List<TrackPoint> optimized) {
+        for (int from = 0; from < optimized.size(); from += SAVE_BATCH_SIZE) {
+            saveOptimizedPoints(optimized.subList(from, Math.min(from + SAVE_BATCH_SIZE, optimized.size())));
+        }
+    }
+    
+    /**
+     * 保存一批优化后的轨迹点
+     */
+    private void saveOptimizedPoints(List<TrackPoint> points) {
+        // 保存优化后的轨迹点到数据库（暂时禁用）
+        // trackPointRepository.saveAll(points);
+    }
+    
+    /**
+     * 流式行为优化器：逐点接收解析结果，按账号记录上一次的AP位置和时间，
+     * 位置发生变化的上线事件加入结果，文件读完后由调用方保存。
+     * 某个账号的时间倒退时置 outOfOrder、丢弃已有结果并停止优化，由调用方改走排序后的批量路径
+     */
+    private class StreamingBehaviorOptimizer implements Consumer<TrackPoint> {
+        
+        private final LongObjectHashMap<AccountState> stateByMac = new LongObjectHashMap<>();
+        private final Map<String, AccountState> stateByAccount = new HashMap<>();
+        private final List<TrackPoint> optimized = new ArrayList<>();
+        private int rawCount;
+        private long onlineEvents;
+        private boolean outOfOrder;
+        
+        @Override
+        public void accept(TrackPoint point) {
+            rawCount++;
+            if (outOfOrder || !isOnlineEvent(point)) {
+                return;
+            }
+            onlineEvents++;
+            if (point.getAccountId() == null) {
+                return;
+            }
+            
+            int currentApId = apIdOf(point);
+            if (currentApId == NO_AP) {
+                return;
+            }
+            
+            AccountState state = point.getMacKey() != null
+                ? stateByMac.computeIfAbsent(point.getMacKey(), k -> new AccountState())
+                : stateByAccount.computeIfAbsent(point.getAccountId(), k -> new AccountState());
+            // 只有参与比较的上线事件之间的先后会影响结果；时间相同时排序是稳定的，与文件顺序一致
+            LocalDateTime time = point.getTimestamp();
+            if (time != null && state.lastTime != null && time.isBefore(state.lastTime)) {
+                outOfOrder = true;
+                optimized.clear();
+                return;
+            }
+            if (time != null) {
+                state.lastTime = time;
+            }
+            
+            // 如果位置发生变化，则保留此轨迹点
+            int lastApId = state.apId;
+            state.apId = currentApId;
+            if (lastApId != currentApId) {
+                optimized.add(point);
+            }
+        }
+    }
+    
+    /**
+     * 排序路径的收集器：统计原始轨迹点和上线事件，只保留 optimizeByBehavior 可能保留的点
+     * （有账号和AP编号的上线事件），其余轨迹点解析后即丢弃；同一账号的点保持文件顺序，优化结果不变
+     */
+    private class OnlineEventCollector implements Consumer<TrackPoint> {
+        
+        private final List<TrackPoint> points = new ArrayList<>();
+        private int rawCount;
+        private long onlineEvents;
+        
+        @Override
+        public void accept(TrackPoint point) {
+            rawCount++;
+            if (!isOnlineEvent(point)) {
+                return;
+            }
+            onlineEvents++;
+            if ((point.getMacKey() != null || point.getAccountId() != null) && apIdOf(point) != NO_AP) {
+                points.add(point);
+            }
+        }
+    }
+    
+    /**
+     * 流式优化时一个账号的状态：上一次保留的AP位置和上一个上线事件的时间
+     */
+    private static final class AccountState {
+        private int apId = NO_AP;
+        private LocalDateTime lastTime;
+    }
+}
@@ -1,17 +1,48 @@
 package com.ncu.trackplatform.service;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
+import com.ncu.trackplatform.dto.FileImportProgress;
+import com.ncu.trackplatform.parser.CsvColumn;
+import com.ncu.trackplatform.parser.CsvRecordReader;
+import com.ncu.trackplatform.parser.CsvSchema;
+import com.ncu.trackplatform.parser.LogTimestampParser;
+import com.ncu.trackplatform.parser.MacAddress;
+import com.ncu.trackplatform.parser.ParallelCsvProcessor;
+import com.ncu.trackplatform.parser.TerminalStatusColumn;
+import com.ncu.trackplatform.parser.WiFiLogColumn;
+import com.ncu.trackplatform.parser.WiFiLogFieldScanner;
+import com.ncu.trackplatform.repository.ImportStatusRepository;
+import com.ncu.trackplatform.repository.JdbcBatchWriter;
+import com.ncu.trackplatform.repository.SchemaMigrationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import jakarta.annotation.PostConstruct;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 @Service
 public class DataService {
@@ -19,19 +50,147 @@ public class DataService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ImportStatusRepository importStatusRepository;
+
+    @Autowired
+    private SchemaMigrationRepository schemaMigrationRepository;
+
+    @Autowired
+    private MacRegistryService macRegistryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 流式查询使用单独的JdbcTemplate，按批从结果集取行，不影响其他查询的设置
+    private JdbcTemplate streamingJdbcTemplate;
+
+    // 轨迹分页每页最大行数
+    private static final int MAX_TRAJECTORY_PAGE_SIZE = 5000;
+
+    private static final String TRAJECTORY_COLUMNS =
+        "id, timestamp, event_time, terminal_behavior, trajectory_details, " +
+        "terminal_ip, ssid, frequency_band, ap_name, location, signal_strength";
+
+    @Autowired
+    private ForkJoinPool ingestPool;
+
+    @Autowired
+    @Qualifier("importFilePool")
+    private ExecutorService importFilePool;
+
+    // 每次batchUpdate写入的行数
+    @Value("${ingest.batch-size:1000}")
+    private int batchSize;
+
+    // 所有导入任务合计允许缓冲在内存中、尚未写入数据库的最大行数
+    @Value("${ingest.max-rows-in-flight:50000}")
+    private int maxRowsInFlight;
+
+    // 同时向数据库写入的最大任务数（文件或数据块），应不大于连接池大小
+    @Value("${ingest.db-writers:4}")
+    private int dbWriters;
+
+    private Semaphore rowsInFlight;
+    private Semaphore dbWriteSlots;
+
+    // 最近一次目录导入中各文件的进度
+    private final Map<String, FileImportProgress> importProgress = new ConcurrentHashMap<>();
+
+    // 每读取多少条记录更新一次进度
+    private static final int PROGRESS_INTERVAL = 1000;
+
+
+    // 并行导入时每个数据块的大小
+    @Value("${ingest.chunk-size-mb:8}")
+    private int chunkSizeMb;
+
+    /**
+     * CSV文件类型：轨迹日志、终端状态列表或无法识别
+     */
+    private enum CsvFileType {
+        TRACK, STATUS, UNKNOWN
+    }
+
+    private static final String INSERT_WIFI_LOG_SQL =
+        "INSERT INTO wifi_logs (timestamp, event_time, terminal_behavior, trajectory_details, " +
+        "terminal_ip, ssid, frequency_band, channel_info, " +
+        "signal_strength, log_content, terminal_mac, mac_key, ap_name, location, source_file, source_offset) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TERMINAL_STATUS_SQL =
+        "INSERT INTO terminal_status (status, terminal_mac, mac_key, terminal_ip, ssid, " +
+        "frequency_band, channel_info, micro_ap_name, " +
+        "ap_name, ac_name, location, ac_ip, ap_ip, " +
+        "account, online_duration, source_file, source_offset) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // terminal_mac 在上面两条插入语句参数中的下标
+    private static final int WIFI_LOG_MAC_ARG = 10;
+    private static final int TERMINAL_STATUS_MAC_ARG = 1;
+
+    // 每个导入线程复用一个字段扫描器，从日志原文中定位MAC
+    private static final ThreadLocal<WiFiLogFieldScanner> FIELD_SCANNERS =
+        ThreadLocal.withInitial(WiFiLogFieldScanner::new);
+
+    /**
+     * 文件类型及按表头编译好的列投影，每个文件只绑定一次
+     */
+    private static final class FileLayout {
+        private final CsvFileType type;
+        private final CsvSchema<WiFiLogColumn> trackSchema;
+        private final CsvSchema<TerminalStatusColumn> statusSchema;
+        // 轨迹文件的时间格式在第一条记录处识别，同一文件的各个数据块共用
+        private final LogTimestampParser timestamps = new LogTimestampParser();
+
+        private FileLayout(CsvFileType type, CsvSchema<WiFiLogColumn> trackSchema,
+                           CsvSchema<TerminalStatusColumn> statusSchema) {
+            this.type = type;
+            this.trackSchema = trackSchema;
+            this.statusSchema = statusSchema;
+        }
+    }
+
+    @PostConstruct
+    public void initRowQuota() {
+        rowsInFlight = new Semaphore(Math.max(batchSize, maxRowsInFlight));
+        dbWriteSlots = new Semaphore(Math.max(1, dbWriters));
+        streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingJdbcTemplate.setFetchSize(500);
+    }
+
     // @PostConstruct
     // public void init() {
     //     initializeTables();
     //     System.out.println("数据库表初始化完成");
     // }
 
-    public void initializeTables() {
-        // 创建WiFi日志表
+    /**
+     * 删除所有导入数据及导入台账，下次导入时全部重新导入
+     */
+    public void dropTables() {
         jdbcTemplate.execute("DROP TABLE IF EXISTS wifi_logs");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS terminal_status");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS ap_locations");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS import_status");
+        macRegistryService.clear();
+    }
+
+    /**
+     * 创建缺失的表，已有的表和数据保持不变
+     */
+    public synchronized void initializeTables() {
+        schemaMigrationRepository.createTable();
+
+        // 创建WiFi日志表
         jdbcTemplate.execute(
-            "CREATE TABLE wifi_logs (" +
+            "CREATE TABLE IF NOT EXISTS wifi_logs (" +
                 "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
                 "timestamp VARCHAR(255)," +
+                "event_time TIMESTAMP," +
                 "terminal_behavior VARCHAR(255)," +
                 "trajectory_details TEXT," +
                 "terminal_ip VARCHAR(50)," +
@@ -41,19 +200,34 @@ public class DataService {
                 "signal_strength VARCHAR(20)," +
                 "log_content TEXT," +
                 "terminal_mac VARCHAR(50)," +
+                "mac_key BIGINT," +
                 "ap_name VARCHAR(255)," +
                 "location VARCHAR(255)," +
+                "source_file VARCHAR(1024)," +
+                "source_offset BIGINT," +
                 "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
             ")"
         );
+        // 早期版本创建的表没有时间类型列，补上
+        jdbcTemplate.execute("ALTER TABLE wifi_logs ADD COLUMN IF NOT EXISTS event_time TIMESTAMP");
+        migrateOnce("wifi_logs.event_time", () -> backfillEventTime());
+        jdbcTemplate.execute("ALTER TABLE wifi_logs ADD COLUMN IF NOT EXISTS mac_key BIGINT");
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_wifi_logs_source ON wifi_logs (source_file, source_offset)");
+        migrateOnce("wifi_logs.mac_key", () -> backfillMacKeys("wifi_logs"));
+        // 按终端查轨迹、按AP查时间段内的终端；终端按48位MAC键索引，不受MAC写法影响
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_wifi_logs_mac_key_time ON wifi_logs (mac_key, event_time)");
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_wifi_logs_ap_time ON wifi_logs (ap_name, event_time)");
 
         // 创建终端状态表
-        jdbcTemplate.execute("DROP TABLE IF EXISTS terminal_status");
         jdbcTemplate.execute(
-            "CREATE TABLE terminal_status (" +
+            "CREATE TABLE IF NOT EXISTS terminal_status (" +
                 "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
                 "status VARCHAR(50)," +
                 "terminal_mac VARCHAR(50)," +
+                "mac_key BIGINT," +
                 "terminal_ip VARCHAR(50)," +
                 "ssid VARCHAR(100)," +
                 "frequency_band VARCHAR(10)," +
@@ -66,14 +240,19 @@ public class DataService {
                 "ap_ip VARCHAR(50)," +
                 "account VARCHAR(255)," +
                 "online_duration INTEGER," +
+                "source_file VARCHAR(1024)," +
+                "source_offset BIGINT," +
                 "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
             ")"
         );
+        jdbcTemplate.execute("ALTER TABLE terminal_status ADD COLUMN IF NOT EXISTS mac_key BIGINT");
+        migrateOnce("terminal_status.mac_key", () -> backfillMacKeys("terminal_status"));
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_terminal_status_source ON terminal_status (source_file, source_offset)");
 
         // 创建AP位置表
-        jdbcTemplate.execute("DROP TABLE IF EXISTS ap_locations");
         jdbcTemplate.execute(
-            "CREATE TABLE ap_locations (" +
+            "CREATE TABLE IF NOT EXISTS ap_locations (" +
                 "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
                 "ap_name VARCHAR(255)," +
                 "location VARCHAR(255)," +
@@ -84,9 +263,117 @@ public class DataService {
                 "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
             ")"
         );
+
+        // 创建导入台账表
+        importStatusRepository.createTable();
+
+        // 创建MAC登记表
+        macRegistryService.initialize();
+        // 早期版本按 terminal_mac 原文重建登记表，同一终端的不同写法被登记多次，按 mac_key 重建一次
+        migrateOnce("mac_registry.mac_key", macRegistryService::rebuild);
+    }
+
+    /**
+     * 启动完成后建表、执行数据迁移并加载MAC登记表，首次导入之前终端列表和数量也能反映已有数据
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeOnStartup() {
+        initializeTables();
     }
 
     public Map<String, Object> importDataFromDirectory(String directoryPath) {
+        return importDataFromDirectory(directoryPath, false, false, false);
+    }
+
+    /**
+     * 执行一次性的数据迁移，成功后登记，之后的导入直接跳过；
+     * 没有合法值的记录（如没有MAC、时间文本无法解析）会一直保持为空，不能以“是否还有空值”判断是否需要迁移
+     */
+    private void migrateOnce(String name, Runnable migration) {
+        if (schemaMigrationRepository.isApplied(name)) {
+            return;
+        }
+        migration.run();
+        schemaMigrationRepository.markApplied(name);
+    }
+
+    /**
+     * 为加列之前导入的记录补上 mac_key，按MAC键查询轨迹时才能查到这些记录
+     * 按主键分页处理，terminal_mac 不是合法MAC的记录保持为空
+     * @return 补上 mac_key 的记录数
+     */
+    private int backfillMacKeys(String table) {
+        int updated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, terminal_mac FROM " + table +
+                " WHERE mac_key IS NULL AND terminal_mac IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                lastId, Math.max(1, batchSize));
+            if (rows.isEmpty()) {
+                return updated;
+            }
+            List<Object[]> args = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                long macKey = MacAddress.parse(((String) row.get("terminal_mac")).trim());
+                if (macKey != MacAddress.NONE) {
+                    args.add(new Object[]{macKey, lastId});
+                }
+            }
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE " + table + " SET mac_key = ? WHERE id = ?", args);
+                updated += args.size();
+            }
+        }
+    }
+
+    /**
+     * 为加列之前导入的记录补上 event_time，否则这些记录不会出现在按 event_time 排序的轨迹查询中
+     * 用导入时相同的 LogTimestampParser 解码文本时间（CST 按东八区处理，不会被当成美国中部时间），
+     * 按主键分页处理，无法解析的记录保持为空；作为一次性迁移执行，这些记录不会在之后每次导入时被重新读取
+     * @return 补上 event_time 的记录数
+     */
+    private int backfillEventTime() {
+        LogTimestampParser timestamps = new LogTimestampParser();
+        int updated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, timestamp FROM wifi_logs WHERE event_time IS NULL AND id > ? ORDER BY id LIMIT ?",
+                lastId, Math.max(1, batchSize));
+            if (rows.isEmpty()) {
+                return updated;
+            }
+            List<Object[]> args = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                long millis = timestamps.decode((String) row.get("timestamp"));
+                if (millis != LogTimestampParser.INVALID) {
+                    args.add(new Object[]{LogTimestampParser.toLocalDateTime(millis), lastId});
+                }
+            }
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE wifi_logs SET event_time = ? WHERE id = ?", args);
+                updated += args.size();
+            }
+        }
+    }
+
+    public Map<String, Object> importDataFromDirectory(String directoryPath, boolean parallel) {
+        return importDataFromDirectory(directoryPath, parallel, false, false);
+    }
+
+    /**
+     * 增量导入目录下的所有CSV文件
+     * 已完整导入且未变化的文件被跳过，中断或有追加内容的文件从台账记录的偏移处续导，
+     * 内容被替换的文件先删除其旧数据再重新导入。
+     * @param parallel 是否把每个文件切块后并行解析导入
+     * @param concurrent 是否在文件线程池中同时导入多个文件，结果仍在调用线程中按文件汇总
+     * @param full 是否清空已有数据和台账后全部重新导入
+     */
+    public Map<String, Object> importDataFromDirectory(String directoryPath, boolean parallel,
+                                                       boolean concurrent, boolean full) {
         Map<String, Object> result = new HashMap<>();
         File directory = new File(directoryPath);
         
@@ -96,6 +383,9 @@ public class DataService {
             return result;
         }
 
+        if (full) {
+            dropTables();
+        }
         initializeTables();
         
         File[] csvFiles = directory.listFiles((dir, name) -> name.toLowerCase().endsWith(".csv"));
@@ -108,165 +398,434 @@ public class DataService {
         int totalProcessed = 0;
         int totalErrors = 0;
         List<String> processedFiles = new ArrayList<>();
+        List<String> skippedFiles = new ArrayList<>();
+        long startTime = System.nanoTime();
 
+        importProgress.clear();
         for (File csvFile : csvFiles) {
+            importProgress.put(csvFile.getName(), new FileImportProgress(csvFile.getName(), csvFile.length()));
+        }
+
+        List<Future<Map<String, Object>>> futures = new ArrayList<>();
+        if (concurrent) {
+            // 大文件先提交，避免最后只剩一个大文件在单独运行
+            Arrays.sort(csvFiles, Comparator.comparingLong(File::length).reversed());
+            for (File csvFile : csvFiles) {
+                futures.add(importFilePool.submit(() -> importTrackedFile(csvFile, parallel)));
+            }
+        }
+
+        for (int i = 0; i < csvFiles.length; i++) {
+            File csvFile = csvFiles[i];
             try {
-                Map<String, Object> fileResult = importCsvFile(csvFile);
+                Map<String, Object> fileResult = concurrent ? futures.get(i).get() : importTrackedFile(csvFile, parallel);
                 totalProcessed += (Integer) fileResult.get("processed");
                 totalErrors += (Integer) fileResult.get("errors");
-                processedFiles.add(csvFile.getName());
+                if (Boolean.TRUE.equals(fileResult.get("skipped"))) {
+                    skippedFiles.add(csvFile.getName());
+                } else {
+                    processedFiles.add(csvFile.getName());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                totalErrors++;
+                System.err.println("等待文件导入时被中断: " + csvFile.getName());
             } catch (Exception e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
                 totalErrors++;
-                System.err.println("处理文件失败: " + csvFile.getName() + ", 错误: " + e.getMessage());
+                System.err.println("处理文件失败: " + csvFile.getName() + ", 错误: " + cause.getMessage());
             }
         }
 
+        long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
         result.put("success", true);
         result.put("totalProcessed", totalProcessed);
         result.put("totalErrors", totalErrors);
         result.put("processedFiles", processedFiles);
-        result.put("message", String.format("成功处理 %d 个文件，共 %d 条记录，%d 个错误", 
-                                           processedFiles.size(), totalProcessed, totalErrors));
+        result.put("skippedFiles", skippedFiles);
+        result.put("elapsedMs", elapsedMs);
+        result.put("rowsPerSecond", rowsPerSecond(totalProcessed, elapsedMs));
+        result.put("message", String.format("成功处理 %d 个文件，跳过 %d 个未变化的文件，共 %d 条记录，%d 个错误，耗时 %d ms", 
+                                           processedFiles.size(), skippedFiles.size(), totalProcessed, totalErrors, elapsedMs));
         
         return result;
     }
 
-    private Map<String, Object> importCsvFile(File csvFile) throws IOException, CsvException {
-        Map<String, Object> result = new HashMap<>();
-        int processed = 0;
-        int errors = 0;
+    /**
+     * 导入单个文件并维护其进度
+     */
+    private Map<String, Object> importTrackedFile(File csvFile, boolean parallel) throws IOException {
+        FileImportProgress progress = importProgress.get(csvFile.getName());
+        progress.start();
+        try {
+            Map<String, Object> fileResult = parallel ? importCsvFileParallel(csvFile, progress) : importCsvFile(csvFile, progress);
+            progress.finish(FileImportProgress.DONE, null);
+            return fileResult;
+        } catch (IOException | RuntimeException e) {
+            progress.finish(FileImportProgress.FAILED, e.getMessage());
+            importStatusRepository.fail(csvFile.getAbsolutePath(), e.getMessage());
+            throw e;
+        } finally {
+            macRegistryService.flush();
+        }
+    }
 
-        try (CSVReader reader = new CSVReader(new FileReader(csvFile))) {
-            List<String[]> records = reader.readAll();
-            
-            if (records.isEmpty()) {
-                result.put("processed", 0);
-                result.put("errors", 0);
-                return result;
-            }
+    /**
+     * 获取导入台账
+     */
+    public List<Map<String, Object>> getImportLedger() {
+        importStatusRepository.createTable();
+        return importStatusRepository.findAll();
+    }
 
-            String[] headers = records.get(0);
-            
-            // 根据文件名和表头判断文件类型
-            if (csvFile.getName().startsWith("track_") || 
-                Arrays.asList(headers).contains("终端行为") || 
-                Arrays.asList(headers).contains("轨迹详细信息")) {
-                
-                // 处理轨迹数据
-                for (int i = 1; i < records.size(); i++) {
-                    try {
-                        String[] record = records.get(i);
-                        if (isValidTrackRecord(record, headers)) {
-                            insertWifiLog(record, headers);
-                            processed++;
-                        }
-                    } catch (Exception e) {
-                        errors++;
-                    }
+    /**
+     * 获取最近一次目录导入中各文件的进度
+     */
+    public List<FileImportProgress> getImportProgress() {
+        List<FileImportProgress> progress = new ArrayList<>(importProgress.values());
+        progress.sort(Comparator.comparing(FileImportProgress::getFileName));
+        return progress;
+    }
+
+    /**
+     * 占用一个数据库写入名额后执行，限制同时写库的任务数
+     */
+    private <T> T withWriteSlot(Supplier<T> action) {
+        dbWriteSlots.acquireUninterruptibly();
+        try {
+            return action.get();
+        } finally {
+            dbWriteSlots.release();
+        }
+    }
+
+    /**
+     * 导入单个CSV文件：读到表头即确定文件类型，之后从台账偏移处逐条读取记录，内存中只保留当前批次。
+     * 每个批次与台账偏移在同一事务中提交，中断后从最后提交的位置继续
+     */
+    private Map<String, Object> importCsvFile(File csvFile, FileImportProgress progress) throws IOException {
+        int[] counts = {0, 0};
+        long startTime = System.nanoTime();
+
+        Path path = csvFile.toPath();
+        ParallelCsvProcessor.Header header = ParallelCsvProcessor.readHeader(path, Charset.defaultCharset());
+        if (header != null) {
+            FileLayout layout = bindLayout(csvFile.getName(), header.getColumns());
+            if (layout.type != CsvFileType.UNKNOWN) {
+                String sourceFile = csvFile.getAbsolutePath();
+                long startOffset = prepareIncrementalImport(csvFile, header.getDataStart());
+                if (startOffset < 0) {
+                    return skippedResult(progress);
                 }
-                
-            } else if (csvFile.getName().startsWith("list_") || 
-                       Arrays.asList(headers).contains("终端MAC地址") || 
-                       Arrays.asList(headers).contains("状态")) {
-                
-                // 处理状态列表数据
-                for (int i = 1; i < records.size(); i++) {
-                    try {
-                        String[] record = records.get(i);
-                        if (isValidStatusRecord(record, headers)) {
-                            insertTerminalStatus(record, headers);
-                            processed++;
-                        }
-                    } catch (Exception e) {
-                        errors++;
-                    }
+                progress.add(startOffset, 0, 0);
+                try (CsvRecordReader reader = CsvRecordReader.open(path, Charset.defaultCharset(), startOffset, Long.MAX_VALUE)) {
+                    withWriteSlot(() -> {
+                        importRecords(layout, reader, counts, progress, sourceFile, true, new ArrayList<>());
+                        return null;
+                    });
+                    importStatusRepository.complete(sourceFile, reader.getOffset(), 0);
                 }
             }
         }
 
-        result.put("processed", processed);
-        result.put("errors", errors);
-        return result;
+        return fileResult(counts, startTime);
     }
 
-    private boolean isValidTrackRecord(String[] record, String[] headers) {
-        if (record.length < headers.length) return false;
-        
-        // 检查关键字段是否为空
-        for (int i = 0; i < Math.min(record.length, headers.length); i++) {
-            String header = headers[i];
-            String value = record[i];
-            
-            if (("时间".equals(header) || "终端行为".equals(header)) && 
-                (value == null || value.trim().isEmpty())) {
-                return false;
+    /**
+     * 并行导入单个CSV文件：从台账偏移处按记录边界切块，各块在解析线程池中并行解析，
+     * 每块在自己的事务中按批写入。台账偏移按文件顺序推进到已提交的连续数据块末尾
+     */
+    private Map<String, Object> importCsvFileParallel(File csvFile, FileImportProgress progress) throws IOException {
+        int[] totals = {0, 0};
+        long startTime = System.nanoTime();
+
+        Path path = csvFile.toPath();
+        ParallelCsvProcessor.Header header = ParallelCsvProcessor.readHeader(path, Charset.defaultCharset());
+        if (header != null) {
+            FileLayout layout = bindLayout(csvFile.getName(), header.getColumns());
+            if (layout.type != CsvFileType.UNKNOWN) {
+                String sourceFile = csvFile.getAbsolutePath();
+                long startOffset = prepareIncrementalImport(csvFile, header.getDataStart());
+                if (startOffset < 0) {
+                    return skippedResult(progress);
+                }
+                progress.add(startOffset, 0, 0);
+                long[] committed = {startOffset};
+                ParallelCsvProcessor.process(path, Charset.defaultCharset(), startOffset,
+                    chunkSizeMb * 1024L * 1024L, ingestPool, ingestPool.getParallelism() * 2,
+                    reader -> withWriteSlot(() -> {
+                        List<String> chunkMacs = new ArrayList<>();
+                        long[] chunk = transactionTemplate.execute(status -> {
+                            int[] counts = {0, 0};
+                            importRecords(layout, reader, counts, progress, sourceFile, false, chunkMacs);
+                            return new long[]{counts[0], counts[1], reader.getOffset()};
+                        });
+                        // 整块提交后才登记其中的MAC
+                        registerMacs(chunkMacs, chunkMacs.size());
+                        return chunk;
+                    }),
+                    chunk -> {
+                        totals[0] += (int) chunk[0];
+                        totals[1] += (int) chunk[1];
+                        committed[0] = chunk[2];
+                        importStatusRepository.advance(sourceFile, chunk[2], chunk[0], chunk[1]);
+                    });
+                importStatusRepository.complete(sourceFile, Math.max(committed[0], startOffset), 0);
             }
         }
-        return true;
+
+        return fileResult(totals, startTime);
     }
 
-    private boolean isValidStatusRecord(String[] record, String[] headers) {
-        if (record.length < headers.length) return false;
-        
-        // 检查MAC地址字段
-        for (int i = 0; i < Math.min(record.length, headers.length); i++) {
-            String header = headers[i];
-            String value = record[i];
-            
-            if ("终端MAC地址".equals(header) && 
-                (value == null || value.trim().isEmpty())) {
-                return false;
+    /**
+     * 对照台账决定文件从哪里开始导入，并清理上次未确认提交的数据
+     * @param dataStart 表头之后第一条记录的偏移
+     * @return 开始导入的字节偏移，文件已完整导入且未变化时返回-1
+     */
+    private long prepareIncrementalImport(File csvFile, long dataStart) throws IOException {
+        String sourceFile = csvFile.getAbsolutePath();
+        long size = csvFile.length();
+        ImportStatusRepository.ImportStatus entry = importStatusRepository.find(sourceFile);
+
+        boolean sameFile = entry != null
+            && size >= entry.getLastOffset()
+            && size >= entry.getChecksumBytes()
+            && ImportStatusRepository.checksum(csvFile.toPath(), entry.getChecksumBytes()) == entry.getChecksum();
+        if (sameFile && entry.isCompleted() && size == entry.getLastOffset()) {
+            return -1;
+        }
+
+        // 同一文件从台账偏移处续导；新文件或内容被替换的文件从头导入
+        long startOffset = sameFile ? Math.max(entry.getLastOffset(), dataStart) : dataStart;
+        // 偏移之后的行可能已随中断的批次提交，先删除再重新导入，保证不重复
+        deleteImportedRows(sourceFile, sameFile ? startOffset : 0);
+
+        int checksumBytes = (int) Math.min(size, ImportStatusRepository.CHECKSUM_BYTES);
+        importStatusRepository.begin(csvFile.getName(), sourceFile, size,
+            ImportStatusRepository.checksum(csvFile.toPath(), checksumBytes), checksumBytes, startOffset, !sameFile);
+        return startOffset;
+    }
+
+    private void deleteImportedRows(String sourceFile, long fromOffset) {
+        jdbcTemplate.update("DELETE FROM wifi_logs WHERE source_file = ? AND source_offset >= ?", sourceFile, fromOffset);
+        jdbcTemplate.update("DELETE FROM terminal_status WHERE source_file = ? AND source_offset >= ?", sourceFile, fromOffset);
+    }
+
+    private Map<String, Object> skippedResult(FileImportProgress progress) {
+        progress.add(progress.getFileSize(), 0, 0);
+        Map<String, Object> result = new HashMap<>();
+        result.put("processed", 0);
+        result.put("errors", 0);
+        result.put("skipped", true);
+        return result;
+    }
+
+    private Map<String, Object> fileResult(int[] counts, long startTime) {
+        long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+        Map<String, Object> result = new HashMap<>();
+        result.put("processed", counts[0]);
+        result.put("errors", counts[1]);
+        result.put("elapsedMs", elapsedMs);
+        result.put("rowsPerSecond", rowsPerSecond(counts[0], elapsedMs));
+        return result;
+    }
+
+    private long rowsPerSecond(long rows, long elapsedMs) {
+        return elapsedMs > 0 ? rows * 1000 / elapsedMs : rows;
+    }
+
+    /**
+     * 根据文件名和表头判断文件类型，并把表头绑定为列投影
+     * @throws IllegalArgumentException 文件类型可识别但缺少必需列时抛出，整个文件被拒绝
+     */
+    private FileLayout bindLayout(String fileName, String[] headers) {
+        List<String> headerList = Arrays.asList(headers);
+        if (fileName.startsWith("track_") || 
+            headerList.contains("终端行为") || 
+            headerList.contains("轨迹详细信息")) {
+            return new FileLayout(CsvFileType.TRACK, CsvSchema.bind(WiFiLogColumn.class, headers), null);
+        }
+        if (fileName.startsWith("list_") || 
+            headerList.contains("终端MAC地址") || 
+            headerList.contains("状态")) {
+            return new FileLayout(CsvFileType.STATUS, null, CsvSchema.bind(TerminalStatusColumn.class, headers));
+        }
+        return new FileLayout(CsvFileType.UNKNOWN, null, null);
+    }
+
+    /**
+     * 把 reader 中剩余的记录逐条校验并按批写入
+     * @param counts [有效记录数, 错误记录数]
+     * @param ledgerPerBatch 为true时每个批次单独提交并在同一事务中推进台账偏移；
+     *                       为false时由调用方负责事务和台账
+     * @param macs 已加入写入器但尚未登记的终端MAC，与写入顺序一致；逐批提交时每批提交后登记并移除，
+     *             否则由调用方在事务提交后登记
+     */
+    private void importRecords(FileLayout layout, CsvRecordReader reader, int[] counts, FileImportProgress progress,
+                               String sourceFile, boolean ledgerPerBatch, List<String> macs) {
+        String sql = layout.type == CsvFileType.TRACK ? INSERT_WIFI_LOG_SQL : INSERT_TERMINAL_STATUS_SQL;
+        // 上次汇报进度时的 [字节偏移, 有效记录数, 错误记录数]
+        long[] reported = {reader.getOffset(), counts[0], counts[1]};
+        // [当前记录的起始偏移, 已写入台账的错误记录数]；批次提交时，起始偏移之前的记录必然都已在本批或之前的批次中
+        long[] ledger = {reader.getOffset(), counts[1]};
+        try (JdbcBatchWriter writer = new JdbcBatchWriter(jdbcTemplate, sql, batchSize, rowsInFlight)) {
+            if (ledgerPerBatch) {
+                writer.setTransactionTemplate(transactionTemplate);
+                writer.setBatchListener(rows -> {
+                    importStatusRepository.advance(sourceFile, ledger[0], rows, counts[1] - ledger[1]);
+                    ledger[1] = counts[1];
+                });
+                writer.setCommitListener(rows -> registerMacs(macs, rows));
+            }
+            String[] record;
+            while (true) {
+                long recordStart = reader.getOffset();
+                if ((record = reader.readNext()) == null) {
+                    break;
+                }
+                ledger[0] = recordStart;
+                importRecord(layout, record, recordStart, sourceFile, writer, counts, macs);
+                if (reader.getRecordsRead() % PROGRESS_INTERVAL == 0) {
+                    reportProgress(progress, reader, counts, reported);
+                }
+            }
+            writer.flush();
+            if (ledgerPerBatch) {
+                importStatusRepository.advance(sourceFile, reader.getOffset(), 0, counts[1] - ledger[1]);
             }
+            reportProgress(progress, reader, counts, reported);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return true;
     }
 
-    private void insertWifiLog(String[] record, String[] headers) {
-        Map<String, String> data = new HashMap<>();
-        for (int i = 0; i < Math.min(record.length, headers.length); i++) {
-            data.put(headers[i], record[i]);
+    private void reportProgress(FileImportProgress progress, CsvRecordReader reader, int[] counts, long[] reported) {
+        progress.add(reader.getOffset() - reported[0], counts[0] - reported[1], counts[1] - reported[2]);
+        reported[0] = reader.getOffset();
+        reported[1] = counts[0];
+        reported[2] = counts[1];
+    }
+
+    /**
+     * 登记已提交的前 rows 条记录的终端MAC，并从待登记列表中移除
+     */
+    private void registerMacs(List<String> macs, int rows) {
+        List<String> committed = macs.subList(0, Math.min(rows, macs.size()));
+        for (String mac : committed) {
+            macRegistryService.register(mac);
         }
+        committed.clear();
+    }
 
-        String sql = "INSERT INTO wifi_logs (timestamp, terminal_behavior, trajectory_details, " +
-                     "terminal_ip, ssid, frequency_band, channel_info, " +
-                     "signal_strength, log_content, terminal_mac, ap_name, location) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * 校验一条记录并加入批量写入
+     * @param counts [有效记录数, 错误记录数]
+     * @param macs   记录有效时追加其终端MAC，待所在批次提交后登记
+     */
+    private void importRecord(FileLayout layout, String[] record, long recordStart, String sourceFile,
+                              JdbcBatchWriter writer, int[] counts, List<String> macs) {
+        Object[] args;
+        try {
+            args = toInsertArgs(layout, record, sourceFile, recordStart);
+        } catch (Exception e) {
+            counts[1]++;
+            return;
+        }
+        if (args != null) {
+            // 先于 add 记录，add 触发的写出会把本行所在批次的MAC一并登记
+            macs.add((String) args[layout.type == CsvFileType.TRACK ? WIFI_LOG_MAC_ARG : TERMINAL_STATUS_MAC_ARG]);
+            writer.add(args);
+            counts[0]++;
+        }
+    }
 
-        // 从轨迹详细信息中提取MAC地址和AP名称
-        String trajectoryDetails = data.getOrDefault("轨迹详细信息", "");
-        String terminalMac = extractMacFromTrajectory(trajectoryDetails);
+    /**
+     * @return 插入语句参数，记录无效时返回null
+     */
+    private Object[] toInsertArgs(FileLayout layout, String[] record, String sourceFile, long sourceOffset) {
+        if (layout.type == CsvFileType.TRACK) {
+            // 处理轨迹数据
+            if (isValidTrackRecord(record, layout.trackSchema)) {
+                return wifiLogArgs(record, layout, sourceFile, sourceOffset);
+            }
+        } else if (layout.type == CsvFileType.STATUS) {
+            // 处理状态列表数据
+            if (isValidStatusRecord(record, layout.statusSchema)) {
+                return terminalStatusArgs(record, layout.statusSchema, sourceFile, sourceOffset);
+            }
+        }
+        return null;
+    }
+
+    private boolean isValidTrackRecord(String[] record, CsvSchema<WiFiLogColumn> schema) {
+        if (record.length < schema.width()) return false;
+        
+        // 检查关键字段是否为空
+        return !isBlank(schema, record, WiFiLogColumn.TIME) && !isBlank(schema, record, WiFiLogColumn.BEHAVIOR);
+    }
+
+    private boolean isValidStatusRecord(String[] record, CsvSchema<TerminalStatusColumn> schema) {
+        if (record.length < schema.width()) return false;
+        
+        // 检查MAC地址字段
+        return !isBlank(schema, record, TerminalStatusColumn.TERMINAL_MAC);
+    }
+
+    /**
+     * 文件中存在该列且值为空时返回true，与原有校验规则一致：文件没有该列时不校验
+     */
+    private <E extends Enum<E> & CsvColumn> boolean isBlank(CsvSchema<E> schema, String[] record, E column) {
+        if (!schema.has(column)) {
+            return false;
+        }
+        String value = schema.get(record, column);
+        return value == null || value.trim().isEmpty();
+    }
+
+    private Object[] wifiLogArgs(String[] record, FileLayout layout, String sourceFile, long sourceOffset) {
+        CsvSchema<WiFiLogColumn> schema = layout.trackSchema;
+        // 从日志原文和轨迹详细信息中提取MAC地址和AP名称
+        String trajectoryDetails = schema.getOrDefault(record, WiFiLogColumn.DETAILS, "");
+        String logContent = schema.getOrDefault(record, WiFiLogColumn.LOG_CONTENT, "");
+        WiFiLogFieldScanner scanner = FIELD_SCANNERS.get().scanLog(logContent);
+        long macKey = scanner.macKey();
+        if (macKey == MacAddress.NONE) {
+            macKey = MacAddress.parse(extractMacFromTrajectory(trajectoryDetails));
+        }
+        String terminalMac = macKey != MacAddress.NONE ? MacAddress.format(macKey) : "";
         String apName = extractApNameFromTrajectory(trajectoryDetails);
         String location = extractLocationFromTrajectory(trajectoryDetails);
 
-        jdbcTemplate.update(sql,
-            data.getOrDefault("时间", ""),
-            data.getOrDefault("终端行为", ""),
+        // 华为日志自带 TIME:<epoch> 时直接使用，否则按本文件识别出的格式解码时间列
+        String time = schema.getOrDefault(record, WiFiLogColumn.TIME, "");
+        long eventMillis = scanner.time() >= 0 ? scanner.time() * 1000L : layout.timestamps.decode(time);
+
+        return new Object[]{
+            time,
+            eventMillis != LogTimestampParser.INVALID ? LogTimestampParser.toLocalDateTime(eventMillis) : null,
+            schema.getOrDefault(record, WiFiLogColumn.BEHAVIOR, ""),
             trajectoryDetails,
-            data.getOrDefault("终端IP地址", ""),
-            data.getOrDefault("关联SSID", ""),
-            data.getOrDefault("关联频段", ""),
-            data.getOrDefault("关联信道", ""),
-            data.getOrDefault("信号强度", ""),
-            data.getOrDefault("日志原文", ""),
+            schema.getOrDefault(record, WiFiLogColumn.TERMINAL_IP, ""),
+            schema.getOrDefault(record, WiFiLogColumn.SSID, ""),
+            schema.getOrDefault(record, WiFiLogColumn.FREQUENCY_BAND, ""),
+            schema.getOrDefault(record, WiFiLogColumn.CHANNEL, ""),
+            schema.getOrDefault(record, WiFiLogColumn.SIGNAL_STRENGTH, ""),
+            logContent,
             terminalMac,
+            macKey != MacAddress.NONE ? macKey : null,
             apName,
-            location
-        );
+            location,
+            sourceFile,
+            sourceOffset
+        };
     }
 
-    private void insertTerminalStatus(String[] record, String[] headers) {
-        Map<String, String> data = new HashMap<>();
-        for (int i = 0; i < Math.min(record.length, headers.length); i++) {
-            data.put(headers[i], record[i]);
-        }
-
-        String sql = "INSERT INTO terminal_status (status, terminal_mac, terminal_ip, ssid, " +
-                     "frequency_band, channel_info, micro_ap_name, " +
-                     "ap_name, ac_name, location, ac_ip, ap_ip, " +
-                     "account, online_duration) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private Object[] terminalStatusArgs(String[] record, CsvSchema<TerminalStatusColumn> schema, String sourceFile, long sourceOffset) {
+        String rawMac = schema.getOrDefault(record, TerminalStatusColumn.TERMINAL_MAC, "");
+        long macKey = MacAddress.parse(rawMac.trim());
+        String terminalMac = macKey != MacAddress.NONE ? MacAddress.format(macKey) : rawMac;
 
-        String onlineDurationStr = data.getOrDefault("终端在线时长(s)", "0");
+        String onlineDurationStr = schema.getOrDefault(record, TerminalStatusColumn.ONLINE_DURATION, "0");
         int onlineDuration = 0;
         try {
             onlineDuration = Integer.parseInt(onlineDurationStr);
@@ -274,22 +833,25 @@ public class DataService {
             // 忽略解析错误，使用默认值0
         }
 
-        jdbcTemplate.update(sql,
-            data.getOrDefault("状态", ""),
-            data.getOrDefault("终端MAC地址", ""),
-            data.getOrDefault("终端IP地址", ""),
-            data.getOrDefault("关联SSID", ""),
-            data.getOrDefault("关联频段", ""),
-            data.getOrDefault("关联信道", ""),
-            data.getOrDefault("关联微AP名称", ""),
-            data.getOrDefault("关联AP名称", ""),
-            data.getOrDefault("AC名称", ""),
-            data.getOrDefault("位置", ""),
-            data.getOrDefault("AC的IP地址", ""),
-            data.getOrDefault("关联AP的IP地址", ""),
-            data.getOrDefault("账号", ""),
-            onlineDuration
-        );
+        return new Object[]{
+            schema.getOrDefault(record, TerminalStatusColumn.STATUS, ""),
+            terminalMac,
+            macKey != MacAddress.NONE ? macKey : null,
+            schema.getOrDefault(record, TerminalStatusColumn.TERMINAL_IP, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.SSID, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.FREQUENCY_BAND, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.CHANNEL, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.MICRO_AP_NAME, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.AP_NAME, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.AC_NAME, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.LOCATION, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.AC_IP, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.AP_IP, ""),
+            schema.getOrDefault(record, TerminalStatusColumn.ACCOUNT, ""),
+            onlineDuration,
+            sourceFile,
+            sourceOffset
+        };
     }
 
     private String extractMacFromTrajectory(String trajectory) {
@@ -328,34 +890,135 @@ public class DataService {
         return "";
     }
 
+    /**
+     * 获取所有终端MAC，直接读取导入时维护的MAC登记表
+     */
     public List<String> getAvailableMacAddresses() {
-        String sql = """
-            SELECT DISTINCT terminal_mac 
-            FROM (
-                SELECT terminal_mac FROM wifi_logs WHERE terminal_mac IS NOT NULL AND terminal_mac != ''
-                UNION
-                SELECT terminal_mac FROM terminal_status WHERE terminal_mac IS NOT NULL AND terminal_mac != ''
-            ) 
-            ORDER BY terminal_mac
-        """;
-        
-        return jdbcTemplate.queryForList(sql, String.class)
-                          .stream()
-                          .filter(mac -> mac != null && !mac.trim().isEmpty())
-                          .collect(Collectors.toList());
+        return macRegistryService.list();
+    }
+
+    /**
+     * 按键分页获取终端MAC
+     * @param after 上一页最后一个MAC，为空时从第一页开始
+     */
+    public List<String> getAvailableMacAddresses(String after, int limit) {
+        return macRegistryService.page(MacAddress.normalize(after), limit);
     }
 
     public List<Map<String, Object>> getTrajectoryByMac(String macAddress) {
         String sql = """
-            SELECT timestamp, terminal_behavior, trajectory_details, 
+            SELECT timestamp, event_time, terminal_behavior, trajectory_details, 
                    terminal_ip, ssid, frequency_band, ap_name, location,
                    signal_strength
             FROM wifi_logs 
-            WHERE terminal_mac = ? 
-            ORDER BY timestamp
+            WHERE mac_key = ? 
+            ORDER BY event_time, id
         """;
         
-        return jdbcTemplate.queryForList(sql, macAddress);
+        return jdbcTemplate.queryForList(sql, MacAddress.parse(macAddress.trim()));
+    }
+
+    /**
+     * 按游标分页查询终端轨迹，按 (event_time, id) 排序，只返回时间可解析的记录
+     * @param from   起始时间（含），可为空
+     * @param to     结束时间（不含），可为空
+     * @param cursor 上一页返回的 nextCursor，为空时从第一条开始
+     * @return items 当前页记录，nextCursor 下一页游标（没有更多数据时为null）
+     */
+    public Map<String, Object> getTrajectoryPage(String macAddress, LocalDateTime from, LocalDateTime to,
+                                                 String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_TRAJECTORY_PAGE_SIZE));
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + TRAJECTORY_COLUMNS + " FROM wifi_logs ");
+        appendTrajectoryFilter(sql, args, macAddress, from, to);
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.lastIndexOf('_');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("无效的分页游标: " + cursor);
+            }
+            LocalDateTime cursorTime;
+            long cursorId;
+            try {
+                cursorTime = LocalDateTime.parse(cursor.substring(0, separator));
+                cursorId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("无效的分页游标: " + cursor, e);
+            }
+            sql.append("AND (event_time > ? OR (event_time = ? AND id > ?)) ");
+            args.add(cursorTime);
+            args.add(cursorTime);
+            args.add(cursorId);
+        }
+        // 多取一行用于判断是否还有下一页
+        sql.append("ORDER BY event_time, id LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql.toString(), args.toArray());
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Map<String, Object> last = rows.get(rows.size() - 1);
+            Object eventTime = last.get("EVENT_TIME");
+            LocalDateTime lastTime = eventTime instanceof Timestamp
+                ? ((Timestamp) eventTime).toLocalDateTime()
+                : (LocalDateTime) eventTime;
+            nextCursor = lastTime + "_" + last.get("ID");
+        }
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", rows);
+        page.put("nextCursor", nextCursor);
+        page.put("hasMore", hasMore);
+        return page;
+    }
+
+    /**
+     * 把终端轨迹按时间顺序以JSON数组直接写入输出流，逐行读取逐行写出，不在内存中构建结果列表
+     * 每个元素包含 id 以及 getTrajectoryByMac 返回的全部字段
+     */
+    public void streamTrajectory(String macAddress, LocalDateTime from, LocalDateTime to,
+                                 OutputStream outputStream) throws IOException {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + TRAJECTORY_COLUMNS + " FROM wifi_logs ");
+        appendTrajectoryFilter(sql, args, macAddress, from, to);
+        sql.append("ORDER BY event_time, id");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            streamingJdbcTemplate.query(sql.toString(), rs -> {
+                try {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    generator.writeStartObject();
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        generator.writeFieldName(metaData.getColumnLabel(i));
+                        generator.writeObject(rs.getObject(i));
+                    }
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+            generator.writeEndArray();
+        }
+    }
+
+    private void appendTrajectoryFilter(StringBuilder sql, List<Object> args, String macAddress,
+                                        LocalDateTime from, LocalDateTime to) {
+        // 任意写法的MAC都先转换为MAC键；无法解析的键为-1，不会匹配任何记录
+        sql.append("WHERE mac_key = ? AND event_time IS NOT NULL ");
+        args.add(MacAddress.parse(macAddress.trim()));
+        if (from != null) {
+            sql.append("AND event_time >= ? ");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append("AND event_time < ? ");
+            args.add(to);
+        }
     }
 
     public Map<String, Object> getDatabaseStatus() {
@@ -366,7 +1029,7 @@ public class DataService {
                 "SELECT COUNT(*) FROM wifi_logs", Integer.class);
             int terminalStatusCount = jdbcTemplate.queryForObject(
                 "SELECT COUNT(*) FROM terminal_status", Integer.class);
-            int macAddressCount = getAvailableMacAddresses().size();
+            int macAddressCount = macRegistryService.count();
             
             status.put("connected", true);
             status.put("wifiLogsCount", wifiLogsCount);
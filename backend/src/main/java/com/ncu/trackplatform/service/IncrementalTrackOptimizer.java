@@ -0,0 +1,179 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.entity.TrackPoint;
+import com.ncu.trackplatform.simplify.IncrementalThresholdFilter;
+import com.ncu.trackplatform.simplify.IncrementalThresholdFilter.Decision;
+import com.ncu.trackplatform.simplify.SimplificationMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 在线轨迹抽稀
+ * 实时导入的轨迹点在写库前逐个判定保留或丢弃，结果随轨迹点一起写入 KEPT 列，
+ * 读取轨迹时直接查询保留点和轨迹尾，不再对全部原始点重新抽稀，抽稀开销从每次读取移到导入时的一次遍历。
+ * 每个终端只保存一个很小的过滤状态；内存数据库重启后轨迹点表和状态一起重建，状态不需要持久化。
+ * 不经过实时导入写入的轨迹点（data.sql、测试数据等）KEPT 为空，启动后和写入后由 backfill 补算。
+ * 迟到的点（逐个文件补读历史日志时常见）无法增量判定，KEPT 同样留空，提交后由 backfillLate 按时间顺序重算该终端；
+ * 重算之前该终端按未经在线抽稀处理，读取时对原始点重新抽稀，迟到的点不会被隐藏。
+ */
+@Service
+public class IncrementalTrackOptimizer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, IncrementalThresholdFilter> filters = new ConcurrentHashMap<>();
+    // 收到过迟到点、等待重算的终端
+    private final Set<String> lateAccounts = ConcurrentHashMap.newKeySet();
+    private final LongAdder kept = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAdder backfilled = new LongAdder();
+
+    /**
+     * 按到达顺序判定一批轨迹点，并把结果写入各点的 kept 字段
+     * 迟到的点（早于该终端已到达的点）KEPT 留空并单独计数，该终端登记为待重算
+     */
+    public void offerAll(List<TrackPoint> points) {
+        for (TrackPoint point : points) {
+            offer(point);
+        }
+    }
+
+    public void offer(TrackPoint point) {
+        // 没有账号、坐标或时间的点无法参与任何一条轨迹的重算，直接丢弃
+        if (point.getAccountId() == null || point.getLatitude() == null || point.getLongitude() == null
+                || point.getTimestamp() == null) {
+            point.setKept(false);
+            late.increment();
+            return;
+        }
+        IncrementalThresholdFilter filter = filters.computeIfAbsent(point.getAccountId(),
+            k -> new IncrementalThresholdFilter(SimplificationMode.THRESHOLD.getDefaultTolerance()));
+        Decision decision;
+        synchronized (filter) {
+            decision = filter.offer(point);
+        }
+        switch (decision) {
+            case KEPT:
+                point.setKept(true);
+                kept.increment();
+                break;
+            case DROPPED:
+                point.setKept(false);
+                dropped.increment();
+                break;
+            default:
+                point.setKept(null);
+                late.increment();
+                lateAccounts.add(point.getAccountId());
+                break;
+        }
+    }
+
+    /**
+     * 丢弃这批轨迹点所属终端的过滤状态，批次写库失败时调用；
+     * 这些终端的下一个点会作为新轨迹的起点保留，重读的同一批数据不会被当作迟到的点
+     */
+    public void forget(List<TrackPoint> points) {
+        for (TrackPoint point : points) {
+            if (point.getAccountId() != null) {
+                filters.remove(point.getAccountId());
+            }
+        }
+    }
+
+    /**
+     * 启动完成后（data.sql 已执行）补算已有轨迹点的 KEPT
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        backfill();
+    }
+
+    /**
+     * 补算 KEPT 为空的轨迹点
+     * 有这类点的账号按时间顺序整条重算并更新所有点的 KEPT，重算后的过滤状态替换该账号原有的状态，
+     * 之后实时导入的点接着这条轨迹继续判定
+     * @return 更新的轨迹点数
+     */
+    public synchronized int backfill() {
+        List<String> accounts = jdbcTemplate.queryForList(
+            "SELECT DISTINCT ACCOUNT_ID FROM TRACK_POINTS WHERE KEPT IS NULL", String.class);
+        int updated = 0;
+        for (String accountId : accounts) {
+            updated += recompute(accountId);
+        }
+        backfilled.add(updated);
+        return updated;
+    }
+
+    /**
+     * 重算收到过迟到点的终端，在迟到的点提交之后调用；没有迟到的点时不访问数据库
+     * @return 更新的轨迹点数
+     */
+    public synchronized int backfillLate() {
+        int updated = 0;
+        Iterator<String> iterator = lateAccounts.iterator();
+        while (iterator.hasNext()) {
+            String accountId = iterator.next();
+            // 先移出再重算，重算期间又迟到的点会重新登记
+            iterator.remove();
+            updated += recompute(accountId);
+        }
+        backfilled.add(updated);
+        return updated;
+    }
+
+    /**
+     * 按时间顺序整条重算一个账号并更新所有点的 KEPT，重算后的过滤状态替换该账号原有的状态
+     */
+    private int recompute(String accountId) {
+        IncrementalThresholdFilter filter =
+            new IncrementalThresholdFilter(SimplificationMode.THRESHOLD.getDefaultTolerance());
+        List<Object[]> args = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT ID, LATITUDE, LONGITUDE, TIMESTAMP, AP_ID FROM TRACK_POINTS WHERE ACCOUNT_ID = ? ORDER BY TIMESTAMP, ID",
+            rs -> {
+                TrackPoint point = new TrackPoint(accountId, rs.getDouble("LATITUDE"), rs.getDouble("LONGITUDE"),
+                    rs.getTimestamp("TIMESTAMP").toLocalDateTime());
+                point.setApId(rs.getObject("AP_ID", Integer.class));
+                args.add(new Object[]{filter.offer(point) == Decision.KEPT, rs.getLong("ID")});
+            },
+            accountId);
+        jdbcTemplate.batchUpdate("UPDATE TRACK_POINTS SET KEPT = ? WHERE ID = ?", args);
+        filters.put(accountId, filter);
+        return args.size();
+    }
+
+    /**
+     * 清空所有终端的过滤状态，轨迹点表被清空时调用
+     */
+    public void clear() {
+        filters.clear();
+        lateAccounts.clear();
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("devices", filters.size());
+        status.put("kept", kept.sum());
+        status.put("dropped", dropped.sum());
+        status.put("late", late.sum());
+        status.put("pendingRecompute", lateAccounts.size());
+        status.put("backfilled", backfilled.sum());
+        return status;
+    }
+}
@@ -0,0 +1,250 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.entity.TrackEventType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据导入诊断服务
+ * 解析热路径上只做计数器自增；按采样率抽取的原始行放入有界队列，
+ * 由后台线程异步写入诊断日志文件，队列满时直接丢弃并计数。
+ */
+@Service
+public class IngestDiagnosticsService {
+
+    /**
+     * 诊断计数的原因分类
+     */
+    public enum Reason {
+        PARSED("解析成功"),
+        SHORT_ROW("字段数不足"),
+        NOT_ONLINE_EVENT("非上线事件"),
+        PATTERN_MISS("AP位置匹配失败"),
+        UNKNOWN_AP("未知AP位置"),
+        CAMPUS_FALLBACK("使用建筑或校区默认坐标"),
+        MAC_MISS("未提取到MAC地址"),
+        BAD_TIMESTAMP("时间戳解析失败"),
+        PARSE_ERROR("解析异常");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final int RECENT_SAMPLE_LIMIT = 50;
+
+    // 每N条记录抽样一条原始数据，0表示不抽样
+    @Value("${diagnostics.sample-every:1000}")
+    private int sampleEvery;
+
+    // 待写出样本的队列容量
+    @Value("${diagnostics.buffer-size:1024}")
+    private int bufferSize;
+
+    @Value("${diagnostics.log-file:debug.log}")
+    private String logFile;
+
+    private final LongAdder[] counters = new LongAdder[Reason.values().length];
+    // 按终端事件类型计数，最后一格为未能分类的行为
+    private final LongAdder[] eventCounters = new LongAdder[TrackEventType.values().length + 1];
+    private final LongAdder droppedSamples = new LongAdder();
+    private final Deque<String> recentSamples = new ArrayDeque<>();
+    private BlockingQueue<String> pendingSamples;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public IngestDiagnosticsService() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        for (int i = 0; i < eventCounters.length; i++) {
+            eventCounters[i] = new LongAdder();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        pendingSamples = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        running = true;
+        writerThread = new Thread(this::drainSamples, "ingest-diagnostics-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+        }
+    }
+
+    /**
+     * 记录一次诊断事件
+     */
+    public void record(Reason reason) {
+        counters[reason.ordinal()].increment();
+    }
+
+    /**
+     * 记录一次诊断事件，被抽中时附带原始行写入诊断日志
+     */
+    public void record(Reason reason, String[] rawLine) {
+        counters[reason.ordinal()].increment();
+        if (shouldSample()) {
+            offerSample(reason, rawLine == null ? "" : String.join(",", rawLine));
+        }
+    }
+
+    /**
+     * 记录一次诊断事件，被抽中时附带原始值写入诊断日志
+     */
+    public void record(Reason reason, String rawValue) {
+        counters[reason.ordinal()].increment();
+        if (shouldSample()) {
+            offerSample(reason, rawValue);
+        }
+    }
+
+    /**
+     * 记录一条终端事件的分类结果
+     * @param type 事件类型，null 表示行为文本未能分类
+     */
+    public void recordEvent(TrackEventType type) {
+        eventCounters[type != null ? type.ordinal() : eventCounters.length - 1].increment();
+    }
+
+    /**
+     * 某类终端事件的累计数量，type 为 null 时返回未能分类的数量
+     */
+    public long getEventCount(TrackEventType type) {
+        return eventCounters[type != null ? type.ordinal() : eventCounters.length - 1].sum();
+    }
+
+    /**
+     * 获取各原因的计数、各类终端事件的计数及最近的抽样记录
+     */
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        for (Reason reason : Reason.values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("description", reason.getDescription());
+            item.put("count", counters[reason.ordinal()].sum());
+            counts.put(reason.name(), item);
+        }
+
+        Map<String, Object> events = new LinkedHashMap<>();
+        for (TrackEventType type : TrackEventType.values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("description", type.getDescription());
+            item.put("count", getEventCount(type));
+            events.put(type.name(), item);
+        }
+        Map<String, Object> unclassified = new LinkedHashMap<>();
+        unclassified.put("description", "未能分类");
+        unclassified.put("count", getEventCount(null));
+        events.put("UNCLASSIFIED", unclassified);
+
+        List<String> samples;
+        synchronized (recentSamples) {
+            samples = new ArrayList<>(recentSamples);
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("counters", counts);
+        snapshot.put("events", events);
+        snapshot.put("sampleEvery", sampleEvery);
+        snapshot.put("pendingSamples", pendingSamples == null ? 0 : pendingSamples.size());
+        snapshot.put("droppedSamples", droppedSamples.sum());
+        snapshot.put("recentSamples", samples);
+        return snapshot;
+    }
+
+    /**
+     * 清零所有计数
+     */
+    public void reset() {
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+        for (LongAdder counter : eventCounters) {
+            counter.reset();
+        }
+        droppedSamples.reset();
+        synchronized (recentSamples) {
+            recentSamples.clear();
+        }
+    }
+
+    private boolean shouldSample() {
+        return sampleEvery > 0 && ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+    }
+
+    private void offerSample(Reason reason, String rawValue) {
+        String sample = LocalDateTime.now() + " [" + reason.name() + "] " + rawValue;
+        if (pendingSamples == null || !pendingSamples.offer(sample)) {
+            droppedSamples.increment();
+        }
+    }
+
+    /**
+     * 后台线程：批量取出样本写入诊断日志，文件只打开一次
+     */
+    private void drainSamples() {
+        List<String> batch = new ArrayList<>();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(logFile, true))) {
+            while (running) {
+                String first = pendingSamples.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingSamples.drainTo(batch);
+
+                for (String sample : batch) {
+                    writer.write(sample);
+                    writer.newLine();
+                }
+                writer.flush();
+
+                synchronized (recentSamples) {
+                    for (String sample : batch) {
+                        if (recentSamples.size() >= RECENT_SAMPLE_LIMIT) {
+                            recentSamples.removeFirst();
+                        }
+                        recentSamples.addLast(sample);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("写入诊断日志失败: " + e.getMessage());
+        }
+    }
+}
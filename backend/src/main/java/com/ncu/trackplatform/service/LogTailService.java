@@ -0,0 +1,394 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.entity.TrackPoint;
+import com.ncu.trackplatform.parser.CsvRecordReader;
+import com.ncu.trackplatform.parser.CsvSchema;
+import com.ncu.trackplatform.parser.LogTimestampParser;
+import com.ncu.trackplatform.parser.WiFiLogColumn;
+import com.ncu.trackplatform.repository.ImportStatusRepository;
+import com.ncu.trackplatform.repository.JdbcBatchWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 持续跟踪采集服务
+ * 用WatchService监听目录，新建或增长的CSV导出文件和原始syslog文件从台账中保存的偏移处继续读取，
+ * 新增的完整记录经WiFiLogParsingService解析后按小批量写入轨迹点表，
+ * 每个批次与台账偏移在同一事务中提交，重启后从上次提交处继续，不会重复写入。
+ */
+@Service
+public class LogTailService {
+
+    /**
+     * 被跟踪文件的格式
+     */
+    private enum TailFormat {
+        CSV, SYSLOG
+    }
+
+    /**
+     * 单个被跟踪文件的状态，只在跟踪线程中访问
+     */
+    private static final class TailedFile {
+        private final Path path;
+        private final TailFormat format;
+        private CsvSchema<WiFiLogColumn> schema;
+        private final LogTimestampParser timestamps = new LogTimestampParser();
+        private long offset;
+
+        private TailedFile(Path path, TailFormat format) {
+            this.path = path;
+            this.format = format;
+        }
+    }
+
+    @Autowired
+    private WiFiLogParsingService wifiLogParsingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ImportStatusRepository importStatusRepository;
+
+    @Autowired
+    private IncrementalTrackOptimizer incrementalTrackOptimizer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 应用启动时是否自动开始跟踪
+    @Value("${ingest.tail.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ingest.tail.directory:data/live}")
+    private String directory;
+
+    // 每个小批量最多包含的轨迹点数
+    @Value("${ingest.tail.batch-size:500}")
+    private int batchSize;
+
+    // 没有文件事件时也按此间隔检查一遍，兼容不产生修改事件的网络文件系统
+    @Value("${ingest.tail.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private static final String INSERT_TRACK_POINT_SQL =
+        "INSERT INTO TRACK_POINTS (ACCOUNT_ID, LATITUDE, LONGITUDE, TIMESTAMP, ACCURACY, SPEED, TRACK_ID, " +
+        "MAC_KEY, EVENT_TYPE, AP_ID, AP_NAME, KEPT) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final Map<Path, TailedFile> tailedFiles = new ConcurrentHashMap<>();
+    private final AtomicLong recordsRead = new AtomicLong();
+    private final AtomicLong pointsSaved = new AtomicLong();
+    private final AtomicLong batchesSaved = new AtomicLong();
+    private volatile LocalDateTime lastBatchTime;
+    private volatile String lastError;
+    private volatile boolean running;
+    private Thread tailThread;
+    private WatchService watchService;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            start();
+        }
+    }
+
+    /**
+     * 开始跟踪目录
+     * @return 已在运行时返回false
+     */
+    public synchronized boolean start() {
+        if (running) {
+            return false;
+        }
+        Path dir = Paths.get(directory);
+        try {
+            Files.createDirectories(dir);
+            importStatusRepository.createTable();
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new RuntimeException("无法监听目录: " + dir.toAbsolutePath() + ", 错误: " + e.getMessage());
+        }
+
+        running = true;
+        tailThread = new Thread(() -> watchLoop(dir), "log-tail");
+        tailThread.setDaemon(true);
+        tailThread.start();
+        return true;
+    }
+
+    /**
+     * 停止跟踪，已提交的偏移保留在台账中
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // 关闭监听失败不影响停止
+            }
+            watchService = null;
+        }
+        if (tailThread != null) {
+            tailThread.interrupt();
+            tailThread = null;
+        }
+        tailedFiles.clear();
+    }
+
+    /**
+     * 获取跟踪状态
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> files = new LinkedHashMap<>();
+        for (TailedFile file : tailedFiles.values()) {
+            files.put(file.path.getFileName().toString(), file.offset);
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running);
+        status.put("directory", Paths.get(directory).toAbsolutePath().toString());
+        status.put("recordsRead", recordsRead.get());
+        status.put("pointsSaved", pointsSaved.get());
+        status.put("batchesSaved", batchesSaved.get());
+        status.put("lastBatchTime", lastBatchTime);
+        status.put("lastError", lastError);
+        status.put("fileOffsets", files);
+        status.put("optimizer", incrementalTrackOptimizer.getStatus());
+        return status;
+    }
+
+    private void watchLoop(Path dir) {
+        WatchService watcher = watchService;
+        try {
+            // 启动时先补读目录中已有文件自上次提交以来的新增内容
+            tailAll(dir);
+            while (running) {
+                WatchKey key = watcher.poll(pollIntervalMs, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    tailAll(dir);
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        tailAll(dir);
+                    } else {
+                        tail(dir.resolve((Path) event.context()));
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 停止跟踪
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            running = false;
+        }
+    }
+
+    private void tailAll(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                tail(file);
+            }
+        }
+    }
+
+    /**
+     * 读取文件自上次提交偏移以来新增的完整记录，单个文件出错不影响其他文件
+     */
+    private void tail(Path file) {
+        TailFormat format = formatOf(file);
+        if (format == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            TailedFile tailed = tailedFiles.get(file);
+            if (tailed == null) {
+                tailed = open(file, format);
+                tailedFiles.put(file, tailed);
+            }
+            long size = Files.size(file);
+            if (size < tailed.offset) {
+                // 文件被截断或轮转后重新写入，从头开始
+                tailed.schema = null;
+                tailed.offset = 0;
+                beginLedger(file, size, 0, true);
+            }
+            if (size > tailed.offset) {
+                readNewRecords(tailed);
+            }
+        } catch (IOException | RuntimeException e) {
+            lastError = file.getFileName() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * 首次遇到文件时从台账恢复偏移；文件开头与台账记录不符时视为新文件
+     */
+    private TailedFile open(Path file, TailFormat format) throws IOException {
+        TailedFile tailed = new TailedFile(file, format);
+        long size = Files.size(file);
+        ImportStatusRepository.ImportStatus entry = importStatusRepository.find(key(file));
+        boolean sameFile = entry != null
+            && size >= entry.getLastOffset()
+            && size >= entry.getChecksumBytes()
+            && ImportStatusRepository.checksum(file, entry.getChecksumBytes()) == entry.getChecksum();
+        tailed.offset = sameFile ? entry.getLastOffset() : 0;
+        beginLedger(file, size, tailed.offset, !sameFile);
+        return tailed;
+    }
+
+    private void beginLedger(Path file, long size, long offset, boolean fromScratch) throws IOException {
+        int checksumBytes = (int) Math.min(size, ImportStatusRepository.CHECKSUM_BYTES);
+        importStatusRepository.begin(file.getFileName().toString(), key(file), size,
+            ImportStatusRepository.checksum(file, checksumBytes), checksumBytes, offset, fromScratch);
+    }
+
+    private void readNewRecords(TailedFile tailed) throws IOException {
+        if (tailed.format == TailFormat.CSV && tailed.schema == null && !readHeader(tailed)) {
+            return;
+        }
+
+        List<TrackPoint> batch = new ArrayList<>();
+        try (CsvRecordReader reader = CsvRecordReader.open(tailed.path, Charset.defaultCharset(), tailed.offset, Long.MAX_VALUE)) {
+            // 正在写入的最后一行可能还不完整，留到下次再读
+            reader.setRequireTerminator(true);
+            while (running) {
+                TrackPoint point;
+                if (tailed.format == TailFormat.CSV) {
+                    String[] record = reader.readNext();
+                    if (record == null) {
+                        break;
+                    }
+                    point = wifiLogParsingService.parseWiFiLogLine(record, tailed.schema, tailed.timestamps);
+                } else {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    point = wifiLogParsingService.parseSyslogLine(line);
+                }
+                recordsRead.incrementAndGet();
+                if (point != null) {
+                    batch.add(point);
+                }
+                if (batch.size() >= batchSize) {
+                    saveBatch(tailed, batch, reader.getOffset());
+                }
+            }
+            saveBatch(tailed, batch, reader.getOffset());
+        }
+    }
+
+    /**
+     * CSV文件先读取表头，表头行尚未写完时返回false
+     */
+    private boolean readHeader(TailedFile tailed) throws IOException {
+        try (CsvRecordReader reader = CsvRecordReader.open(tailed.path, Charset.defaultCharset())) {
+            reader.setRequireTerminator(true);
+            String[] headers = reader.readNext();
+            if (headers == null) {
+                return false;
+            }
+            tailed.schema = CsvSchema.bind(WiFiLogColumn.class, headers);
+            if (tailed.offset < reader.getOffset()) {
+                tailed.offset = reader.getOffset();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 在线抽稀后，在一个事务中保存轨迹点并推进台账偏移
+     */
+    private void saveBatch(TailedFile tailed, List<TrackPoint> batch, long offset) {
+        if (batch.isEmpty() && offset == tailed.offset) {
+            return;
+        }
+        int rows = batch.size();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // 在事务内判定：KEPT 与轨迹点同时写入，事务回滚时下面作废相关终端的状态
+                incrementalTrackOptimizer.offerAll(batch);
+                insertTrackPoints(batch);
+                importStatusRepository.advance(key(tailed.path), offset, rows, 0);
+            });
+        } catch (RuntimeException e) {
+            // 这批数据会从上次提交的偏移处重读，相关终端的抽稀状态作废
+            incrementalTrackOptimizer.forget(batch);
+            throw e;
+        }
+        tailed.offset = offset;
+        // 这批中有迟到的点时，提交后按时间顺序重算相关终端
+        incrementalTrackOptimizer.backfillLate();
+        if (rows > 0) {
+            pointsSaved.addAndGet(rows);
+            batchesSaved.incrementAndGet();
+            lastBatchTime = LocalDateTime.now();
+        }
+        batch.clear();
+    }
+
+    /**
+     * 一个小批量通过一次 JDBC batchUpdate 写入，在调用方的事务中与台账偏移一起提交；
+     * TrackPoint 使用自增主键，经 JPA saveAll 写入会逐行 INSERT，无法合并成批
+     */
+    private void insertTrackPoints(List<TrackPoint> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        JdbcBatchWriter writer = new JdbcBatchWriter(jdbcTemplate, INSERT_TRACK_POINT_SQL, batch.size());
+        for (TrackPoint point : batch) {
+            writer.add(point.getAccountId(), point.getLatitude(), point.getLongitude(), point.getTimestamp(),
+                point.getAccuracy(), point.getSpeed(), point.getTrackId(), point.getMacKey(),
+                point.getEventType() != null ? point.getEventType().name() : null,
+                point.getApId(), point.getApName(), point.getKept());
+        }
+        writer.flush();
+    }
+
+    private static TailFormat formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return TailFormat.CSV;
+        }
+        if (name.endsWith(".log") || name.endsWith(".txt")) {
+            return TailFormat.SYSLOG;
+        }
+        return null;
+    }
+
+    private static String key(Path file) {
+        return file.toAbsolutePath().toString();
+    }
+}
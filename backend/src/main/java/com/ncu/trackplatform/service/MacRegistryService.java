@@ -0,0 +1,173 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.parser.MacAddress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 终端MAC登记表
+ * 导入时逐条登记出现过的MAC，内存中维护有序集合和精确计数，新MAC再批量写入 mac_registry 表。
+ * 查询MAC列表和数量不再对 wifi_logs、terminal_status 做 UNION DISTINCT 全表扫描。
+ */
+@Service
+public class MacRegistryService {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final NavigableSet<String> macs = new ConcurrentSkipListSet<>();
+    // ConcurrentSkipListSet.size() 需要遍历整个集合，数量单独计数
+    private final AtomicInteger count = new AtomicInteger();
+    private final Queue<String> pendingInserts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 创建登记表并加载到内存；登记表为空而数据表已有数据时（升级前导入的数据）先从数据表重建
+     */
+    public synchronized void initialize() {
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS mac_registry (" +
+                "terminal_mac VARCHAR(50) PRIMARY KEY," +
+                "first_seen TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")"
+        );
+        Integer registered = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mac_registry", Integer.class);
+        if (registered == null || registered == 0) {
+            rebuild();
+        } else if (macs.isEmpty()) {
+            load();
+        }
+    }
+
+    /**
+     * 按数据表重建登记表并重新加载到内存
+     * 有 mac_key 的记录按规范文本登记，同一终端的不同写法（如 aaac-acdd-d1fb 与 aa:ac:ac:dd:d1:fb）只登记一次；
+     * 终端状态表中无法解析的MAC与导入时一样按原文登记。调用前 wifi_logs、terminal_status 必须已有 mac_key 列并补齐
+     */
+    public synchronized void rebuild() {
+        jdbcTemplate.update("DELETE FROM mac_registry");
+        List<Object[]> batch = new ArrayList<>();
+        jdbcTemplate.query("""
+            SELECT mac_key FROM wifi_logs WHERE mac_key IS NOT NULL
+            UNION
+            SELECT mac_key FROM terminal_status WHERE mac_key IS NOT NULL
+        """, rs -> {
+            batch.add(new Object[]{MacAddress.format(rs.getLong(1))});
+            if (batch.size() >= INSERT_BATCH_SIZE) {
+                insert(batch);
+            }
+        });
+        jdbcTemplate.query("""
+            SELECT DISTINCT terminal_mac FROM terminal_status
+            WHERE mac_key IS NULL AND terminal_mac IS NOT NULL AND TRIM(terminal_mac) != ''
+        """, rs -> {
+            batch.add(new Object[]{rs.getString(1)});
+            if (batch.size() >= INSERT_BATCH_SIZE) {
+                insert(batch);
+            }
+        });
+        insert(batch);
+        load();
+    }
+
+    private void load() {
+        macs.clear();
+        count.set(0);
+        for (String mac : jdbcTemplate.queryForList("SELECT terminal_mac FROM mac_registry", String.class)) {
+            if (macs.add(mac)) {
+                count.incrementAndGet();
+            }
+        }
+        // 已登记但尚未写入登记表的MAC
+        for (String mac : pendingInserts) {
+            if (macs.add(mac)) {
+                count.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 登记一个MAC，已登记过的直接忽略；新MAC在 flush 时写入登记表
+     */
+    public void register(String mac) {
+        if (mac == null || mac.trim().isEmpty()) {
+            return;
+        }
+        if (macs.add(mac)) {
+            count.incrementAndGet();
+            pendingInserts.add(mac);
+        }
+    }
+
+    /**
+     * 把新登记的MAC批量写入登记表
+     */
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        String mac;
+        while ((mac = pendingInserts.poll()) != null) {
+            batch.add(new Object[]{mac});
+            if (batch.size() >= INSERT_BATCH_SIZE) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("MERGE INTO mac_registry (terminal_mac) KEY (terminal_mac) VALUES (?)", batch);
+        batch.clear();
+    }
+
+    /**
+     * 清空登记表，数据表被删除重建时调用
+     */
+    public synchronized void clear() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS mac_registry");
+        macs.clear();
+        pendingInserts.clear();
+        count.set(0);
+    }
+
+    /**
+     * 已登记的MAC数量
+     */
+    public int count() {
+        return count.get();
+    }
+
+    /**
+     * 所有MAC，按字典序排列
+     */
+    public List<String> list() {
+        return new ArrayList<>(macs);
+    }
+
+    /**
+     * 按键分页：返回排在 after 之后的至多 limit 个MAC，after 为空时从头开始
+     */
+    public List<String> page(String after, int limit) {
+        NavigableSet<String> tail = after == null || after.isEmpty() ? macs : macs.tailSet(after, false);
+        List<String> page = new ArrayList<>(Math.max(0, Math.min(limit, 1000)));
+        for (String mac : tail) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(mac);
+        }
+        return page;
+    }
+}
@@ -1,116 +1,111 @@
 package com.ncu.trackplatform.service;
 
 import com.ncu.trackplatform.entity.TrackPoint;
+import com.ncu.trackplatform.simplify.SimplificationMode;
+import com.ncu.trackplatform.util.PartitionedTasks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
+/**
+ * 轨迹抽稀服务
+ * 按请求选择的抽稀方式（固定阈值、Douglas-Peucker、Visvalingam-Whyatt）去除冗余点，
+ * 后两种可以限制最多保留的点数，长轨迹在地图上的点数和计算耗时都有上界。
+ */
 @Service
 public class TrackOptimizationService {
     
-    // 最小距离阈值（米）- 只有移动距离超过此值才记录新点
-    private static final double MIN_DISTANCE_THRESHOLD = 5.0;
+    // 按时间排序，没有时间的点排在前面（抽稀时会被跳过）
+    private static final Comparator<TrackPoint> BY_TIMESTAMP =
+        Comparator.comparing(TrackPoint::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()));
     
-    // 最小时间间隔（秒）- 只有时间间隔超过此值才可能记录新点
-    private static final long MIN_TIME_INTERVAL_SECONDS = 30;
+    // 并行抽稀时，一个任务内的轨迹点不超过此数量（或只剩一个账号）就不再拆分
+    private static final int LEAF_POINTS = 4096;
     
-    // 最大时间间隔（秒）- 超过此时间必须记录新点，即使位置没变化
-    private static final long MAX_TIME_INTERVAL_SECONDS = 300; // 5分钟
+    @Autowired
+    private ForkJoinPool ingestPool;
+    
+    // 轨迹点总数低于此值时串行抽稀，任务拆分的开销不值得
+    @Value("${optimization.parallel-threshold:20000}")
+    private int parallelThreshold;
     
     /**
-     * 优化轨迹点列表，去除冗余点
+     * 优化轨迹点列表，去除冗余点（固定阈值过滤，默认容差）
      * @param originalPoints 原始轨迹点列表
      * @return 优化后的轨迹点列表
      */
     public List<TrackPoint> optimizeTrackPoints(List<TrackPoint> originalPoints) {
+        return optimizeTrackPoints(originalPoints, SimplificationMode.THRESHOLD, null, 0);
+    }
+    
+    /**
+     * 按指定方式抽稀轨迹点
+     * @param originalPoints 同一轨迹按时间排序的轨迹点
+     * @param tolerance 容差，为null时使用该方式的默认容差
+     * @param maxPoints 最多保留的点数，0表示不限制
+     * @return 抽稀后的轨迹点列表
+     */
+    public List<TrackPoint> optimizeTrackPoints(List<TrackPoint> originalPoints, SimplificationMode mode,
+                                                Double tolerance, int maxPoints) {
         if (originalPoints == null || originalPoints.size() <= 2) {
             return originalPoints;
         }
-        
-        List<TrackPoint> optimizedPoints = new ArrayList<>();
-        
-        // 总是保留第一个点
-        optimizedPoints.add(originalPoints.get(0));
-        TrackPoint lastKeptPoint = originalPoints.get(0);
-        
-        for (int i = 1; i < originalPoints.size(); i++) {
-            TrackPoint currentPoint = originalPoints.get(i);
-            
-            // 检查是否应该保留当前点
-            if (shouldKeepPoint(lastKeptPoint, currentPoint)) {
-                optimizedPoints.add(currentPoint);
-                lastKeptPoint = currentPoint;
-            }
-        }
-        
-        // 总是保留最后一个点（如果它不是已经保留的最后一个点）
-        TrackPoint lastOriginalPoint = originalPoints.get(originalPoints.size() - 1);
-        if (!lastKeptPoint.equals(lastOriginalPoint)) {
-            optimizedPoints.add(lastOriginalPoint);
-        }
-        
-        return optimizedPoints;
+        double effectiveTolerance = tolerance != null ? tolerance : mode.getDefaultTolerance();
+        return mode.getSimplifier().simplify(originalPoints, effectiveTolerance, Math.max(0, maxPoints));
     }
     
     /**
-     * 判断是否应该保留当前轨迹点
-     * @param lastPoint 上一个保留的点
-     * @param currentPoint 当前点
-     * @return 是否保留
+     * 对多个账号混在一起的轨迹点抽稀
+     * 按账号（没有账号时按轨迹ID）分区，每个分区按时间排序后单独抽稀，轨迹点较多时各分区并行处理；
+     * 结果按账号首次出现的顺序合并，与串行处理完全相同
+     * @param maxPoints 每个账号最多保留的点数，0表示不限制
      */
-    private boolean shouldKeepPoint(TrackPoint lastPoint, TrackPoint currentPoint) {
-        // 计算时间间隔
-        Duration timeDiff = Duration.between(lastPoint.getTimestamp(), currentPoint.getTimestamp());
-        long timeIntervalSeconds = timeDiff.getSeconds();
-        
-        // 如果时间间隔太短，直接跳过
-        if (timeIntervalSeconds < MIN_TIME_INTERVAL_SECONDS) {
-            return false;
+    public List<TrackPoint> optimizeByAccount(List<TrackPoint> points, SimplificationMode mode,
+                                              Double tolerance, int maxPoints) {
+        if (points == null || points.isEmpty()) {
+            return new ArrayList<>();
         }
         
-        // 如果时间间隔太长，必须保留
-        if (timeIntervalSeconds > MAX_TIME_INTERVAL_SECONDS) {
-            return true;
+        Map<String, List<TrackPoint>> byAccount = new LinkedHashMap<>();
+        for (TrackPoint point : points) {
+            String key = point.getAccountId() != null ? point.getAccountId() : point.getTrackId();
+            byAccount.computeIfAbsent(key != null ? key : "", k -> new ArrayList<>()).add(point);
+        }
+        List<List<TrackPoint>> partitions = new ArrayList<>(byAccount.values());
+        
+        List<List<TrackPoint>> optimized;
+        if (points.size() >= parallelThreshold && partitions.size() > 1) {
+            optimized = PartitionedTasks.map(ingestPool, partitions,
+                partition -> optimizePartition(partition, mode, tolerance, maxPoints), LEAF_POINTS);
+        } else {
+            optimized = new ArrayList<>(partitions.size());
+            for (List<TrackPoint> partition : partitions) {
+                optimized.add(optimizePartition(partition, mode, tolerance, maxPoints));
+            }
         }
         
-        // 计算距离
-        double distance = calculateDistance(lastPoint, currentPoint);
-        
-        // 如果距离变化足够大，保留点
-        return distance >= MIN_DISTANCE_THRESHOLD;
+        int total = 0;
+        for (List<TrackPoint> partition : optimized) {
+            total += partition.size();
+        }
+        List<TrackPoint> merged = new ArrayList<>(total);
+        for (List<TrackPoint> partition : optimized) {
+            merged.addAll(partition);
+        }
+        return merged;
     }
     
-    /**
-     * 计算两点之间的距离（米）
-     * 使用Haversine公式计算地球表面两点间的距离
-     */
-    private double calculateDistance(TrackPoint point1, TrackPoint point2) {
-        if (point1.getLatitude() == null || point1.getLongitude() == null ||
-            point2.getLatitude() == null || point2.getLongitude() == null) {
-            return 0.0;
-        }
-        
-        double lat1 = Math.toRadians(point1.getLatitude());
-        double lon1 = Math.toRadians(point1.getLongitude());
-        double lat2 = Math.toRadians(point2.getLatitude());
-        double lon2 = Math.toRadians(point2.getLongitude());
-        
-        double dlat = lat2 - lat1;
-        double dlon = lon2 - lon1;
-        
-        double a = Math.sin(dlat / 2) * Math.sin(dlat / 2) +
-                   Math.cos(lat1) * Math.cos(lat2) *
-                   Math.sin(dlon / 2) * Math.sin(dlon / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        // 地球半径（米）
-        double earthRadius = 6371000;
-        
-        return earthRadius * c;
+    private List<TrackPoint> optimizePartition(List<TrackPoint> partition, SimplificationMode mode,
+                                               Double tolerance, int maxPoints) {
+        partition.sort(BY_TIMESTAMP);
+        return optimizeTrackPoints(partition, mode, tolerance, maxPoints);
     }
     
     /**
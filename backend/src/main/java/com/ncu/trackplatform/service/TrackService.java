@@ -4,12 +4,17 @@ import com.ncu.trackplatform.dto.TrackDataDto;
 import com.ncu.trackplatform.dto.TrackPointDto;
 import com.ncu.trackplatform.entity.TrackPoint;
 import com.ncu.trackplatform.repository.TrackPointRepository;
+import com.ncu.trackplatform.simplify.SimplificationMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -61,7 +66,24 @@ public class TrackService {
      * 根据轨迹ID获取轨迹点（优化版本）
      */
     public List<TrackPointDto> getTrackPoints(String trackId) {
+        return getTrackPoints(trackId, SimplificationMode.THRESHOLD, null, 0);
+    }
+    
+    /**
+     * 根据轨迹ID获取轨迹点，按指定方式抽稀
+     * 默认抽稀方式下，账号的轨迹点都经过导入时的在线抽稀则直接读取保留点，否则读取原始点重新抽稀
+     * @param tolerance 容差，为null时使用该方式的默认容差
+     * @param maxPoints 最多返回的点数，0表示不限制
+     */
+    public List<TrackPointDto> getTrackPoints(String trackId, SimplificationMode mode, Double tolerance, int maxPoints) {
         try {
+            if (trackId.startsWith("account_") && isDefaultSimplification(mode, tolerance, maxPoints)) {
+                List<TrackPoint> precomputed = findPrecomputedPoints(trackId.substring(8));
+                if (precomputed != null) {
+                    return convertToDto(precomputed);
+                }
+            }
+            
             List<TrackPoint> rawPoints;
             if (trackId.startsWith("account_")) {
                 String accountId = trackId.substring(8);
@@ -70,7 +92,7 @@ public class TrackService {
                 rawPoints = trackPointRepository.findByTrackIdOrderByTimestampAsc(trackId);
             }
             
-            List<TrackPoint> optimizedPoints = optimizationService.optimizeTrackPoints(rawPoints);
+            List<TrackPoint> optimizedPoints = optimizationService.optimizeTrackPoints(rawPoints, mode, tolerance, maxPoints);
             return convertToDto(optimizedPoints);
         } catch (Exception e) {
             return new ArrayList<>();
@@ -81,15 +103,95 @@ public class TrackService {
      * 获取所有轨迹点（优化版本）
      */
     public List<TrackPointDto> getAllTrackPoints() {
+        return getAllTrackPoints(SimplificationMode.THRESHOLD, null, 0);
+    }
+    
+    /**
+     * 获取所有轨迹点，按账号分别抽稀后合并
+     * 默认抽稀方式下，轨迹点都经过导入时的在线抽稀的账号直接读取保留点，
+     * 其余账号（有尚未补算 KEPT 的点）读取原始点重新抽稀
+     * @param tolerance 容差，为null时使用该方式的默认容差
+     * @param maxPoints 每个账号最多返回的点数，0表示不限制
+     */
+    public List<TrackPointDto> getAllTrackPoints(SimplificationMode mode, Double tolerance, int maxPoints) {
         try {
+            if (isDefaultSimplification(mode, tolerance, maxPoints)) {
+                Set<String> unprocessed = new HashSet<>(trackPointRepository.findAccountIdsWithUnprocessedPoints());
+                List<TrackPoint> points = findAllPrecomputedPoints(unprocessed);
+                if (!unprocessed.isEmpty()) {
+                    points.addAll(optimizationService.optimizeByAccount(
+                        trackPointRepository.findByAccountIdIn(unprocessed), mode, tolerance, maxPoints));
+                }
+                return convertToDto(points);
+            }
+            
             List<TrackPoint> rawPoints = trackPointRepository.findAll();
-            List<TrackPoint> optimizedPoints = optimizationService.optimizeTrackPoints(rawPoints);
+            List<TrackPoint> optimizedPoints = optimizationService.optimizeByAccount(rawPoints, mode, tolerance, maxPoints);
             return convertToDto(optimizedPoints);
         } catch (Exception e) {
             return new ArrayList<>();
         }
     }
     
+    /**
+     * 在线抽稀与默认的固定阈值过滤规则相同，只有默认参数的请求可以直接使用预先抽稀的结果
+     */
+    private boolean isDefaultSimplification(SimplificationMode mode, Double tolerance, int maxPoints) {
+        return mode == SimplificationMode.THRESHOLD && tolerance == null && maxPoints <= 0;
+    }
+    
+    /**
+     * 读取账号预先抽稀的轨迹：保留点加上待定的轨迹尾
+     * @return 账号没有轨迹点或有未经在线抽稀的轨迹点时返回null
+     */
+    private List<TrackPoint> findPrecomputedPoints(String accountId) {
+        if (trackPointRepository.countByAccountIdAndKeptIsNull(accountId) > 0) {
+            return null;
+        }
+        List<TrackPoint> points = trackPointRepository.findByAccountIdAndKeptTrueOrderByTimestampAsc(accountId);
+        if (points.isEmpty()) {
+            return null;
+        }
+        TrackPoint tail = trackPointRepository.findFirstByAccountIdOrderByTimestampDescIdDesc(accountId);
+        if (tail != null && Boolean.FALSE.equals(tail.getKept())) {
+            points.add(tail);
+        }
+        return points;
+    }
+    
+    /**
+     * 读取账号预先抽稀的轨迹，按账号和时间排序，每个账号的保留点之后接它的轨迹尾
+     * @param excluded 不读取的账号（尚有未经在线抽稀的点）
+     */
+    private List<TrackPoint> findAllPrecomputedPoints(Set<String> excluded) {
+        Map<String, TrackPoint> tails = new HashMap<>();
+        for (TrackPoint tail : trackPointRepository.findPendingTails()) {
+            if (excluded.contains(tail.getAccountId())) {
+                continue;
+            }
+            // 同一时间有多个未保留的点时取最后写入的
+            tails.merge(tail.getAccountId(), tail, (a, b) -> a.getId() >= b.getId() ? a : b);
+        }
+        
+        List<TrackPoint> kept = trackPointRepository.findKeptOrderByAccountIdAndTimestamp();
+        if (!excluded.isEmpty()) {
+            kept.removeIf(point -> excluded.contains(point.getAccountId()));
+        }
+        List<TrackPoint> points = new ArrayList<>(kept.size() + tails.size());
+        for (int i = 0; i < kept.size(); i++) {
+            TrackPoint point = kept.get(i);
+            points.add(point);
+            boolean lastOfAccount = i + 1 == kept.size() || !point.getAccountId().equals(kept.get(i + 1).getAccountId());
+            if (lastOfAccount) {
+                TrackPoint tail = tails.get(point.getAccountId());
+                if (tail != null) {
+                    points.add(tail);
+                }
+            }
+        }
+        return points;
+    }
+    
     /**
      * 获取原始轨迹点（未优化）
      */
@@ -1,166 +1,195 @@
 package com.ncu.trackplatform.service;
 
+import com.ncu.trackplatform.entity.TrackEventType;
 import com.ncu.trackplatform.entity.TrackPoint;
+import com.ncu.trackplatform.parser.ApCoordinateIndex;
+import com.ncu.trackplatform.parser.BehaviorClassifier;
+import com.ncu.trackplatform.parser.CsvSchema;
+import com.ncu.trackplatform.parser.LogTimestampParser;
+import com.ncu.trackplatform.parser.MacAddress;
+import com.ncu.trackplatform.parser.ParallelCsvProcessor;
+import com.ncu.trackplatform.parser.SyslogEvent;
+import com.ncu.trackplatform.parser.WiFiLogColumn;
+import com.ncu.trackplatform.parser.WiFiLogFieldScanner;
+import com.ncu.trackplatform.service.IngestDiagnosticsService.Reason;
 import com.opencsv.CSVReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 @Service
 public class WiFiLogParsingService {
     
-    // 时间格式解析器
-    private static final DateTimeFormatter[] TIME_FORMATTERS = {
-        DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", java.util.Locale.ENGLISH),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-        DateTimeFormatter.ofPattern("MMM dd HH:mm:ss yyyy", java.util.Locale.ENGLISH)
-    };
+    @Autowired
+    private IngestDiagnosticsService diagnostics;
     
-    // MAC地址提取正则 - 适配多种格式
-    private static final Pattern MAC_PATTERN = Pattern.compile("MAC[=:]([a-fA-F0-9:-]{17}|[a-fA-F0-9.]{14})");
-    private static final Pattern MAC_PATTERN2 = Pattern.compile("Client\\s+([a-fA-F0-9-]{12,17})");
-    private static final Pattern MAC_PATTERN3 = Pattern.compile("sta_mac\":\\s*\"([a-fA-F0-9.]{14})\"");
+    @Autowired
+    private ForkJoinPool ingestPool;
     
-    // AP位置信息提取正则 - 适配实际数据格式
-    private static final Pattern AP_LOCATION_PATTERN = Pattern.compile("终端在AP\\s+([^\\s]+)\\s+");
-    private static final Pattern AP_LOCATION_PATTERN2 = Pattern.compile("终端在AP\\s+([^\\s(]+)");
-    private static final Pattern AP_ROAM_TO_PATTERN = Pattern.compile("漫游到AP\\s+([^\\s(]+)");
+    @Autowired
+    private ApLocationService apLocationService;
     
-    // 地址格式解析正则 - 支持"无线/校区/建筑"格式
-    private static final Pattern ADDRESS_FORMAT_PATTERN = Pattern.compile("无线/([^/]+)/([^/\\s)]+)");
+    @Autowired
+    private ApAliasRegistry apAliasRegistry;
     
-    // 模拟的AP位置坐标映射（实际项目中应该从数据库或配置文件读取）
-    private static final Map<String, double[]> AP_COORDINATES = new HashMap<>();
+    // 并行解析时每个数据块的大小
+    @Value("${ingest.chunk-size-mb:8}")
+    private int chunkSizeMb;
     
-    static {
-        // 前湖北校区
-        AP_COORDINATES.put("前湖北-艺术楼-b-2f-02", new double[]{115.8372, 28.6329});
-        AP_COORDINATES.put("前湖北-图书馆-A1901-C1", new double[]{115.8385, 28.6342});
-        AP_COORDINATES.put("前湖北-理科楼-6f-a-05", new double[]{115.8390, 28.6335});
-        AP_COORDINATES.put("前湖北-理科楼-7f-a-10", new double[]{115.8392, 28.6337});
-        AP_COORDINATES.put("前湖北-慧源楼-519-C1", new double[]{115.8380, 28.6350});
-        AP_COORDINATES.put("前湖北-慧源楼-5FBMZL-2", new double[]{115.8382, 28.6352});
-        AP_COORDINATES.put("前湖北-慧源楼-315-C1", new double[]{115.8378, 28.6348});
-        AP_COORDINATES.put("前湖北-材料环境楼-C349B-1", new double[]{115.8395, 28.6340});
-        AP_COORDINATES.put("前湖北-文法楼-2F-A243", new double[]{115.8365, 28.6325});
-        AP_COORDINATES.put("前湖北-文法楼-3F-A320", new double[]{115.8367, 28.6327});
-        AP_COORDINATES.put("前湖北-前湖图书馆-3f-a0305", new double[]{115.8388, 28.6345});
-        AP_COORDINATES.put("前湖北-智华科技楼-ap720-l-A-05F-7", new double[]{115.8400, 28.6355});
-        
-        // 前湖南校区
-        AP_COORDINATES.put("前湖南-第一教学大楼-101-G1", new double[]{115.8360, 28.6310});
-        AP_COORDINATES.put("前湖南-第一教学大楼-403-G1", new double[]{115.8362, 28.6312});
-        
-        // 青山湖北校区
-        AP_COORDINATES.put("青山湖北-软件楼-518-G4", new double[]{115.9200, 28.6800});
-        AP_COORDINATES.put("青山湖北-软件楼-120-G4", new double[]{115.9195, 28.6795});
-        AP_COORDINATES.put("青山湖北-分析测试中心-6f-02", new double[]{115.9210, 28.6810});
-        AP_COORDINATES.put("青山湖北-分析测试中心-6f-03", new double[]{115.9212, 28.6812});
-        AP_COORDINATES.put("青山湖北-生物楼", new double[]{115.9180, 28.6785});
-        AP_COORDINATES.put("青山湖北-化学楼", new double[]{115.9190, 28.6790});
-        AP_COORDINATES.put("青山湖北-物理楼", new double[]{115.9205, 28.6805});
-        
-        // 东湖南校区
-        AP_COORDINATES.put("东湖南-基础楼4F-06", new double[]{115.8800, 28.7200});
-        AP_COORDINATES.put("东湖南-继教楼-201-C1", new double[]{115.8805, 28.7205});
-        AP_COORDINATES.put("东湖南-图书馆-103-C2", new double[]{115.8810, 28.7210});
-        
-        // 校区级别的默认坐标（当无法找到具体建筑时使用）
-        AP_COORDINATES.put("前湖北", new double[]{115.8380, 28.6340});
-        AP_COORDINATES.put("前湖南", new double[]{115.8360, 28.6310});
-        AP_COORDINATES.put("青山湖北", new double[]{115.9200, 28.6800});
-        AP_COORDINATES.put("东湖南", new double[]{115.8800, 28.7200});
-    }
+    // 每个解析线程复用一个字段扫描器，避免逐行创建对象
+    private static final ThreadLocal<WiFiLogFieldScanner> FIELD_SCANNERS =
+        ThreadLocal.withInitial(WiFiLogFieldScanner::new);
     
     /**
      * 解析WiFi日志CSV文件
      */
     public List<TrackPoint> parseWiFiLogCSV(MultipartFile file) {
         List<TrackPoint> trackPoints = new ArrayList<>();
+        parseWiFiLogCSV(file, trackPoints::add);
+        return trackPoints;
+    }
+    
+    /**
+     * 流式解析WiFi日志CSV文件
+     * 每解析出一个轨迹点立即交给consumer处理，不在内存中保留整个文件的轨迹点
+     * @return 解析出的轨迹点数量
+     */
+    public int parseWiFiLogCSV(MultipartFile file, Consumer<TrackPoint> consumer) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return parseWiFiLogCSV(inputStream, consumer);
+        } catch (IOException e) {
+            throw new RuntimeException("WiFi日志解析失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 从输入流流式解析WiFi日志，逐行读取、逐点回调
+     * @return 解析出的轨迹点数量
+     */
+    public int parseWiFiLogCSV(InputStream inputStream, Consumer<TrackPoint> consumer) {
+        int count = 0;
         
         try {
-            CSVReader reader = new CSVReader(new InputStreamReader(file.getInputStream()));
+            CSVReader reader = new CSVReader(new InputStreamReader(inputStream));
             String[] headers = reader.readNext(); // 读取表头
+            if (headers == null) {
+                return 0;
+            }
+            CsvSchema<WiFiLogColumn> schema = CsvSchema.bind(WiFiLogColumn.class, headers);
+            LogTimestampParser timestamps = new LogTimestampParser();
             
             String[] line;
             while ((line = reader.readNext()) != null) {
-                TrackPoint point = parseWiFiLogLine(line, headers);
+                TrackPoint point = parseWiFiLogLine(line, schema, timestamps);
                 if (point != null) {
-                    trackPoints.add(point);
+                    consumer.accept(point);
+                    count++;
                 }
             }
             
-            reader.close();
-            
         } catch (Exception e) {
             throw new RuntimeException("WiFi日志解析失败: " + e.getMessage());
         }
         
+        return count;
+    }
+    
+    /**
+     * 并行解析WiFi日志文件
+     * 文件按记录边界切块后在解析线程池中并行处理，结果按文件顺序逐点交给consumer
+     * @return 解析出的轨迹点数量
+     */
+    public int parseWiFiLogFileParallel(Path file, Consumer<TrackPoint> consumer) {
+        try {
+            ParallelCsvProcessor.Header header = ParallelCsvProcessor.readHeader(file, Charset.defaultCharset());
+            if (header == null) {
+                return 0;
+            }
+            CsvSchema<WiFiLogColumn> schema = CsvSchema.bind(WiFiLogColumn.class, header.getColumns());
+            LogTimestampParser timestamps = new LogTimestampParser();
+            
+            int[] count = {0};
+            ParallelCsvProcessor.process(file, Charset.defaultCharset(), header.getDataStart(),
+                chunkSizeMb * 1024L * 1024L, ingestPool, ingestPool.getParallelism() * 2,
+                reader -> {
+                    List<TrackPoint> chunkPoints = new ArrayList<>();
+                    String[] line;
+                    while ((line = reader.readNext()) != null) {
+                        TrackPoint point = parseWiFiLogLine(line, schema, timestamps);
+                        if (point != null) {
+                            chunkPoints.add(point);
+                        }
+                    }
+                    return chunkPoints;
+                },
+                chunkPoints -> {
+                    chunkPoints.forEach(consumer);
+                    count[0] += chunkPoints.size();
+                });
+            return count[0];
+            
+        } catch (Exception e) {
+            throw new RuntimeException("WiFi日志解析失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 并行解析WiFi日志文件，按文件顺序返回所有轨迹点
+     */
+    public List<TrackPoint> parseWiFiLogCSVParallel(Path file) {
+        List<TrackPoint> trackPoints = new ArrayList<>();
+        parseWiFiLogFileParallel(file, trackPoints::add);
         return trackPoints;
     }
     
     /**
      * 解析单行WiFi日志数据
+     * @param timestamps 当前文件的时间解码器，同一文件的记录应共用一个
+     * @return 上线事件对应的轨迹点，其他记录和时间无法解析的记录返回null
      */
-    private TrackPoint parseWiFiLogLine(String[] line, String[] headers) {
+    public TrackPoint parseWiFiLogLine(String[] line, CsvSchema<WiFiLogColumn> schema, LogTimestampParser timestamps) {
         try {
-            if (line.length < headers.length) {
+            if (line.length < schema.width()) {
+                diagnostics.record(Reason.SHORT_ROW, line);
                 return null;
             }
             
-            String time = null;
-            String behavior = null;
-            String details = null;
-            String ipAddress = null;
-            String logContent = null;
+            // 按表头绑定时确定的列位置直接取值
+            String time = value(line, schema, WiFiLogColumn.TIME);
+            String behavior = value(line, schema, WiFiLogColumn.BEHAVIOR);
+            String details = value(line, schema, WiFiLogColumn.DETAILS);
+            String ipAddress = value(line, schema, WiFiLogColumn.TERMINAL_IP);
+            String logContent = value(line, schema, WiFiLogColumn.LOG_CONTENT);
             
-            // 解析各个字段
-            for (int i = 0; i < headers.length && i < line.length; i++) {
-                String header = headers[i].trim();
-                String value = line[i].trim();
-                
-                switch (header) {
-                    case "时间":
-                        time = value;
-                        break;
-                    case "终端行为":
-                        behavior = value;
-                        break;
-                    case "轨迹详细信息":
-                        details = value;
-                        break;
-                    case "终端IP地址":
-                        ipAddress = value;
-                        break;
-                    case "日志原文":
-                        logContent = value;
-                        break;
-                }
-            }
-            
-            // 添加调试信息
-            System.out.println("解析行为: " + behavior + ", 是否为上线事件: " + isOnlineEvent(behavior));
-            try {
-                java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-                fw.write("解析行为: " + behavior + ", 是否为上线事件: " + isOnlineEvent(behavior) + "\n");
-                fw.close();
-            } catch (Exception e) {}
-            if (behavior == null || !isOnlineEvent(behavior)) {
+            // 行为文本经自动机单次扫描分类，下线、认证失败等事件只计数不生成轨迹点
+            TrackEventType eventType = BehaviorClassifier.defaults().classify(behavior);
+            diagnostics.recordEvent(eventType);
+            if (eventType == null || !eventType.isOnline()) {
+                diagnostics.record(Reason.NOT_ONLINE_EVENT);
                 return null;
             }
             
-            // 提取AP位置
-            String apLocation = extractAPLocation(details);
+            WiFiLogFieldScanner scanner = FIELD_SCANNERS.get().scanLog(logContent);
+            
+            // 提取AP位置：先按日志原文中的AP别名查表，未登记时解析详细信息并学习别名
+            String apLocation = apAliasRegistry.resolve(scanner);
             if (apLocation == null) {
+                apLocation = extractAPLocation(scanner, details);
+                apAliasRegistry.learn(scanner, apLocation);
+            }
+            if (apLocation == null) {
+                diagnostics.record(Reason.PATTERN_MISS, line);
                 return null;
             }
             
@@ -171,207 +200,179 @@ public class WiFiLogParsingService {
             }
             
             // 提取MAC地址作为账号ID
-            String accountId = extractMacAddress(logContent);
+            long macKey = scanner.macKey();
+            String accountId = macKey != MacAddress.NONE ? MacAddress.format(macKey) : null;
             if (accountId == null) {
+                diagnostics.record(Reason.MAC_MISS, logContent);
                 accountId = ipAddress; // 如果没有MAC地址，使用IP地址
             }
+            if ((accountId == null || accountId.isEmpty()) && schema.has(WiFiLogColumn.ACCOUNT)) {
+                accountId = value(line, schema, WiFiLogColumn.ACCOUNT); // 再没有则使用账号列
+            }
+            
+            // 华为日志自带 TIME:<epoch> 时直接使用，否则按本文件识别出的格式解码时间列；
+            // 时间无法解析的记录不再以当前时间代替，避免在轨迹中产生错位的点
+            long eventMillis = scanner.time() >= 0 ? scanner.time() * 1000L : timestamps.decode(time);
+            if (eventMillis == LogTimestampParser.INVALID) {
+                diagnostics.record(Reason.BAD_TIMESTAMP, time);
+                return null;
+            }
             
             // 创建轨迹点
             TrackPoint point = new TrackPoint();
             point.setAccountId(accountId);
+            point.setMacKey(macKey != MacAddress.NONE ? macKey : null);
             point.setLatitude(coordinates[1]); // 纬度
             point.setLongitude(coordinates[0]); // 经度
-            point.setTimestamp(parseTimestamp(time));
-            point.setTrackId(details); // 将详细信息存储在trackId字段中
-            
-            System.out.println("成功创建TrackPoint: " + accountId + " at " + coordinates[1] + "," + coordinates[0]);
-            try {
-                java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-                fw.write("成功创建TrackPoint: " + accountId + " at " + coordinates[1] + "," + coordinates[0] + "\n");
-                fw.close();
-            } catch (Exception e) {}
+            point.setTimestamp(LogTimestampParser.toLocalDateTime(eventMillis));
+            point.setEventType(eventType);
+            point.setApId(apAliasRegistry.apId(apLocation));
+            point.setApName(apLocation);
             
+            diagnostics.record(Reason.PARSED);
             return point;
             
         } catch (Exception e) {
-            System.err.println("解析WiFi日志行失败: " + String.join(",", line) + " - " + e.getMessage());
+            diagnostics.record(Reason.PARSE_ERROR, line);
             return null;
         }
     }
     
     /**
-     * 判断是否为上线事件
+     * 解析一行原始syslog日志（非CSV导出格式）
+     * 行中需同时含有终端MAC和AP名称；带TIME字段时使用该时间，否则使用syslog头部的时间。
+     * 追踪日志时会从文件开头补读历史记录，不能以当前时间代替，两者都无法解析的行丢弃；
+     * 坐标索引中找不到的AP（包括建筑、校区都无法匹配的）同样丢弃，不生成 (0,0) 处的点
+     * @return 轨迹点，无法定位的行返回null
      */
-    private boolean isOnlineEvent(String behavior) {
-        return behavior != null && 
-               (behavior.contains("上线 (获取IP地址成功)") || 
-                behavior.contains("上线 (关联成功)") || 
-                behavior.contains("获取IP地址成功") || 
-                behavior.contains("关联成功") || 
-                behavior.contains("上线"));
-    }
-    
-    /**
-     * 解析地址格式 "无线/校区/建筑"
-     */
-    private String parseAddressFormat(String address) {
+    public TrackPoint parseSyslogLine(String rawLine) {
         try {
-            Matcher matcher = ADDRESS_FORMAT_PATTERN.matcher(address);
-            if (matcher.find()) {
-                String campus = matcher.group(1);  // 校区
-                String building = matcher.group(2); // 建筑
-                
-                // 构建标准化的地址格式
-                String standardAddress = campus + "-" + building;
-                System.out.println("解析地址格式: " + address + " -> " + standardAddress);
-                return standardAddress;
+            if (rawLine == null || rawLine.isEmpty()) {
+                return null;
+            }
+            WiFiLogFieldScanner scanner = FIELD_SCANNERS.get().scanLog(rawLine);
+            long macKey = scanner.macKey();
+            if (macKey == MacAddress.NONE) {
+                diagnostics.record(Reason.MAC_MISS, rawLine);
+                return null;
             }
-            return address; // 如果不匹配格式，返回原地址
+            if (!scanner.hasApName()) {
+                diagnostics.record(Reason.PATTERN_MISS, rawLine);
+                return null;
+            }
+            TrackEventType eventType = syslogEventType(scanner.event());
+            diagnostics.recordEvent(eventType);
+            if (!eventType.isOnline()) {
+                diagnostics.record(Reason.NOT_ONLINE_EVENT);
+                return null;
+            }
+            // 控制器AP名称已从CSV导出中学习过别名时使用规范AP位置
+            String apName = apAliasRegistry.resolve(scanner);
+            if (apName == null) {
+                apName = scanner.apName();
+            }
+            double[] coordinates = findAPCoordinates(apName);
+            if (coordinates == null) {
+                return null;
+            }
+            long eventMillis = scanner.time() >= 0
+                ? scanner.time() * 1000L
+                : LogTimestampParser.decodeSyslogHeader(rawLine);
+            if (eventMillis == LogTimestampParser.INVALID) {
+                diagnostics.record(Reason.BAD_TIMESTAMP, rawLine);
+                return null;
+            }
+
+            TrackPoint point = new TrackPoint();
+            point.setAccountId(MacAddress.format(macKey));
+            point.setMacKey(macKey);
+            point.setLatitude(coordinates[1]); // 纬度
+            point.setLongitude(coordinates[0]); // 经度
+            point.setTimestamp(LogTimestampParser.toLocalDateTime(eventMillis));
+            point.setEventType(eventType);
+            point.setApId(apAliasRegistry.apId(apName));
+            point.setApName(apName);
+
+            diagnostics.record(Reason.PARSED);
+            return point;
+
         } catch (Exception e) {
-            System.err.println("解析地址格式时发生错误: " + e.getMessage());
-            return address;
+            diagnostics.record(Reason.PARSE_ERROR, rawLine);
+            return null;
         }
     }
-
+    
     /**
-     * 提取AP位置信息
+     * 读取指定列的值并去除首尾空白
      */
-    private String extractAPLocation(String details) {
-        if (details == null) {
-            return null;
-        }
-        
-        System.out.println("提取AP位置，详细信息: " + details);
-        try {
-            java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-            fw.write("提取AP位置，详细信息: " + details + "\n");
-            fw.close();
-        } catch (Exception e) {}
-        
-        // 尝试第一种模式：终端在AP xxx 获取IP地址成功
-        Matcher matcher = AP_LOCATION_PATTERN.matcher(details);
-        if (matcher.find()) {
-            String result = matcher.group(1);
-            System.out.println("第一种模式匹配成功: " + result);
-            try {
-                java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-                fw.write("第一种模式匹配成功: " + result + "\n");
-                fw.close();
-            } catch (Exception e) {}
-            return parseAddressFormat(result);
-        }
-        
-        // 尝试第二种模式：终端在AP xxx (无线/...)
-        matcher = AP_LOCATION_PATTERN2.matcher(details);
-        if (matcher.find()) {
-            String result = matcher.group(1);
-            System.out.println("第二种模式匹配成功: " + result);
-            try {
-                java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-                fw.write("第二种模式匹配成功: " + result + "\n");
-                fw.close();
-            } catch (Exception e) {}
-            return parseAddressFormat(result);
-        }
-        
-        // 尝试漫游模式：漫游到AP xxx
-        matcher = AP_ROAM_TO_PATTERN.matcher(details);
-        if (matcher.find()) {
-            String result = matcher.group(1);
-            System.out.println("漫游模式匹配成功: " + result);
-            try {
-                java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-                fw.write("漫游模式匹配成功: " + result + "\n");
-                fw.close();
-            } catch (Exception e) {}
-            return parseAddressFormat(result);
-        }
-        
-        System.out.println("所有模式都匹配失败");
-        try {
-            java.io.FileWriter fw = new java.io.FileWriter("debug.log", true);
-            fw.write("所有模式都匹配失败\n");
-            fw.close();
-        } catch (Exception e) {}
-        return null;
+    private String value(String[] line, CsvSchema<WiFiLogColumn> schema, WiFiLogColumn column) {
+        String value = schema.get(line, column);
+        return value != null ? value.trim() : null;
     }
     
     /**
-     * 获取AP坐标
+     * 按原始日志的消息类型判断事件类型：带 FAIL 的为认证失败，DISASSOCIATE/OFFLINE 为下线，
+     * 带 ROAM 的为漫游，华为 AP_ASSOCIATE 为关联成功，H3C CLIENT_SNOOPING 为获取IP地址，其余按一般上线处理
      */
-    private double[] getAPCoordinates(String apLocation) {
-        if (apLocation == null) {
-            return new double[]{0.0, 0.0}; // 默认坐标
+    private TrackEventType syslogEventType(SyslogEvent event) {
+        String messageType = event.messageType();
+        if (messageType == null) {
+            return TrackEventType.ONLINE;
         }
-        
-        // 首先尝试精确匹配
-        double[] coordinates = AP_COORDINATES.get(apLocation);
-        if (coordinates != null) {
-            System.out.println("找到精确坐标: " + apLocation + " -> [" + coordinates[0] + ", " + coordinates[1] + "]");
-            return coordinates;
+        if (messageType.contains("FAIL")) {
+            return TrackEventType.AUTH_FAILED;
         }
-        
-        // 如果精确匹配失败，尝试提取校区信息作为回退
-        if (apLocation.contains("-")) {
-            String campus = apLocation.split("-")[0];
-            coordinates = AP_COORDINATES.get(campus);
-            if (coordinates != null) {
-                System.out.println("使用校区默认坐标: " + apLocation + " -> " + campus + " -> [" + coordinates[0] + ", " + coordinates[1] + "]");
-                return coordinates;
-            }
+        if (messageType.contains("DISASSOC") || messageType.contains("OFFLINE")) {
+            return TrackEventType.OFFLINE;
         }
-        
-        System.out.println("未找到AP位置坐标: " + apLocation + ", 使用默认坐标");
-        return new double[]{0.0, 0.0};
+        if (messageType.contains("ROAM")) {
+            return TrackEventType.ROAMED;
+        }
+        if (messageType.contains("ASSOCIATE")) {
+            return TrackEventType.ASSOCIATED;
+        }
+        if (messageType.contains("SNOOPING")) {
+            return TrackEventType.IP_ACQUIRED;
+        }
+        return TrackEventType.ONLINE;
     }
     
     /**
-     * 提取MAC地址
+     * 提取AP位置信息
+     * 单次扫描轨迹详细信息，"无线/校区/建筑"格式会被标准化为"校区-建筑"
      */
-    private String extractMacAddress(String logContent) {
-        if (logContent == null) {
+    private String extractAPLocation(WiFiLogFieldScanner scanner, String details) {
+        if (details == null) {
             return null;
         }
-        
-        // 尝试第一种模式：MAC=xxx 或 MAC:xxx
-        Matcher matcher = MAC_PATTERN.matcher(logContent);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        
-        // 尝试第二种模式：Client xxx
-        matcher = MAC_PATTERN2.matcher(logContent);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        
-        // 尝试第三种模式：JSON格式的sta_mac
-        matcher = MAC_PATTERN3.matcher(logContent);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        
-        return null;
+        return scanner.scanDetails(details).apLocation();
+    }
+    
+    /**
+     * 获取AP坐标
+     * 在AP坐标索引中查找，未登记的AP依次回退到所在建筑、校区的坐标
+     */
+    private double[] getAPCoordinates(String apLocation) {
+        double[] coordinates = findAPCoordinates(apLocation);
+        return coordinates != null ? coordinates : new double[]{0.0, 0.0}; // 默认坐标
     }
     
     /**
-     * 解析时间戳
+     * 同 getAPCoordinates，但建筑、校区都无法匹配的AP返回null
      */
-    private LocalDateTime parseTimestamp(String timestamp) {
-        if (timestamp == null || timestamp.isEmpty()) {
-            return LocalDateTime.now();
+    private double[] findAPCoordinates(String apLocation) {
+        if (apLocation == null) {
+            return null;
         }
         
-        for (DateTimeFormatter formatter : TIME_FORMATTERS) {
-            try {
-                return LocalDateTime.parse(timestamp, formatter);
-            } catch (Exception e) {
-                // 继续尝试下一个格式
-            }
+        ApCoordinateIndex.Entry entry = apLocationService.lookup(apLocation);
+        if (entry == null) {
+            diagnostics.record(Reason.UNKNOWN_AP, apLocation);
+            return null;
         }
-        
-        // 如果所有格式都失败，返回当前时间
-        System.err.println("无法解析时间戳: " + timestamp);
-        return LocalDateTime.now();
+        if (entry.getName().length() < apLocation.length()) {
+            diagnostics.record(Reason.CAMPUS_FALLBACK, apLocation);
+        }
+        return entry.getCoordinates();
     }
-}
\ No newline at end of file
+}
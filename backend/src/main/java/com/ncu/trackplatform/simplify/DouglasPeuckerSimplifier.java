@@ -0,0 +1,91 @@
+package com.ncu.trackplatform.simplify;
+
+import java.util.PriorityQueue;
+
+/**
+ * Douglas-Peucker 抽稀（非递归）
+ * 待细分的线段放在按最大偏离距离排序的优先队列中，每次取偏离最大的线段在最远点处拆分，
+ * 直到剩余线段的偏离都不超过容差（米）或保留点数达到上限。
+ * 长轨迹不会因递归过深而栈溢出；有点数上限时先保留的总是形状上最重要的点。
+ */
+final class DouglasPeuckerSimplifier implements TrackSimplifier {
+
+    @Override
+    public int[] simplify(TrackColumns track, double tolerance, int maxPoints) {
+        int n = track.size();
+        if (n <= 2) {
+            return TrackColumns.all(n);
+        }
+
+        double toleranceSq = tolerance * tolerance;
+        int limit = maxPoints > 0 ? Math.max(2, maxPoints) : Integer.MAX_VALUE;
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        int kept = 2;
+
+        PriorityQueue<Segment> queue = new PriorityQueue<>();
+        Segment first = Segment.of(track, 0, n - 1);
+        if (first != null) {
+            queue.add(first);
+        }
+        while (!queue.isEmpty() && kept < limit) {
+            Segment segment = queue.poll();
+            if (segment.distanceSq <= toleranceSq) {
+                break;
+            }
+            keep[segment.farthest] = true;
+            kept++;
+            Segment left = Segment.of(track, segment.start, segment.farthest);
+            if (left != null) {
+                queue.add(left);
+            }
+            Segment right = Segment.of(track, segment.farthest, segment.end);
+            if (right != null) {
+                queue.add(right);
+            }
+        }
+        return TrackColumns.indexes(keep, kept);
+    }
+
+    /**
+     * 一段待细分的线段及其上偏离最远的点
+     */
+    private static final class Segment implements Comparable<Segment> {
+        final int start;
+        final int end;
+        final int farthest;
+        final double distanceSq;
+
+        private Segment(int start, int end, int farthest, double distanceSq) {
+            this.start = start;
+            this.end = end;
+            this.farthest = farthest;
+            this.distanceSq = distanceSq;
+        }
+
+        /**
+         * @return 线段内部没有点时返回null
+         */
+        static Segment of(TrackColumns track, int start, int end) {
+            if (end - start < 2) {
+                return null;
+            }
+            int farthest = start + 1;
+            double maxSq = -1;
+            for (int i = start + 1; i < end; i++) {
+                double d = track.segmentDistanceSq(i, start, end);
+                if (d > maxSq) {
+                    maxSq = d;
+                    farthest = i;
+                }
+            }
+            return new Segment(start, end, farthest, maxSq);
+        }
+
+        @Override
+        public int compareTo(Segment other) {
+            return Double.compare(other.distanceSq, distanceSq);
+        }
+    }
+}
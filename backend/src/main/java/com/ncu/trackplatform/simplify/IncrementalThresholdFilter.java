@@ -0,0 +1,88 @@
+package com.ncu.trackplatform.simplify;
+
+import com.ncu.trackplatform.entity.TrackPoint;
+
+/**
+ * 单个终端的在线固定阈值过滤
+ * 轨迹点逐个到达时立即判定保留或丢弃，判定规则与 ThresholdSimplifier 相同：
+ * 只与上一个保留点比较时间间隔和移动距离，所以按时间顺序到达时保留的点与整条轨迹一次性过滤的结果一致。
+ * 一次性过滤总会保留最后一个点，在线时它就是最近一个被丢弃的点（待定的轨迹尾），读取时再补上。
+ * 状态只有上一个保留点的时间、弧度坐标、AP编号和最近到达的时间，不保存轨迹点本身；非线程安全。
+ */
+public final class IncrementalThresholdFilter {
+
+    /**
+     * 判定结果
+     */
+    public enum Decision {
+        /** 保留 */
+        KEPT,
+        /** 丢弃，若此后没有新点则作为轨迹尾显示 */
+        DROPPED,
+        /** 早于已到达的点，无法增量判定，需由调用方按时间顺序整条重算 */
+        LATE
+    }
+
+    private static final int NO_AP = -1;
+
+    private final double minDistance;
+    private boolean started;
+    private long keptMillis;
+    private double keptLatRad;
+    private double keptLonRad;
+    private double keptCosLat;
+    private int keptApId = NO_AP;
+    // 最近到达的点（保留或待定的轨迹尾）的时间
+    private long lastMillis;
+
+    /**
+     * @param minDistance 最小移动距离（米），与 ThresholdSimplifier 的容差含义相同
+     */
+    public IncrementalThresholdFilter(double minDistance) {
+        this.minDistance = minDistance;
+    }
+
+    /**
+     * 判定一个新到达的轨迹点，没有经纬度或时间的点按迟到处理
+     */
+    public Decision offer(TrackPoint point) {
+        if (point.getLatitude() == null || point.getLongitude() == null || point.getTimestamp() == null) {
+            return Decision.LATE;
+        }
+        long millis = TrackColumns.epochMillis(point);
+        if (started && millis < lastMillis) {
+            return Decision.LATE;
+        }
+        lastMillis = millis;
+
+        double latRad = Math.toRadians(point.getLatitude());
+        double lonRad = Math.toRadians(point.getLongitude());
+        int apId = point.getApId() != null ? point.getApId() : NO_AP;
+        if (!started || shouldKeep(millis, latRad, lonRad, apId)) {
+            started = true;
+            keptMillis = millis;
+            keptLatRad = latRad;
+            keptLonRad = lonRad;
+            keptCosLat = Math.cos(latRad);
+            keptApId = apId;
+            return Decision.KEPT;
+        }
+        return Decision.DROPPED;
+    }
+
+    private boolean shouldKeep(long millis, double latRad, double lonRad, int apId) {
+        long interval = millis - keptMillis;
+        if (interval < ThresholdSimplifier.MIN_TIME_INTERVAL_MILLIS) {
+            return false;
+        }
+        if (interval >= ThresholdSimplifier.MAX_TIME_INTERVAL_MILLIS) {
+            return true;
+        }
+        // 同一个AP的坐标相同，移动距离为0，不必计算
+        if (apId != NO_AP && apId == keptApId) {
+            return minDistance <= 0;
+        }
+        return TrackColumns.haversine(keptLatRad, keptLonRad, keptCosLat,
+            latRad, lonRad, Math.cos(latRad)) >= minDistance;
+    }
+}
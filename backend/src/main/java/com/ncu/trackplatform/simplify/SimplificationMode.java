@@ -0,0 +1,61 @@
+package com.ncu.trackplatform.simplify;
+
+import java.util.Locale;
+
+/**
+ * 可选的轨迹抽稀方式及其默认容差
+ */
+public enum SimplificationMode {
+
+    /**
+     * 固定阈值过滤，容差为最小移动距离（米）
+     */
+    THRESHOLD("threshold", 5.0, new ThresholdSimplifier()),
+    /**
+     * Douglas-Peucker，容差为点到保留线段的最大偏离距离（米）
+     */
+    DOUGLAS_PEUCKER("dp", 10.0, new DouglasPeuckerSimplifier()),
+    /**
+     * Visvalingam-Whyatt，容差为最小有效三角形面积（平方米）
+     */
+    VISVALINGAM("vw", 200.0, new VisvalingamSimplifier());
+
+    private final String code;
+    private final double defaultTolerance;
+    private final TrackSimplifier simplifier;
+
+    SimplificationMode(String code, double defaultTolerance, TrackSimplifier simplifier) {
+        this.code = code;
+        this.defaultTolerance = defaultTolerance;
+        this.simplifier = simplifier;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public double getDefaultTolerance() {
+        return defaultTolerance;
+    }
+
+    public TrackSimplifier getSimplifier() {
+        return simplifier;
+    }
+
+    /**
+     * 按请求参数选择抽稀方式，接受简写（threshold/dp/vw）或枚举名，为空时使用固定阈值过滤
+     * @throws IllegalArgumentException 不支持的抽稀方式
+     */
+    public static SimplificationMode fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return THRESHOLD;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        for (SimplificationMode mode : values()) {
+            if (mode.code.equalsIgnoreCase(value.trim()) || mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("不支持的抽稀方式: " + value);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ncu.trackplatform.simplify;
+
+/**
+ * 固定阈值过滤
+ * 与上一个保留点相隔不足最小时间间隔的点丢弃，超过最大时间间隔的点必须保留，
+ * 其间移动距离达到容差（米）的点保留。单次线性扫描，不支持按点数限制。
+ */
+final class ThresholdSimplifier implements TrackSimplifier {
+
+    // 最小时间间隔（毫秒）- 只有时间间隔超过30秒才可能记录新点
+    static final long MIN_TIME_INTERVAL_MILLIS = 30_000;
+
+    // 最大时间间隔（毫秒）- 超过5分钟必须记录新点，即使位置没变化
+    static final long MAX_TIME_INTERVAL_MILLIS = 301_000;
+
+    @Override
+    public int[] simplify(TrackColumns track, double tolerance, int maxPoints) {
+        int n = track.size();
+        if (n <= 2) {
+            return TrackColumns.all(n);
+        }
+
+        boolean[] keep = new boolean[n];
+        int kept = 1;
+
+        // 总是保留第一个点
+        keep[0] = true;
+        int lastKept = 0;
+
+        for (int i = 1; i < n; i++) {
+            // 检查是否应该保留当前点
+            if (shouldKeepPoint(track, lastKept, i, tolerance)) {
+                keep[i] = true;
+                kept++;
+                lastKept = i;
+            }
+        }
+
+        // 总是保留最后一个点（如果它不是已经保留的最后一个点）
+        if (lastKept != n - 1) {
+            keep[n - 1] = true;
+            kept++;
+        }
+
+        return TrackColumns.indexes(keep, kept);
+    }
+
+    private boolean shouldKeepPoint(TrackColumns track, int last, int current, double minDistance) {
+        long interval = track.epochMillis[current] - track.epochMillis[last];
+
+        // 如果时间间隔太短，直接跳过
+        if (interval < MIN_TIME_INTERVAL_MILLIS) {
+            return false;
+        }
+
+        // 如果时间间隔太长（超过300秒），必须保留
+        if (interval >= MAX_TIME_INTERVAL_MILLIS) {
+            return true;
+        }
+
+        // 如果距离变化足够大，保留点
+        return track.distance(last, current) >= minDistance;
+    }
+}
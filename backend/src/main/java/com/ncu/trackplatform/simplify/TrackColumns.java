@@ -0,0 +1,188 @@
+package com.ncu.trackplatform.simplify;
+
+import com.ncu.trackplatform.entity.TrackPoint;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列式存储的轨迹
+ * 经纬度、时间各占一个基本类型数组，并预先算好弧度、cos(纬度)和以第一个点为原点的平面坐标（米），
+ * 抽稀的内层循环只做数组下标访问和算术运算，不拆箱、不调用 toRadians、不创建 Duration。
+ * 与 TrackPoint 之间的转换只在 of/select 两端各做一次。
+ * 没有经纬度或时间的点无法在地图上按时间显示，转换时直接跳过。
+ */
+public final class TrackColumns {
+
+    private static final double EARTH_RADIUS = 6371000;
+
+    private final List<TrackPoint> points;
+    final double[] lat;
+    final double[] lon;
+    final long[] epochMillis;
+    final double[] latRad;
+    final double[] lonRad;
+    final double[] cosLat;
+    // 等距圆柱投影后的平面坐标（米），校园尺度内误差可以忽略
+    final double[] x;
+    final double[] y;
+
+    private TrackColumns(List<TrackPoint> points) {
+        int n = points.size();
+        this.points = points;
+        this.lat = new double[n];
+        this.lon = new double[n];
+        this.epochMillis = new long[n];
+        this.latRad = new double[n];
+        this.lonRad = new double[n];
+        this.cosLat = new double[n];
+        this.x = new double[n];
+        this.y = new double[n];
+    }
+
+    /**
+     * 由按时间排序的轨迹点构建列式轨迹
+     */
+    public static TrackColumns of(List<TrackPoint> source) {
+        List<TrackPoint> points = new ArrayList<>(source.size());
+        for (TrackPoint point : source) {
+            if (point.getLatitude() != null && point.getLongitude() != null && point.getTimestamp() != null) {
+                points.add(point);
+            }
+        }
+        TrackColumns track = new TrackColumns(points);
+        if (points.isEmpty()) {
+            return track;
+        }
+        double lat0 = points.get(0).getLatitude();
+        double lon0 = points.get(0).getLongitude();
+        double metersPerDegree = Math.toRadians(1) * EARTH_RADIUS;
+        double metersPerLonDegree = metersPerDegree * Math.cos(Math.toRadians(lat0));
+        for (int i = 0; i < points.size(); i++) {
+            TrackPoint point = points.get(i);
+            double latitude = point.getLatitude();
+            double longitude = point.getLongitude();
+            track.lat[i] = latitude;
+            track.lon[i] = longitude;
+            track.epochMillis[i] = epochMillis(point);
+            track.latRad[i] = Math.toRadians(latitude);
+            track.lonRad[i] = Math.toRadians(longitude);
+            track.cosLat[i] = Math.cos(track.latRad[i]);
+            track.x[i] = (longitude - lon0) * metersPerLonDegree;
+            track.y[i] = (latitude - lat0) * metersPerDegree;
+        }
+        return track;
+    }
+
+    public int size() {
+        return lat.length;
+    }
+
+    public TrackPoint point(int i) {
+        return points.get(i);
+    }
+
+    public double latitude(int i) {
+        return lat[i];
+    }
+
+    public double longitude(int i) {
+        return lon[i];
+    }
+
+    public long epochMillis(int i) {
+        return epochMillis[i];
+    }
+
+    /**
+     * 两点之间的球面距离（米），Haversine公式
+     */
+    public double distance(int i, int j) {
+        return haversine(latRad[i], lonRad[i], cosLat[i], latRad[j], lonRad[j], cosLat[j]);
+    }
+
+    /**
+     * 由弧度和预先算好的 cos(纬度) 计算球面距离（米）
+     */
+    static double haversine(double latRad1, double lonRad1, double cosLat1,
+                            double latRad2, double lonRad2, double cosLat2) {
+        double sinLat = Math.sin((latRad2 - latRad1) / 2);
+        double sinLon = Math.sin((lonRad2 - lonRad1) / 2);
+        double a = sinLat * sinLat + cosLat1 * cosLat2 * sinLon * sinLon;
+        return EARTH_RADIUS * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * 轨迹点时间对应的毫秒数，只用于比较先后和计算间隔
+     */
+    static long epochMillis(TrackPoint point) {
+        return point.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * 点 p 到线段 (a, b) 的平面距离的平方
+     */
+    double segmentDistanceSq(int p, int a, int b) {
+        double dx = x[b] - x[a];
+        double dy = y[b] - y[a];
+        double px = x[p] - x[a];
+        double py = y[p] - y[a];
+        double lengthSq = dx * dx + dy * dy;
+        if (lengthSq > 0) {
+            double t = (px * dx + py * dy) / lengthSq;
+            if (t >= 1) {
+                px = x[p] - x[b];
+                py = y[p] - y[b];
+            } else if (t > 0) {
+                px -= t * dx;
+                py -= t * dy;
+            }
+        }
+        return px * px + py * py;
+    }
+
+    /**
+     * 三点构成的三角形平面面积
+     */
+    double triangleArea(int a, int b, int c) {
+        return Math.abs((x[b] - x[a]) * (y[c] - y[a]) - (x[c] - x[a]) * (y[b] - y[a])) / 2;
+    }
+
+    /**
+     * 按下标取回原始轨迹点
+     * @param indexes 升序的保留点下标
+     */
+    public List<TrackPoint> select(int[] indexes) {
+        List<TrackPoint> selected = new ArrayList<>(indexes.length);
+        for (int i : indexes) {
+            selected.add(points.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * 把保留标记转换为升序下标
+     */
+    static int[] indexes(boolean[] keep, int count) {
+        int[] indexes = new int[count];
+        int k = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                indexes[k++] = i;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * 所有点的下标，点数不超过2时直接原样保留
+     */
+    static int[] all(int n) {
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+}
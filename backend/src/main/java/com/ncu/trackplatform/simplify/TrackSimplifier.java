@@ -0,0 +1,31 @@
+package com.ncu.trackplatform.simplify;
+
+import com.ncu.trackplatform.entity.TrackPoint;
+
+import java.util.List;
+
+/**
+ * 轨迹抽稀策略
+ * 在列式轨迹上运行，返回保留点的下标（升序，首尾点总是保留）。
+ * 实现无状态，可在多个线程间共享。
+ */
+public interface TrackSimplifier {
+
+    /**
+     * @param tolerance 容差，含义由具体策略决定
+     * @param maxPoints 最多保留的点数，0 表示不限制；不支持按点数限制的策略忽略该参数
+     * @return 保留点的下标
+     */
+    int[] simplify(TrackColumns track, double tolerance, int maxPoints);
+
+    /**
+     * 对同一终端按时间排序的轨迹点抽稀，与 TrackPoint 的转换只在这里做一次
+     */
+    default List<TrackPoint> simplify(List<TrackPoint> points, double tolerance, int maxPoints) {
+        if (points == null || points.size() <= 2) {
+            return points;
+        }
+        TrackColumns track = TrackColumns.of(points);
+        return track.select(simplify(track, tolerance, maxPoints));
+    }
+}
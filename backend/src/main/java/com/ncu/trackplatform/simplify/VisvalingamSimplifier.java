@@ -0,0 +1,150 @@
+package com.ncu.trackplatform.simplify;
+
+/**
+ * Visvalingam-Whyatt 抽稀
+ * 每个内部点的有效面积为它与前后相邻保留点构成的三角形面积，
+ * 反复删除有效面积最小的点并更新相邻两点的面积，直到最小面积达到容差（平方米）且点数不超过上限。
+ * 点按有效面积放在数组实现的索引最小堆中，整个过程 O(n log n)，删除点时不分配对象。
+ */
+final class VisvalingamSimplifier implements TrackSimplifier {
+
+    @Override
+    public int[] simplify(TrackColumns track, double tolerance, int maxPoints) {
+        int n = track.size();
+        if (n <= 2) {
+            return TrackColumns.all(n);
+        }
+
+        int limit = maxPoints > 0 ? Math.max(2, maxPoints) : Integer.MAX_VALUE;
+        int[] prev = new int[n];
+        int[] next = new int[n];
+        double[] area = new double[n];
+        boolean[] keep = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            prev[i] = i - 1;
+            next[i] = i + 1;
+            keep[i] = true;
+        }
+
+        AreaHeap heap = new AreaHeap(n, area);
+        for (int i = 1; i < n - 1; i++) {
+            area[i] = track.triangleArea(i - 1, i, i + 1);
+            heap.add(i);
+        }
+
+        int kept = n;
+        double lastRemoved = 0;
+        while (!heap.isEmpty()) {
+            int i = heap.peek();
+            if (area[i] >= tolerance && kept <= limit) {
+                break;
+            }
+            heap.poll();
+            keep[i] = false;
+            kept--;
+            // 删除点的面积作为下限，相邻点的有效面积不会因删除而变小，保证删除顺序单调
+            lastRemoved = Math.max(lastRemoved, area[i]);
+
+            int p = prev[i];
+            int q = next[i];
+            next[p] = q;
+            prev[q] = p;
+            if (p > 0) {
+                area[p] = Math.max(lastRemoved, track.triangleArea(prev[p], p, q));
+                heap.update(p);
+            }
+            if (q < n - 1) {
+                area[q] = Math.max(lastRemoved, track.triangleArea(p, q, next[q]));
+                heap.update(q);
+            }
+        }
+        return TrackColumns.indexes(keep, kept);
+    }
+
+    /**
+     * 按有效面积排序的索引最小堆，记录每个点在堆中的位置以便就地调整
+     */
+    private static final class AreaHeap {
+        private final int[] heap;
+        private final int[] position;
+        private final double[] area;
+        private int size;
+
+        AreaHeap(int capacity, double[] area) {
+            this.heap = new int[capacity];
+            this.position = new int[capacity];
+            this.area = area;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void add(int point) {
+            heap[size] = point;
+            position[point] = size;
+            siftUp(size++);
+        }
+
+        int poll() {
+            int top = heap[0];
+            size--;
+            if (size > 0) {
+                move(heap[size], 0);
+                siftDown(0);
+            }
+            return top;
+        }
+
+        void update(int point) {
+            siftDown(siftUp(position[point]));
+        }
+
+        private int siftUp(int i) {
+            int point = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (less(heap[parent], point)) {
+                    break;
+                }
+                move(heap[parent], i);
+                i = parent;
+            }
+            move(point, i);
+            return i;
+        }
+
+        private void siftDown(int i) {
+            int point = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!less(heap[child], point)) {
+                    break;
+                }
+                move(heap[child], i);
+                i = child;
+            }
+            move(point, i);
+        }
+
+        // 面积相同时按原始顺序，结果与堆内部排列无关
+        private boolean less(int a, int b) {
+            return area[a] < area[b] || (area[a] == area[b] && a < b);
+        }
+
+        private void move(int point, int i) {
+            heap[i] = point;
+            position[point] = i;
+        }
+    }
+}
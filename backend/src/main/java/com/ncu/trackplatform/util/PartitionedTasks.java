@@ -0,0 +1,82 @@
+package com.ncu.trackplatform.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * 分区并行执行
+ * 各分区（如每个终端的轨迹点）互不相关，在 fork-join 线程池中分别处理，结果按分区原顺序返回，
+ * 与逐个串行处理的结果完全相同。
+ * 任务按元素数而不是分区数对半拆分，少数特别大的分区不会拖住某一个任务；
+ * 拆出的子任务由空闲线程窃取执行，每个任务只写入自己区间内的结果槽位。
+ */
+public final class PartitionedTasks {
+
+    private PartitionedTasks() {
+    }
+
+    /**
+     * @param leafSize 一个任务内的元素不超过此数量（或只剩一个分区）就不再拆分
+     * @return 每个分区的处理结果，顺序与 partitions 一致
+     */
+    public static <T, R> List<R> map(ForkJoinPool pool, List<? extends List<T>> partitions,
+                                     Function<List<T>, R> task, int leafSize) {
+        int count = partitions.size();
+        long[] offsets = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] = offsets[i] + partitions.get(i).size();
+        }
+        List<R> results = new ArrayList<>(Collections.nCopies(count, null));
+        if (count > 0) {
+            pool.invoke(new PartitionTask<>(partitions, task, offsets, results, Math.max(1, leafSize), 0, count));
+        }
+        return results;
+    }
+
+    private static final class PartitionTask<T, R> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends List<T>> partitions;
+        private final Function<List<T>, R> task;
+        // offsets[i] 为前 i 个分区的元素总数
+        private final long[] offsets;
+        private final List<R> results;
+        private final int leafSize;
+        private final int from;
+        private final int to;
+
+        PartitionTask(List<? extends List<T>> partitions, Function<List<T>, R> task, long[] offsets,
+                      List<R> results, int leafSize, int from, int to) {
+            this.partitions = partitions;
+            this.task = task;
+            this.offsets = offsets;
+            this.results = results;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1 || offsets[to] - offsets[from] <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    results.set(i, task.apply(partitions.get(i)));
+                }
+                return;
+            }
+            // 找到元素数过半的分区作为拆分位置
+            long half = (offsets[from] + offsets[to]) / 2;
+            int mid = Arrays.binarySearch(offsets, from + 1, to, half);
+            mid = mid >= 0 ? mid : -mid - 1;
+            mid = Math.max(from + 1, Math.min(mid, to - 1));
+            invokeAll(new PartitionTask<>(partitions, task, offsets, results, leafSize, from, mid),
+                      new PartitionTask<>(partitions, task, offsets, results, leafSize, mid, to));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ncu.trackplatform.parser;
+
+import com.ncu.trackplatform.entity.TrackEventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 行为短语按优先级分类，以及与逐个短语查找的朴素实现对照
+ */
+class BehaviorClassifierTest {
+
+    private static final String[][] PHRASES = {
+        {"AUTH_FAILED", "认证失败", "鉴权失败", "关联失败", "获取IP地址失败", "上线失败"},
+        {"OFFLINE", "下线", "离线", "去关联", "断开"},
+        {"ROAMED", "漫游"},
+        {"IP_ACQUIRED", "获取IP地址成功"},
+        {"ASSOCIATED", "关联成功"},
+        {"ONLINE", "上线"}
+    };
+
+    private final BehaviorClassifier classifier = BehaviorClassifier.defaults();
+
+    @Test
+    void higherPriorityPhraseWins() {
+        assertEquals(TrackEventType.AUTH_FAILED, classifier.classify("上线失败"));
+        assertEquals(TrackEventType.OFFLINE, classifier.classify("去关联成功"));
+        assertEquals(TrackEventType.AUTH_FAILED, classifier.classify("去关联失败"));
+        assertEquals(TrackEventType.ASSOCIATED, classifier.classify("上线 (关联成功)"));
+        assertEquals(TrackEventType.IP_ACQUIRED, classifier.classify("上线 (获取IP地址成功)"));
+        assertEquals(TrackEventType.AUTH_FAILED, classifier.classify("获取IP地址失败"));
+        assertEquals(TrackEventType.ROAMED, classifier.classify("漫游到AP 无线/青山湖北/物理楼"));
+        assertEquals(TrackEventType.OFFLINE, classifier.classify("终端下线"));
+        assertEquals(TrackEventType.ONLINE, classifier.classify("上线"));
+    }
+
+    @Test
+    void unmatchedTextReturnsNull() {
+        assertNull(classifier.classify(null));
+        assertNull(classifier.classify(""));
+        assertNull(classifier.classify("获取IP地址"));
+        assertNull(classifier.classify("关联"));
+    }
+
+    @Test
+    void matchesAreFoundThroughFailLinks() {
+        // 扫描 "abcx" 时在 "abc" 状态失配，需沿失败指针才能命中嵌在中间的 "bc"
+        BehaviorClassifier custom = BehaviorClassifier.builder()
+            .phrase(TrackEventType.ONLINE, "abcd")
+            .phrase(TrackEventType.AUTH_FAILED, "bc")
+            .phrase(TrackEventType.OFFLINE, "cde")
+            .build();
+        assertEquals(TrackEventType.AUTH_FAILED, custom.classify("abcx"));
+        assertEquals(TrackEventType.AUTH_FAILED, custom.classify("abcd"));
+        assertEquals(TrackEventType.OFFLINE, custom.classify("xcde"));
+        assertNull(custom.classify("abdc"));
+
+        // 同一短语登记为多个类型时取优先级高的
+        BehaviorClassifier duplicate = BehaviorClassifier.builder()
+            .phrase(TrackEventType.ONLINE, "断开")
+            .phrase(TrackEventType.OFFLINE, "断开")
+            .build();
+        assertEquals(TrackEventType.OFFLINE, duplicate.classify("连接断开"));
+    }
+
+    @Test
+    void generatedTextsMatchNaiveClassification() {
+        String[] fragments = {"上", "线", "失败", "成功", "去", "关联", "获取IP地址", "下", "离线", "断开", "漫", "游",
+            "认证", "鉴权", " ", "(", ")", "AP"};
+        Random random = new Random(23);
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder text = new StringBuilder();
+            for (int k = random.nextInt(8); k > 0; k--) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+            assertEquals(naive(text.toString()), classifier.classify(text), text.toString());
+        }
+    }
+
+    @Test
+    void unsupportedTypeIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> BehaviorClassifier.builder().phrase(null, "上线"));
+    }
+
+    private static TrackEventType naive(String text) {
+        for (String[] group : PHRASES) {
+            for (int i = 1; i < group.length; i++) {
+                if (text.contains(group[i])) {
+                    return TrackEventType.valueOf(group[0]);
+                }
+            }
+        }
+        return null;
+    }
+}
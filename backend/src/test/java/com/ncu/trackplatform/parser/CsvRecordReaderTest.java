@@ -0,0 +1,193 @@
+package com.ncu.trackplatform.parser;
+
+import com.opencsv.CSVReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 记录边界识别、偏移续读和分块读取，字段拆分与原来使用的 opencsv 对照
+ */
+class CsvRecordReaderTest {
+
+    // 引号内的逗号、换行和 "" 转义都不能截断记录
+    private static final String CSV = "时间,终端行为,轨迹详细信息\n"
+        + "2025-09-17 10:12:41,上线 (关联成功),\"终端在AP A1 关联成功, 信号良好\"\n"
+        + "2025-09-17 10:13:00,\"多行\n描述\",\"他说\"\"你好\"\"\"\r\n"
+        + "2025-09-17 10:14:00,,\n"
+        + "2025-09-17 10:15:00,下线,最后一行没有换行";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void fieldsMatchOpenCsv() throws IOException {
+        assertRecordsEqual(openCsv(CSV), read(CSV));
+    }
+
+    @Test
+    void generatedRecordsMatchOpenCsv() throws IOException {
+        // opencsv 默认把反斜杠当转义符，生成的数据中不含反斜杠
+        String[] fragments = {"a", "前湖", " ", ",", "\"", "\"\"", "\n", "\r\n", "1"};
+        Random random = new Random(42);
+        StringBuilder csv = new StringBuilder();
+        for (int r = 0; r < 2000; r++) {
+            int fields = 1 + random.nextInt(5);
+            for (int f = 0; f < fields; f++) {
+                if (f > 0) {
+                    csv.append(',');
+                }
+                boolean quoted = random.nextBoolean();
+                StringBuilder value = new StringBuilder();
+                for (int k = random.nextInt(4); k > 0; k--) {
+                    String fragment = fragments[random.nextInt(fragments.length)];
+                    if (!quoted && (fragment.contains(",") || fragment.contains("\"") || fragment.contains("\n"))) {
+                        continue;
+                    }
+                    value.append(fragment.equals("\"") ? "\"\"" : fragment);
+                }
+                csv.append(quoted ? "\"" + value + "\"" : value);
+            }
+            csv.append('\n');
+        }
+        assertRecordsEqual(openCsv(csv.toString()), read(csv.toString()));
+    }
+
+    @Test
+    void quotedLineBreaksAreReturnedAsNewline() throws IOException {
+        List<String[]> records = read("\"a\r\nb\",\"c\rd\"\r\ne,f\r\n");
+        assertEquals(2, records.size());
+        assertArrayEquals(new String[]{"a\nb", "c\nd"}, records.get(0));
+        assertArrayEquals(new String[]{"e", "f"}, records.get(1));
+    }
+
+    @Test
+    void offsetsResumeAtRecordBoundaries() throws IOException {
+        Path file = write(CSV);
+        List<String[]> all = new ArrayList<>();
+        long offset = 0;
+        while (true) {
+            try (CsvRecordReader reader = CsvRecordReader.open(file, StandardCharsets.UTF_8, offset, Long.MAX_VALUE)) {
+                String[] record = reader.readNext();
+                if (record == null) {
+                    break;
+                }
+                all.add(record);
+                assertTrue(reader.getOffset() > offset);
+                offset = reader.getOffset();
+            }
+        }
+        assertEquals(Files.size(file), offset);
+        assertRecordsEqual(read(CSV), all);
+    }
+
+    @Test
+    void endOffsetStopsAfterTheRecordCrossingIt() throws IOException {
+        Path file = write(CSV);
+        long secondRecordStart = CSV.substring(0, CSV.indexOf('\n') + 1).getBytes(StandardCharsets.UTF_8).length;
+        try (CsvRecordReader reader = CsvRecordReader.open(file, StandardCharsets.UTF_8, 0, secondRecordStart)) {
+            assertNotNull(reader.readNext());
+            assertNull(reader.readNext());
+            assertEquals(secondRecordStart, reader.getOffset());
+            assertEquals(1, reader.getRecordsRead());
+        }
+    }
+
+    @Test
+    void requireTerminatorLeavesHalfWrittenRecord() throws IOException {
+        byte[] bytes = "a,b\nc,\"d\ne\"\nf,g".getBytes(StandardCharsets.UTF_8);
+        CsvRecordReader reader = new CsvRecordReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        reader.setRequireTerminator(true);
+        assertArrayEquals(new String[]{"a", "b"}, reader.readNext());
+        assertArrayEquals(new String[]{"c", "d\ne"}, reader.readNext());
+        assertNull(reader.readNext());
+        assertEquals(bytes.length - "f,g".length(), reader.getOffset());
+    }
+
+    @Test
+    void utf8BomIsStrippedFromFirstRecordOnly() throws IOException {
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        byte[] body = "时间,行为\nx,y\n".getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, bytes, 0, bom.length);
+        System.arraycopy(body, 0, bytes, bom.length, body.length);
+        CsvRecordReader reader = new CsvRecordReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        assertArrayEquals(new String[]{"时间", "行为"}, reader.readNext());
+        assertArrayEquals(new String[]{"x", "y"}, reader.readNext());
+        assertEquals(bytes.length, reader.getOffset());
+    }
+
+    @Test
+    void parallelChunksCoverEveryRecordOnce() throws IOException {
+        StringBuilder csv = new StringBuilder("h1,h2\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append(i).append(i % 7 == 0 ? ",\"跨行\n字段,含逗号\"\n" : ",普通字段\n");
+        }
+        Path file = write(csv.toString());
+        ParallelCsvProcessor.Header header = ParallelCsvProcessor.readHeader(file, StandardCharsets.UTF_8);
+        assertArrayEquals(new String[]{"h1", "h2"}, header.getColumns());
+
+        for (long chunkSize : new long[]{1, 64, 1000, Long.MAX_VALUE}) {
+            List<String[]> chunked = new ArrayList<>();
+            long expectedStart = header.getDataStart();
+            for (long[] chunk : ParallelCsvProcessor.split(file, header.getDataStart(), chunkSize)) {
+                assertEquals(expectedStart, chunk[0]);
+                try (CsvRecordReader reader = CsvRecordReader.open(file, StandardCharsets.UTF_8, chunk[0], chunk[1])) {
+                    String[] record;
+                    while ((record = reader.readNext()) != null) {
+                        chunked.add(record);
+                    }
+                    assertEquals(chunk[1], reader.getOffset());
+                }
+                expectedStart = chunk[1];
+            }
+            assertEquals(Files.size(file), expectedStart);
+            List<String[]> expected = read(csv.toString());
+            assertRecordsEqual(expected.subList(1, expected.size()), chunked);
+        }
+    }
+
+    private Path write(String csv) throws IOException {
+        Path file = Files.createTempFile(tempDir, "records", ".csv");
+        Files.write(file, csv.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String[]> read(String csv) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (CsvRecordReader reader = new CsvRecordReader(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)) {
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static List<String[]> openCsv(String csv) throws IOException {
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            return reader.readAll();
+        } catch (com.opencsv.exceptions.CsvException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void assertRecordsEqual(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "record " + i);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ncu.trackplatform.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 导出文件时间列和 syslog 头部时间的解码
+ */
+class LogTimestampParserTest {
+
+    @Test
+    void exportFormatsDecodeAsChinaStandardTime() {
+        LocalDateTime expected = LocalDateTime.of(2025, 9, 17, 9, 54, 36);
+        assertEquals(expected, LogTimestampParser.parse("Wed Sep 17 09:54:36 CST 2025"));
+        assertEquals(expected, LogTimestampParser.parse("2025-09-17 09:54:36"));
+        assertEquals(expected, LogTimestampParser.parse("Sep 17 09:54:36 2025"));
+        assertEquals(expected.plusHours(8), LogTimestampParser.parse("Wed Sep 17 09:54:36 UTC 2025"));
+        assertNull(LogTimestampParser.parse("2025-02-30 00:00:00"));
+        assertNull(LogTimestampParser.parse(""));
+    }
+
+    @Test
+    void h3cSyslogHeader() {
+        assertEquals(LocalDateTime.of(2025, 9, 17, 9, 54, 36, 353_000_000), header(
+            "【syslog】<182>Sep 17 09:54:36.353 2025 NCDX-AC-H3C %%10STAMGR/6/STAMGR_CLIENT_SNOOPING: Client MAC: aaac-acdd-d1fb"));
+        assertEquals(LocalDateTime.of(2025, 9, 7, 9, 54, 36), header("<14>Sep  7 09:54:36 2025 ac01 msg"));
+    }
+
+    @Test
+    void huaweiSyslogHeader() {
+        assertEquals(LocalDateTime.of(2025, 9, 17, 10, 12, 41, 760_000_000), header(
+            "【syslog】<182>Sep 17 2025 10:12:41.760.1+08:00 NCU_HW_AC1 %%01WSTA/6/WLAN_LOG_USER(l)[13031587]:"));
+        assertEquals(LocalDateTime.of(2025, 9, 17, 18, 12, 41), header("<182>Sep 17 2025 10:12:41+00:00 AC1 x"));
+        assertEquals(LocalDateTime.of(2025, 9, 17, 10, 12, 41), header("Sep 17 2025 10:12:41 AC1 x"));
+    }
+
+    @Test
+    void syslogHeaderWithoutYearIsRejected() {
+        assertEquals(LogTimestampParser.INVALID, LogTimestampParser.decodeSyslogHeader("<14>Sep 17 09:54:36 ac01 msg"));
+        assertEquals(LogTimestampParser.INVALID, LogTimestampParser.decodeSyslogHeader("Sep 17 ac01 STA MAC=aa:bb:cc:dd:ee:ff"));
+        assertEquals(LogTimestampParser.INVALID, LogTimestampParser.decodeSyslogHeader("{\"sta_mac\": \"aaac.acdd.d1fb\"}"));
+        assertEquals(LogTimestampParser.INVALID, LogTimestampParser.decodeSyslogHeader(null));
+    }
+
+    private static LocalDateTime header(String line) {
+        long millis = LogTimestampParser.decodeSyslogHeader(line);
+        assertNotEquals(LogTimestampParser.INVALID, millis, line);
+        return LogTimestampParser.toLocalDateTime(millis);
+    }
+}
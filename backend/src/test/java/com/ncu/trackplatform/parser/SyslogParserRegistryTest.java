@@ -0,0 +1,142 @@
+package com.ncu.trackplatform.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 各厂商日志按消息标签分派后解析出的字段
+ */
+class SyslogParserRegistryTest {
+
+    private static final String HUAWEI = "【syslog】<182>Sep 17 2025 10:12:41.760.1+08:00 NCU_HW_AC1 "
+        + "%%01WSTA/6/WLAN_LOG_USER(l)[13031587]:[WLAN_STA_INFO_AP_ASSOCIATE]ACMAC:6c-34-91-f3-7a-f9;"
+        + "ACNAME:NCU_HW_AC1;APMAC:e4-77-27-d5-0b-a0;APNAME:CLHJL-C349B-1;APIP:10.133.0.251;RADIO:1;BAND:5G;"
+        + "SSID:NCUWLAN;ACCESS TYPE:Open;USER:b20c6f3fdf87;MAC:b2-0c-6f-3f-df-87;ASSOCDURATION:19721us;"
+        + "TIME:1758075161;ZONE:UTC+0800;DAYLIGHT:false;ERRCODE:0;RESULT:Success;";
+
+    private static final String H3C = "【syslog】<182>Sep 17 09:54:36.353 2025 NCDX-AC-H3C "
+        + "%%10STAMGR/6/STAMGR_CLIENT_SNOOPING: Detected client IP change: Client MAC: aaac-acdd-d1fb, "
+        + "IP: 10.202.55.239, -NA-, -NA-, -NA-, Username: -NA-, AP name: qhxq-bq-ysl-b-2f-02, Radio ID: 2, "
+        + "Channel number: 11, SSID: NCUWLAN, BSSID: 3891-d588-3052.";
+
+    private final SyslogParserRegistry registry = SyslogParserRegistry.defaults();
+    private final SyslogEvent event = new SyslogEvent();
+
+    @Test
+    void huaweiWstaFields() {
+        registry.parse(HUAWEI, event);
+        assertEquals(SyslogEvent.Source.HUAWEI_WSTA, event.source());
+        assertEquals("WLAN_STA_INFO_AP_ASSOCIATE", event.messageType());
+        assertEquals("b2-0c-6f-3f-df-87", event.staMac());
+        assertEquals(MacAddress.parse("e4-77-27-d5-0b-a0"), event.apMacKey());
+        assertEquals("CLHJL-C349B-1", event.apName());
+        assertEquals("10.133.0.251", event.apIp());
+        assertEquals(1, event.radio());
+        assertEquals("5G", event.band());
+        assertEquals("NCUWLAN", event.ssid());
+        assertEquals(19721L, event.assocDurationMicros());
+        assertEquals(0, event.resultCode());
+        assertEquals(1758075161L, event.time());
+    }
+
+    @Test
+    void huaweiDurationUnits() {
+        registry.parse("%%01WSTA/6/X:[T]MAC:b2-0c-6f-3f-df-87;ASSOCDURATION:20ms;", event);
+        assertEquals(20_000L, event.assocDurationMicros());
+        registry.parse("%%01WSTA/6/X:[T]MAC:b2-0c-6f-3f-df-87;ASSOCDURATION:1s;", event);
+        assertEquals(1_000_000L, event.assocDurationMicros());
+    }
+
+    @Test
+    void h3cStamgrFields() {
+        registry.parse(H3C, event);
+        assertEquals(SyslogEvent.Source.H3C_STAMGR, event.source());
+        assertEquals("STAMGR_CLIENT_SNOOPING", event.messageType());
+        assertEquals("aaac-acdd-d1fb", event.staMac());
+        assertEquals("10.202.55.239", event.staIp());
+        assertEquals("qhxq-bq-ysl-b-2f-02", event.apName());
+        assertEquals(2, event.radio());
+        assertEquals(11, event.channel());
+        assertEquals("NCUWLAN", event.ssid());
+        assertEquals(-1L, event.time());
+    }
+
+    @Test
+    void jsonFields() {
+        registry.parse("{\"sta_mac\": \"aaac.acdd.d1fb\", \"ap_name\": \"QSHB-WLL-1F-01\", "
+            + "\"radio\": {\"radio_id\": 2, \"channel\": 36}, \"band\": \"5G\", \"time\": 1758075161}", event);
+        assertEquals(SyslogEvent.Source.JSON, event.source());
+        assertEquals("aaac.acdd.d1fb", event.staMac());
+        assertEquals("QSHB-WLL-1F-01", event.apName());
+        assertEquals(2, event.radio());
+        assertEquals(36, event.channel());
+        assertEquals("5G", event.band());
+        assertEquals(1758075161L, event.time());
+    }
+
+    @Test
+    void jsonTimeAcceptsOnlyWholeEpochValues() {
+        assertEquals(1758075161L, jsonTime("1758075161"));
+        assertEquals(1758075161L, jsonTime("1758075161123"));
+        assertEquals(1758075161L, jsonTime("\"1758075161\""));
+        assertEquals(-1L, jsonTime("\"2025-09-17T10:12:41\""));
+        assertEquals(-1L, jsonTime("2025"));
+        assertEquals(-1L, jsonTime("\"\""));
+    }
+
+    @Test
+    void vendorTimeFieldsAreNormalisedToSeconds() {
+        registry.parse(HUAWEI.replace("TIME:1758075161;", "TIME:1758075161760;"), event);
+        assertEquals(1758075161L, event.time());
+        registry.parse(HUAWEI.replace("TIME:1758075161;", "TIME:2025;"), event);
+        assertEquals(-1L, event.time());
+
+        registry.parse("STA MAC=aa:bb:cc:dd:ee:ff APNAME:LIB-2F-01 TIME:1758075161760", event);
+        assertEquals(SyslogEvent.Source.GENERIC, event.source());
+        assertEquals(1758075161L, event.time());
+        registry.parse("STA MAC=aa:bb:cc:dd:ee:ff APNAME:LIB-2F-01 TIME:2025-09-17T10:12:41", event);
+        assertEquals(-1L, event.time());
+    }
+
+    @Test
+    void unknownFormatsFallBackToGenericParser() {
+        registry.parse("Sep 17 ac01 STA MAC=aa:bb:cc:dd:ee:ff APNAME:LIB-2F-01 RADIO:0 TIME:1758075161", event);
+        assertEquals(SyslogEvent.Source.GENERIC, event.source());
+        assertEquals("aa:bb:cc:dd:ee:ff", event.staMac());
+        assertEquals("LIB-2F-01", event.apName());
+        assertEquals(0, event.radio());
+        assertEquals(1758075161L, event.time());
+    }
+
+    @Test
+    void genericParserPrefersKeyedMacOverClient() {
+        registry.parse("Client 00-11-22-33-44-55 roamed, MAC=aa:bb:cc:dd:ee:ff", event);
+        assertEquals("aa:bb:cc:dd:ee:ff", event.staMac());
+
+        registry.parse("ACMAC:6c-34-91-f3-7a-f9 Client 00-11-22-33-44-55", event);
+        assertEquals("00-11-22-33-44-55", event.staMac());
+    }
+
+    @Test
+    void vendorMessageWithoutTerminalMacIsCompletedByGenericParser() {
+        registry.parse("%%10STAMGR/6/STAMGR_OTHER: STA MAC=aa:bb:cc:dd:ee:ff", event);
+        assertEquals(SyslogEvent.Source.H3C_STAMGR, event.source());
+        assertEquals("STAMGR_OTHER", event.messageType());
+        assertEquals("aa:bb:cc:dd:ee:ff", event.staMac());
+    }
+
+    @Test
+    void parseResetsPreviousEvent() {
+        registry.parse(HUAWEI, event);
+        registry.parse(null, event);
+        assertNull(event.source());
+        assertFalse(event.hasStaMac());
+        assertEquals(-1L, event.time());
+        assertEquals(MacAddress.NONE, event.apMacKey());
+    }
+
+    private long jsonTime(String value) {
+        return registry.parse("{\"sta_mac\": \"aaac.acdd.d1fb\", \"time\": " + value + "}", event).time();
+    }
+}
@@ -0,0 +1,143 @@
+package com.ncu.trackplatform.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 字段扫描器与原正则提取结果的对照
+ */
+class WiFiLogFieldScannerTest {
+
+    // 原 WiFiLogParsingService 中的正则
+    private static final Pattern LEGACY_MAC_PATTERN = Pattern.compile("MAC[=:]([a-fA-F0-9:-]{17}|[a-fA-F0-9.]{14})");
+    private static final Pattern LEGACY_MAC_PATTERN2 = Pattern.compile("Client\\s+([a-fA-F0-9-]{12,17})");
+    private static final Pattern LEGACY_MAC_PATTERN3 = Pattern.compile("sta_mac\":\\s*\"([a-fA-F0-9.]{14})\"");
+    private static final Pattern LEGACY_AP_LOCATION_PATTERN = Pattern.compile("终端在AP\\s+([^\\s]+)\\s+");
+    private static final Pattern LEGACY_AP_LOCATION_PATTERN2 = Pattern.compile("终端在AP\\s+([^\\s(]+)");
+    private static final Pattern LEGACY_AP_ROAM_TO_PATTERN = Pattern.compile("漫游到AP\\s+([^\\s(]+)");
+    private static final Pattern LEGACY_ADDRESS_FORMAT_PATTERN = Pattern.compile("无线/([^/]+)/([^/\\s)]+)");
+
+    private static final String[] DETAIL_FRAGMENTS = {
+        "终端在AP", "漫游到AP", " ", "  ", "\t", "\r\n", "(", ")", "/", "无线/", "前湖", "青山湖北",
+        "物理楼", "b-2f-02", "获取IP地址成功", "关联成功", "终端"
+    };
+
+    private final WiFiLogFieldScanner scanner = new WiFiLogFieldScanner();
+
+    @Test
+    void apLocationMatchesLegacyRegexOnSamples() {
+        String[] details = {
+            "终端在AP 前湖北-艺术楼-b-2f-02 获取IP地址成功",
+            "终端在AP 前湖北-材料环境楼-C349B-1 关联成功",
+            "漫游到AP 无线/青山湖北/物理楼",
+            "终端在AP 无线/前湖/图书馆(2F) 获取IP地址成功",
+            "终端在AP QH-LIB-2F(无线/前湖/图书馆)",
+            "从AP A1 漫游到AP 无线/前湖/信工楼)",
+            "终端在AP",
+            "终端在AP  ",
+            "无线/前湖/图书馆",
+            "",
+        };
+        for (String detail : details) {
+            assertEquals(legacyApLocation(detail), scanner.scanDetails(detail).apLocation(), detail);
+        }
+        assertNull(scanner.scanDetails(null).apLocation());
+    }
+
+    @Test
+    void apLocationMatchesLegacyRegexOnGeneratedDetails() {
+        Random random = new Random(20250917L);
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder detail = new StringBuilder();
+            int fragments = 1 + random.nextInt(8);
+            for (int k = 0; k < fragments; k++) {
+                detail.append(DETAIL_FRAGMENTS[random.nextInt(DETAIL_FRAGMENTS.length)]);
+            }
+            String text = detail.toString();
+            assertEquals(legacyApLocation(text), scanner.scanDetails(text).apLocation(), text);
+        }
+    }
+
+    @Test
+    void campusAndBuildingComeFromAddressFormat() {
+        scanner.scanDetails("漫游到AP 无线/青山湖北/物理楼");
+        assertTrue(scanner.hasAddressFormat());
+        assertEquals("青山湖北", scanner.campus());
+        assertEquals("物理楼", scanner.building());
+
+        scanner.scanDetails("终端在AP 前湖北-艺术楼-b-2f-02 获取IP地址成功");
+        assertTrue(scanner.hasApLocation());
+        assertFalse(scanner.hasAddressFormat());
+        assertNull(scanner.campus());
+    }
+
+    @Test
+    void macMatchesLegacyRegexWhereLegacyFoundTheTerminal() {
+        String[] lines = {
+            "STA MAC=aa:bb:cc:dd:ee:ff associated",
+            "user MAC:aabb.ccdd.eeff online",
+            "Client 00-11-22-33-44-55 connected",
+            "{\"sta_mac\": \"aaac.acdd.d1fb\", \"ap_name\": \"QSHB-WLL-1F-01\"}",
+        };
+        for (String line : lines) {
+            scanner.scanLog(line);
+            assertTrue(scanner.hasMac(), line);
+            assertEquals(legacyMac(line), scanner.mac(), line);
+            assertEquals(MacAddress.parse(scanner.mac()), scanner.macKey(), line);
+        }
+
+        scanner.scanLog("no terminal here");
+        assertFalse(scanner.hasMac());
+        assertEquals(MacAddress.NONE, scanner.macKey());
+        assertNull(legacyMac("no terminal here"));
+    }
+
+    @Test
+    void vendorLinesYieldTheTerminalMacInsteadOfTheAcMac() {
+        // 原正则在华为日志中先匹配到 ACMAC，在H3C日志中匹配不到 "Client MAC: " 后的MAC
+        String huawei = "【syslog】<182>Sep 17 2025 10:12:41.760.1+08:00 NCU_HW_AC1 %%01WSTA/6/WLAN_LOG_USER(l)[13031587]:"
+            + "[WLAN_STA_INFO_AP_ASSOCIATE]ACMAC:6c-34-91-f3-7a-f9;ACNAME:NCU_HW_AC1;APMAC:e4-77-27-d5-0b-a0;"
+            + "APNAME:CLHJL-C349B-1;APIP:10.133.0.251;RADIO:1;BAND:5G;SSID:NCUWLAN;ACCESS TYPE:Open;USER:b20c6f3fdf87;"
+            + "MAC:b2-0c-6f-3f-df-87;ASSOCDURATION:19721us;TIME:1758075161;ZONE:UTC+0800;DAYLIGHT:false;ERRCODE:0;RESULT:Success;";
+        assertEquals("6c-34-91-f3-7a-f9", legacyMac(huawei));
+        assertEquals("b2-0c-6f-3f-df-87", scanner.scanLog(huawei).mac());
+        assertEquals("CLHJL-C349B-1", scanner.apName());
+        assertEquals(1758075161L, scanner.time());
+
+        String h3c = "【syslog】<182>Sep 17 09:54:36.353 2025 NCDX-AC-H3C %%10STAMGR/6/STAMGR_CLIENT_SNOOPING: "
+            + "Detected client IP change: Client MAC: aaac-acdd-d1fb, IP: 10.202.55.239, -NA-, -NA-, -NA-, "
+            + "Username: -NA-, AP name: qhxq-bq-ysl-b-2f-02, Radio ID: 2, Channel number: 11, SSID: NCUWLAN, BSSID: 3891-d588-3052.";
+        assertNull(legacyMac(h3c));
+        assertEquals("aaac-acdd-d1fb", scanner.scanLog(h3c).mac());
+        assertEquals("qhxq-bq-ysl-b-2f-02", scanner.apName());
+        assertEquals(2, scanner.radio());
+    }
+
+    private static String legacyApLocation(String details) {
+        String ap = legacyFind(details, LEGACY_AP_LOCATION_PATTERN, LEGACY_AP_LOCATION_PATTERN2, LEGACY_AP_ROAM_TO_PATTERN);
+        if (ap == null) {
+            return null;
+        }
+        Matcher matcher = LEGACY_ADDRESS_FORMAT_PATTERN.matcher(ap);
+        return matcher.find() ? matcher.group(1) + "-" + matcher.group(2) : ap;
+    }
+
+    private static String legacyMac(String logContent) {
+        return legacyFind(logContent, LEGACY_MAC_PATTERN, LEGACY_MAC_PATTERN2, LEGACY_MAC_PATTERN3);
+    }
+
+    private static String legacyFind(String text, Pattern... patterns) {
+        for (Pattern pattern : patterns) {
+            Matcher matcher = pattern.matcher(text);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.parser.WiFiLogFieldScanner;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 别名表按最近使用时间淘汰，AP编号不受淘汰和清空影响
+ */
+class ApAliasRegistryTest {
+
+    private final ApAliasRegistry registry = new ApAliasRegistry();
+
+    @Test
+    void evictsLeastRecentlyUsedAliases() {
+        ReflectionTestUtils.setField(registry, "maxEntries", 8);
+        for (int i = 0; i < 8; i++) {
+            registry.learn(scan(i), "位置-" + i);
+        }
+        // 最早学习的 AP-0 被再次使用，AP-1 成为最久未用的条目
+        assertEquals("位置-0", registry.resolve(scan(0)));
+        registry.learn(scan(8), "位置-8");
+
+        assertTrue(registry.size() <= 8 * 3 / 4);
+        assertEquals("位置-0", registry.resolve(scan(0)));
+        assertEquals("位置-8", registry.resolve(scan(8)));
+        assertNull(registry.resolve(scan(1)));
+    }
+
+    @Test
+    void apIdsAreStableAcrossClear() {
+        ReflectionTestUtils.setField(registry, "maxEntries", 100);
+        int id = registry.apId("前湖北-艺术楼-b-2f-02");
+        registry.learn(scan(0), "前湖北-艺术楼-b-2f-02");
+        registry.clear();
+
+        assertEquals(0, registry.size());
+        assertNull(registry.resolve(scan(0)));
+        assertEquals(id, registry.apId("前湖北-艺术楼-b-2f-02"));
+        assertEquals("前湖北-艺术楼-b-2f-02", registry.apName(id));
+        assertNotEquals(id, registry.apId("前湖北-材料环境楼-C349B-1"));
+    }
+
+    private static WiFiLogFieldScanner scan(int ap) {
+        return new WiFiLogFieldScanner().scanLog("%%10STAMGR/6/STAMGR_CLIENT_SNOOPING: Client MAC: aaac-acdd-d1fb, "
+            + "AP name: AP-" + ap + ", Radio ID: 2");
+    }
+}
@@ -0,0 +1,68 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.entity.TrackEventType;
+import com.ncu.trackplatform.entity.TrackPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基于行为的优化在并行阈值上下的结果与串行处理一致
+ */
+class BehaviorBasedOptimizationServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 9, 17, 8, 0);
+    private static final TrackEventType[] EVENTS = TrackEventType.values();
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void parallelMatchesSerialAboveAndBelowThreshold() {
+        BehaviorBasedOptimizationService service = new BehaviorBasedOptimizationService();
+        ReflectionTestUtils.setField(service, "ingestPool", pool);
+        ReflectionTestUtils.setField(service, "parallelThreshold", 20_000);
+        Random random = new Random(37);
+        for (int size : new int[]{5_000, 60_000}) {
+            List<TrackPoint> points = skewedPoints(random, size);
+            List<TrackPoint> expected = service.optimizeByBehavior(new ArrayList<>(points), false);
+            List<TrackPoint> actual = service.optimizeByBehavior(new ArrayList<>(points), true);
+            assertFalse(expected.isEmpty());
+            assertEquals(expected.size(), actual.size(), "size " + size);
+            for (int i = 0; i < expected.size(); i++) {
+                assertSame(expected.get(i), actual.get(i), "size " + size);
+            }
+        }
+    }
+
+    /**
+     * 一个终端占一半的点，其余分给数百个小终端；大部分终端有MAC键，少数只有账号。
+     * 事件类型和AP编号随机，时间有重复，同一终端的点不按时间顺序出现
+     */
+    private static List<TrackPoint> skewedPoints(Random random, int size) {
+        List<TrackPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int device = i % 2 == 0 ? 0 : 1 + random.nextInt(300);
+            TrackPoint point = new TrackPoint("acc-" + device, 28.66, 115.80, START.plusSeconds(random.nextInt(size * 20)));
+            if (device % 10 != 7) {
+                point.setMacKey(0x0200_0000_0000L + device);
+            }
+            point.setEventType(EVENTS[random.nextInt(EVENTS.length)]);
+            point.setApId(random.nextInt(10) == 0 ? null : random.nextInt(4));
+            points.add(point);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ncu.trackplatform.service;
+
+import com.ncu.trackplatform.entity.TrackPoint;
+import com.ncu.trackplatform.simplify.SimplificationMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按账号抽稀在并行阈值上下的结果与串行处理一致（包括账号之间的顺序）
+ */
+class TrackOptimizationServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 9, 17, 8, 0);
+    private static final int PARALLEL_THRESHOLD = 20_000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void parallelMatchesSerialAboveAndBelowThreshold() {
+        TrackOptimizationService parallel = service(PARALLEL_THRESHOLD);
+        TrackOptimizationService serial = service(Integer.MAX_VALUE);
+        Random random = new Random(31);
+        // 点数分别在阈值之下和之上，都有一个特别大的账号
+        for (int size : new int[]{5_000, 60_000}) {
+            List<TrackPoint> points = skewedPoints(random, size);
+            for (SimplificationMode mode : SimplificationMode.values()) {
+                for (int maxPoints : new int[]{0, 50}) {
+                    List<TrackPoint> expected = serial.optimizeByAccount(new ArrayList<>(points), mode, null, maxPoints);
+                    List<TrackPoint> actual = parallel.optimizeByAccount(new ArrayList<>(points), mode, null, maxPoints);
+                    assertEquals(expected.size(), actual.size(), mode.getCode() + " " + size);
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertSame(expected.get(i), actual.get(i), mode.getCode() + " " + size);
+                    }
+                }
+            }
+        }
+    }
+
+    private TrackOptimizationService service(int parallelThreshold) {
+        TrackOptimizationService service = new TrackOptimizationService();
+        ReflectionTestUtils.setField(service, "ingestPool", pool);
+        ReflectionTestUtils.setField(service, "parallelThreshold", parallelThreshold);
+        return service;
+    }
+
+    /**
+     * 一个账号占一半的点，其余分给数百个小账号和没有账号只有轨迹ID的点；点的顺序打乱，时间有重复
+     */
+    private static List<TrackPoint> skewedPoints(Random random, int size) {
+        List<TrackPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String account = i % 2 == 0 ? "big" : random.nextInt(10) == 0 ? null : "acc-" + random.nextInt(300);
+            TrackPoint point = new TrackPoint(account,
+                28.66 + random.nextDouble() * 0.01, 115.80 + random.nextDouble() * 0.01,
+                START.plusSeconds(random.nextInt(size * 20)));
+            if (account == null) {
+                point.setTrackId("track-" + random.nextInt(5));
+            }
+            points.add(point);
+        }
+        Collections.shuffle(points, random);
+        return points;
+    }
+}
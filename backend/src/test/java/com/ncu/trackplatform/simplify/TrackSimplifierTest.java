@@ -0,0 +1,335 @@
+package com.ncu.trackplatform.simplify;
+
+import com.ncu.trackplatform.entity.TrackPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 三种抽稀方式的结果约束，以及与原固定阈值算法、朴素实现的对照
+ */
+class TrackSimplifierTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 9, 17, 8, 0);
+
+    private final TrackSimplifier threshold = SimplificationMode.THRESHOLD.getSimplifier();
+    private final TrackSimplifier douglasPeucker = SimplificationMode.DOUGLAS_PEUCKER.getSimplifier();
+    private final TrackSimplifier visvalingam = SimplificationMode.VISVALINGAM.getSimplifier();
+
+    @Test
+    void thresholdMatchesOriginalAlgorithm() {
+        Random random = new Random(11);
+        for (int n = 0; n < 500; n++) {
+            List<TrackPoint> points = randomTrack(random, 2 + random.nextInt(200));
+            List<TrackPoint> expected = legacyThreshold(points);
+            List<TrackPoint> actual = threshold.simplify(points, 5.0, 0);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertSame(expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+    @Test
+    void incrementalFilterMatchesThresholdInOrder() {
+        Random random = new Random(19);
+        for (int n = 0; n < 300; n++) {
+            List<TrackPoint> points = randomTrack(random, 1 + random.nextInt(200));
+            double tolerance = random.nextDouble() * 30;
+            IncrementalThresholdFilter filter = new IncrementalThresholdFilter(tolerance);
+            List<TrackPoint> actual = new ArrayList<>();
+            IncrementalThresholdFilter.Decision last = null;
+            for (TrackPoint point : points) {
+                last = filter.offer(point);
+                assertNotEquals(IncrementalThresholdFilter.Decision.LATE, last);
+                if (last == IncrementalThresholdFilter.Decision.KEPT) {
+                    actual.add(point);
+                }
+            }
+            // 在线时最后一个被丢弃的点是待定的轨迹尾，读取时补上
+            if (last == IncrementalThresholdFilter.Decision.DROPPED) {
+                actual.add(points.get(points.size() - 1));
+            }
+            List<TrackPoint> expected = threshold.simplify(points, tolerance, 0);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertSame(expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+    @Test
+    void incrementalFilterReportsLatePoints() {
+        IncrementalThresholdFilter filter = new IncrementalThresholdFilter(5.0);
+        assertEquals(IncrementalThresholdFilter.Decision.KEPT, filter.offer(point(28.66, 115.80, 600)));
+        assertEquals(IncrementalThresholdFilter.Decision.LATE, filter.offer(point(28.67, 115.81, 0)));
+        assertEquals(IncrementalThresholdFilter.Decision.KEPT, filter.offer(point(28.67, 115.81, 700)));
+    }
+
+    @Test
+    void straightLineKeepsOnlyEndpoints() {
+        List<TrackPoint> line = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            line.add(point(28.66 + i * 0.0001, 115.80 + i * 0.0001, i * 60));
+        }
+        TrackColumns track = TrackColumns.of(line);
+        assertArrayEquals(new int[]{0, 99}, douglasPeucker.simplify(track, 1.0, 0));
+        assertArrayEquals(new int[]{0, 99}, visvalingam.simplify(track, 1.0, 0));
+    }
+
+    @Test
+    void zeroToleranceKeepsEveryCorner() {
+        List<TrackPoint> zigzag = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            zigzag.add(point(28.66 + (i % 2) * 0.001, 115.80 + i * 0.001, i * 60));
+        }
+        TrackColumns track = TrackColumns.of(zigzag);
+        assertEquals(50, douglasPeucker.simplify(track, 0, 0).length);
+        assertEquals(50, visvalingam.simplify(track, 0, 0).length);
+    }
+
+    @Test
+    void resultsAreAscendingAndKeepEndpoints() {
+        Random random = new Random(3);
+        for (int n = 0; n < 200; n++) {
+            TrackColumns track = TrackColumns.of(randomTrack(random, 3 + random.nextInt(300)));
+            for (SimplificationMode mode : SimplificationMode.values()) {
+                int[] kept = mode.getSimplifier().simplify(track, mode.getDefaultTolerance(), 0);
+                assertEquals(0, kept[0], mode.getCode());
+                assertEquals(track.size() - 1, kept[kept.length - 1], mode.getCode());
+                for (int i = 1; i < kept.length; i++) {
+                    assertTrue(kept[i] > kept[i - 1], mode.getCode());
+                }
+            }
+        }
+    }
+
+    @Test
+    void maxPointsBoundsTheResult() {
+        Random random = new Random(5);
+        TrackColumns track = TrackColumns.of(randomTrack(random, 500));
+        for (int maxPoints : new int[]{1, 2, 3, 10, 100, 499}) {
+            // 容差为0时只受点数限制，随机轨迹上正好保留 maxPoints 个点（至少保留首尾两点）
+            assertEquals(Math.max(2, maxPoints), douglasPeucker.simplify(track, 0, maxPoints).length);
+            assertEquals(Math.max(2, maxPoints), visvalingam.simplify(track, 0, maxPoints).length);
+            assertTrue(douglasPeucker.simplify(track, 10.0, maxPoints).length <= Math.max(2, maxPoints));
+            assertTrue(visvalingam.simplify(track, 200.0, maxPoints).length <= Math.max(2, maxPoints));
+        }
+    }
+
+    @Test
+    void douglasPeuckerKeepsMostImportantPointsFirst() {
+        // 点数上限放宽时只会追加点，不会替换已保留的点
+        TrackColumns track = TrackColumns.of(randomTrack(new Random(9), 300));
+        int[] previous = douglasPeucker.simplify(track, 0, 2);
+        for (int maxPoints = 3; maxPoints <= 60; maxPoints++) {
+            int[] current = douglasPeucker.simplify(track, 0, maxPoints);
+            for (int index : previous) {
+                assertTrue(contains(current, index), "maxPoints " + maxPoints);
+            }
+            previous = current;
+        }
+    }
+
+    @Test
+    void douglasPeuckerMatchesRecursiveDefinition() {
+        Random random = new Random(13);
+        for (int n = 0; n < 300; n++) {
+            TrackColumns track = TrackColumns.of(randomTrack(random, 3 + random.nextInt(400)));
+            double tolerance = random.nextDouble() * 30;
+            boolean[] keep = new boolean[track.size()];
+            keep[0] = true;
+            keep[track.size() - 1] = true;
+            recursiveDouglasPeucker(track, 0, track.size() - 1, tolerance * tolerance, keep);
+            assertArrayEquals(indexesOf(keep), douglasPeucker.simplify(track, tolerance, 0));
+        }
+    }
+
+    @Test
+    void visvalingamMatchesNaiveImplementation() {
+        Random random = new Random(17);
+        for (int n = 0; n < 300; n++) {
+            TrackColumns track = TrackColumns.of(randomTrack(random, 3 + random.nextInt(200)));
+            double tolerance = random.nextDouble() * 500;
+            int maxPoints = random.nextBoolean() ? 0 : 2 + random.nextInt(50);
+            assertArrayEquals(naiveVisvalingam(track, tolerance, maxPoints), visvalingam.simplify(track, tolerance, maxPoints));
+        }
+    }
+
+    @Test
+    void shortAndInvalidInputs() {
+        assertNull(douglasPeucker.simplify((List<TrackPoint>) null, 1.0, 0));
+        List<TrackPoint> two = List.of(point(28.66, 115.80, 0), point(28.67, 115.81, 60));
+        assertSame(two, visvalingam.simplify(two, 1.0, 0));
+
+        // 没有经纬度的点不参与抽稀
+        List<TrackPoint> points = new ArrayList<>(randomTrack(new Random(1), 20));
+        TrackPoint missing = new TrackPoint("acc", null, null, START);
+        points.add(5, missing);
+        assertFalse(douglasPeucker.simplify(points, 0, 0).contains(missing));
+        assertEquals(20, TrackColumns.of(points).size());
+    }
+
+    @Test
+    void modeFromParam() {
+        assertEquals(SimplificationMode.THRESHOLD, SimplificationMode.fromParam(null));
+        assertEquals(SimplificationMode.THRESHOLD, SimplificationMode.fromParam(" "));
+        assertEquals(SimplificationMode.DOUGLAS_PEUCKER, SimplificationMode.fromParam("dp"));
+        assertEquals(SimplificationMode.DOUGLAS_PEUCKER, SimplificationMode.fromParam("douglas-peucker"));
+        assertEquals(SimplificationMode.VISVALINGAM, SimplificationMode.fromParam("VW"));
+        assertThrows(IllegalArgumentException.class, () -> SimplificationMode.fromParam("spline"));
+    }
+
+    /**
+     * 原 TrackOptimizationService.optimizeTrackPoints 的实现（阈值5米、30秒、300秒）
+     */
+    private static List<TrackPoint> legacyThreshold(List<TrackPoint> originalPoints) {
+        if (originalPoints.size() <= 2) {
+            return originalPoints;
+        }
+        List<TrackPoint> optimizedPoints = new ArrayList<>();
+        optimizedPoints.add(originalPoints.get(0));
+        TrackPoint lastKeptPoint = originalPoints.get(0);
+        for (int i = 1; i < originalPoints.size(); i++) {
+            TrackPoint currentPoint = originalPoints.get(i);
+            long timeIntervalSeconds = Duration.between(lastKeptPoint.getTimestamp(), currentPoint.getTimestamp()).getSeconds();
+            boolean keep;
+            if (timeIntervalSeconds < 30) {
+                keep = false;
+            } else if (timeIntervalSeconds > 300) {
+                keep = true;
+            } else {
+                keep = legacyDistance(lastKeptPoint, currentPoint) >= 5.0;
+            }
+            if (keep) {
+                optimizedPoints.add(currentPoint);
+                lastKeptPoint = currentPoint;
+            }
+        }
+        TrackPoint lastOriginalPoint = originalPoints.get(originalPoints.size() - 1);
+        if (!lastKeptPoint.equals(lastOriginalPoint)) {
+            optimizedPoints.add(lastOriginalPoint);
+        }
+        return optimizedPoints;
+    }
+
+    private static double legacyDistance(TrackPoint point1, TrackPoint point2) {
+        double lat1 = Math.toRadians(point1.getLatitude());
+        double lon1 = Math.toRadians(point1.getLongitude());
+        double lat2 = Math.toRadians(point2.getLatitude());
+        double lon2 = Math.toRadians(point2.getLongitude());
+        double dlat = lat2 - lat1;
+        double dlon = lon2 - lon1;
+        double a = Math.sin(dlat / 2) * Math.sin(dlat / 2) +
+                   Math.cos(lat1) * Math.cos(lat2) *
+                   Math.sin(dlon / 2) * Math.sin(dlon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return 6371000 * c;
+    }
+
+    private static void recursiveDouglasPeucker(TrackColumns track, int start, int end, double toleranceSq, boolean[] keep) {
+        if (end - start < 2) {
+            return;
+        }
+        int farthest = -1;
+        double maxSq = -1;
+        for (int i = start + 1; i < end; i++) {
+            double d = track.segmentDistanceSq(i, start, end);
+            if (d > maxSq) {
+                maxSq = d;
+                farthest = i;
+            }
+        }
+        if (maxSq > toleranceSq) {
+            keep[farthest] = true;
+            recursiveDouglasPeucker(track, start, farthest, toleranceSq, keep);
+            recursiveDouglasPeucker(track, farthest, end, toleranceSq, keep);
+        }
+    }
+
+    /**
+     * 每轮线性查找有效面积最小的点（面积相同取下标小的），其余规则与实现相同
+     */
+    private static int[] naiveVisvalingam(TrackColumns track, double tolerance, int maxPoints) {
+        int n = track.size();
+        int limit = maxPoints > 0 ? Math.max(2, maxPoints) : Integer.MAX_VALUE;
+        List<Integer> alive = new ArrayList<>();
+        double[] area = new double[n];
+        for (int i = 0; i < n; i++) {
+            alive.add(i);
+            if (i > 0 && i < n - 1) {
+                area[i] = track.triangleArea(i - 1, i, i + 1);
+            }
+        }
+        double lastRemoved = 0;
+        while (alive.size() > 2) {
+            int min = 1;
+            for (int k = 2; k < alive.size() - 1; k++) {
+                if (area[alive.get(k)] < area[alive.get(min)]) {
+                    min = k;
+                }
+            }
+            int i = alive.get(min);
+            if (area[i] >= tolerance && alive.size() <= limit) {
+                break;
+            }
+            lastRemoved = Math.max(lastRemoved, area[i]);
+            alive.remove(min);
+            if (min - 1 > 0) {
+                int p = alive.get(min - 1);
+                area[p] = Math.max(lastRemoved, track.triangleArea(alive.get(min - 2), p, alive.get(min)));
+            }
+            if (min < alive.size() - 1) {
+                int q = alive.get(min);
+                area[q] = Math.max(lastRemoved, track.triangleArea(alive.get(min - 1), q, alive.get(min + 1)));
+            }
+        }
+        return alive.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 校园范围内的随机游走，时间间隔 0~400 秒并带毫秒
+     */
+    private static List<TrackPoint> randomTrack(Random random, int size) {
+        List<TrackPoint> points = new ArrayList<>(size);
+        double lat = 28.66;
+        double lon = 115.80;
+        long millis = 0;
+        for (int i = 0; i < size; i++) {
+            lat += (random.nextDouble() - 0.5) * 0.0004;
+            lon += (random.nextDouble() - 0.5) * 0.0004;
+            millis += random.nextInt(400_000);
+            points.add(new TrackPoint("acc", lat, lon, START.plusNanos(millis * 1_000_000L)));
+        }
+        return points;
+    }
+
+    private static TrackPoint point(double lat, double lon, long seconds) {
+        return new TrackPoint("acc", lat, lon, START.plusSeconds(seconds));
+    }
+
+    private static int[] indexesOf(boolean[] keep) {
+        int count = 0;
+        for (boolean k : keep) {
+            if (k) {
+                count++;
+            }
+        }
+        return TrackColumns.indexes(keep, count);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
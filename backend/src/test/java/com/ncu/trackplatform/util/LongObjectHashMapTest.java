@@ -0,0 +1,91 @@
+package com.ncu.trackplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 与 HashMap<Long, V> 对照的随机操作
+ */
+class LongObjectHashMapTest {
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(7);
+        LongObjectHashMap<Integer> map = new LongObjectHashMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        // 键集中在较小范围内以产生覆盖和冲突，另外混入 0、负数和极值
+        long[] specialKeys = {0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, 0xFFFF_FFFF_FFFFL};
+        for (int n = 0; n < 200_000; n++) {
+            long key = random.nextInt(10) == 0
+                ? specialKeys[random.nextInt(specialKeys.length)]
+                : random.nextInt(50_000) * 4096L;
+            int value = random.nextInt();
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                    break;
+                case 1:
+                    assertEquals(expected.computeIfAbsent(key, k -> value), map.computeIfAbsent(key, k -> value));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach((key, value) -> assertNull(visited.put(key, value)));
+        assertEquals(expected, visited);
+
+        List<Integer> values = map.values();
+        List<Integer> expectedValues = new ArrayList<>(expected.values());
+        Collections.sort(values);
+        Collections.sort(expectedValues);
+        assertEquals(expectedValues, values);
+    }
+
+    @Test
+    void computeIfAbsentCallsMappingFunctionOnce() {
+        LongObjectHashMap<List<String>> map = new LongObjectHashMap<>(4);
+        int[] calls = {0};
+        for (int i = 0; i < 3; i++) {
+            map.computeIfAbsent(42L, k -> {
+                calls[0]++;
+                return new ArrayList<>();
+            }).add("p" + i);
+        }
+        assertEquals(1, calls[0]);
+        assertEquals(List.of("p0", "p1", "p2"), map.get(42L));
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, "v" + key);
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(5L));
+        assertNull(map.put(5L, "again"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void nullValuesAreRejected() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        assertThrows(NullPointerException.class, () -> map.put(1L, null));
+        assertThrows(NullPointerException.class, () -> map.computeIfAbsent(1L, k -> null));
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ncu.trackplatform.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 各种分区大小分布下并行结果与逐个串行处理一致，每个分区恰好处理一次
+ */
+class PartitionedTasksTest {
+
+    @Test
+    void skewedPartitionsMatchSerialResults() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(29);
+            for (int n = 0; n < 50; n++) {
+                List<List<Integer>> partitions = skewedPartitions(random);
+                List<Long> expected = new ArrayList<>();
+                for (List<Integer> partition : partitions) {
+                    expected.add(checksum(partition));
+                }
+                for (int leafSize : new int[]{0, 1, 16, 4096, Integer.MAX_VALUE}) {
+                    AtomicIntegerArray calls = new AtomicIntegerArray(partitions.size());
+                    List<Long> actual = PartitionedTasks.map(pool, partitions, partition -> {
+                        calls.incrementAndGet(partition.get(0));
+                        return checksum(partition);
+                    }, leafSize);
+                    assertEquals(expected, actual, "leafSize " + leafSize);
+                    for (int i = 0; i < partitions.size(); i++) {
+                        assertEquals(1, calls.get(i), "partition " + i);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void emptyInputReturnsEmptyResults() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertTrue(PartitionedTasks.map(pool, new ArrayList<List<Integer>>(), List::size, 16).isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 少数很大的分区混在大量只有一两个元素的分区中，大分区的位置随机；
+     * 每个分区的第一个元素是它的下标，用来统计处理次数
+     */
+    private static List<List<Integer>> skewedPartitions(Random random) {
+        int count = 1 + random.nextInt(300);
+        List<List<Integer>> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int size = random.nextInt(20) == 0 ? 5_000 + random.nextInt(20_000) : 1 + random.nextInt(2);
+            List<Integer> partition = new ArrayList<>(size);
+            partition.add(i);
+            for (int k = 1; k < size; k++) {
+                partition.add(random.nextInt());
+            }
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    private static long checksum(List<Integer> partition) {
+        long sum = 17;
+        for (int value : partition) {
+            sum = sum * 31 + value;
+        }
+        return sum;
+    }
+}